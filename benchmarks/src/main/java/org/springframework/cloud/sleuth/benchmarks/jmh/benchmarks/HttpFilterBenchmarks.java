@@ -18,12 +18,16 @@ package org.springframework.cloud.sleuth.benchmarks.jmh.benchmarks;
 import java.io.IOException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -39,6 +43,7 @@ import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.springframework.boot.SpringApplication;
 import org.springframework.cloud.sleuth.benchmarks.app.SleuthBenchmarkingSpringApp;
+import org.springframework.cloud.sleuth.instrument.web.SleuthWebProperties;
 import org.springframework.cloud.sleuth.instrument.web.TraceFilter;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.http.MediaType;
@@ -70,7 +75,9 @@ public class HttpFilterBenchmarks {
 		volatile ConfigurableApplicationContext withSleuth;
 		volatile DummyFilter dummyFilter = new DummyFilter();
 		volatile TraceFilter traceFilter;
+		volatile TraceFilter traceFilterWithDefaultSkipPattern;
 		volatile MockMvc mockMvcForTracedController;
+		volatile MockMvc mockMvcForTracedControllerWithTraceFilter;
 		volatile MockMvc mockMvcForUntracedController;
 
 		@Setup public void setup() {
@@ -79,9 +86,16 @@ public class HttpFilterBenchmarks {
 					.run("--spring.jmx.enabled=false",
 							"--spring.application.name=withSleuth");
 			this.traceFilter = this.withSleuth.getBean(TraceFilter.class);
+			this.traceFilterWithDefaultSkipPattern = new TraceFilter(
+					this.withSleuth.getBeanFactory(),
+					Pattern.compile(SleuthWebProperties.DEFAULT_SKIP_PATTERN));
 			this.mockMvcForTracedController = MockMvcBuilders.standaloneSetup(
 					this.withSleuth.getBean(SleuthBenchmarkingSpringApp.class))
 					.build();
+			this.mockMvcForTracedControllerWithTraceFilter = MockMvcBuilders.standaloneSetup(
+					this.withSleuth.getBean(SleuthBenchmarkingSpringApp.class))
+					.addFilters(this.traceFilter)
+					.build();
 			this.mockMvcForUntracedController = MockMvcBuilders.standaloneSetup(
 					new VanillaController())
 					.build();
@@ -118,6 +132,38 @@ public class HttpFilterBenchmarks {
 		context.traceFilter.doFilter(request, response, new MockFilterChain());
 	}
 
+	/**
+	 * The path matches none of the alternatives of the default skip pattern, which is
+	 * the most expensive case when the pattern has to be matched on every request
+	 */
+	@Benchmark
+	@Measurement(iterations = 5, time = 1)
+	@Fork(3)
+	public void filterWithSleuthAndDefaultSkipPattern(BenchmarkContext context)
+			throws ServletException, IOException {
+		MockHttpServletRequest request = get("/api/users/1").accept(MediaType.APPLICATION_JSON)
+				.buildRequest(new MockServletContext());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+		context.traceFilterWithDefaultSkipPattern.doFilter(request, response,
+				new MockFilterChain());
+	}
+
+	@Benchmark
+	@Measurement(iterations = 5, time = 1)
+	@Fork(3)
+	public void filterWithSleuthAndSkippedPath(BenchmarkContext context)
+			throws ServletException, IOException {
+		MockHttpServletRequest request = get("/health").accept(MediaType.APPLICATION_JSON)
+				.buildRequest(new MockServletContext());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+		context.traceFilterWithDefaultSkipPattern.doFilter(request, response,
+				new MockFilterChain());
+	}
+
 	@Benchmark
 	@Measurement(iterations = 5, time = 10)
 	@Fork(10)
@@ -132,6 +178,51 @@ public class HttpFilterBenchmarks {
 		performRequest(context.mockMvcForTracedController, "bar", "bar");
 	}
 
+	/**
+	 * The whole async round trip - the request and the ASYNC dispatch of the result -
+	 * going through the {@link TraceFilter}
+	 */
+	@Benchmark
+	@Measurement(iterations = 5, time = 10)
+	@Fork(10)
+	public void asyncWithSleuthAndTraceFilter(BenchmarkContext context) throws Exception {
+		performRequest(context.mockMvcForTracedControllerWithTraceFilter, "bar", "bar");
+	}
+
+	@Benchmark
+	@Measurement(iterations = 5, time = 1)
+	@Fork(3)
+	public void asyncFilterWithoutSleuth(BenchmarkContext context)
+			throws IOException, ServletException {
+		MockHttpServletRequest request = asyncRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		context.dummyFilter.doFilter(request, response, new MockFilterChain(new AsyncServlet()));
+		request.getAsyncContext().complete();
+	}
+
+	/**
+	 * The servlet starts the async processing and the container completes it without
+	 * dispatching the request again, so the span gets closed by the async listener
+	 */
+	@Benchmark
+	@Measurement(iterations = 5, time = 1)
+	@Fork(3)
+	public void asyncFilterWithSleuth(BenchmarkContext context)
+			throws IOException, ServletException {
+		MockHttpServletRequest request = asyncRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		context.traceFilter.doFilter(request, response, new MockFilterChain(new AsyncServlet()));
+		request.getAsyncContext().complete();
+	}
+
+	private MockHttpServletRequest asyncRequest() {
+		MockHttpServletRequest request = builder().buildRequest(new MockServletContext());
+		request.setAsyncSupported(true);
+		return request;
+	}
+
 	private MockHttpServletRequestBuilder builder() {
 		return get("/").accept(MediaType.APPLICATION_JSON)
 				.header("User-Agent", "MockMvc");
@@ -160,6 +251,15 @@ public class HttpFilterBenchmarks {
 		@Override public void destroy() { }
 	}
 	
+	@SuppressWarnings("serial")
+	private static class AsyncServlet extends HttpServlet {
+
+		@Override protected void service(HttpServletRequest request,
+				HttpServletResponse response) {
+			request.startAsync();
+		}
+	}
+
 	@RestController
 	private static class VanillaController {
 		@RequestMapping("/vanilla")
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.benchmarks.jmh.benchmarks;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.instrument.web.ZipkinHttpSpanExtractor;
+import org.springframework.cloud.sleuth.instrument.web.ZipkinHttpSpanInjector;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Measures the cost of injecting the B3 headers into and extracting them from HTTP
+ * headers, depending on the number of other headers of the message. The
+ * {@code lookup} benchmarks use a carrier whose entries can be looked up by name,
+ * like the ones of the HTTP instrumentation, the {@code iterable} ones a carrier that
+ * can only be iterated over. The {@code parse} benchmarks measure the parsing of the
+ * single header formats alone. Run with {@code -prof gc} to see the allocations per
+ * operation.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PropagationBenchmarks {
+
+	@Param({ "0", "10", "30" })
+	int otherHeaders;
+
+	ZipkinHttpSpanInjector injector = new ZipkinHttpSpanInjector();
+	ZipkinHttpSpanExtractor extractor = new ZipkinHttpSpanExtractor(
+			Pattern.compile(""));
+
+	Span span = Span.builder().name("span").traceId(1L).spanId(2L).parent(3L)
+			.exportable(true).build();
+
+	// the injected headers are written to a separate map so that every invocation
+	// starts with the same outbound headers
+	HttpHeaders outbound = new HttpHeaders();
+	Map<String, String> written = new HashMap<>();
+	HttpHeaders inbound = new HttpHeaders();
+
+	LookupSpanTextMap lookupOutbound = new HttpHeadersTextMap(this.outbound, this.written);
+	SpanTextMap iterableOutbound = new IterableTextMap(this.lookupOutbound);
+	LookupSpanTextMap lookupInbound = new HttpHeadersTextMap(this.inbound, this.written);
+	SpanTextMap iterableInbound = new IterableTextMap(this.lookupInbound);
+
+	String b3 = B3SingleFormat.write(this.span);
+	String traceparent = TraceparentFormat.write(this.span);
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < this.otherHeaders; i++) {
+			this.outbound.add("X-Header-" + i, "value-" + i);
+			this.inbound.add("X-Header-" + i, "value-" + i);
+		}
+		this.inbound.add(Span.TRACE_ID_NAME, this.span.traceIdString());
+		this.inbound.add(Span.SPAN_ID_NAME, this.span.spanIdString());
+		this.inbound.add(Span.PARENT_ID_NAME, this.span.parentIdString());
+		this.inbound.add(Span.SAMPLED_NAME, Span.SPAN_SAMPLED);
+		this.inbound.add(Span.SPAN_NAME_NAME, this.span.getName());
+	}
+
+	@Benchmark
+	public Map<String, String> injectLookup() {
+		this.written.clear();
+		this.injector.inject(this.span, this.lookupOutbound);
+		return this.written;
+	}
+
+	@Benchmark
+	public Map<String, String> injectIterable() {
+		this.written.clear();
+		this.injector.inject(this.span, this.iterableOutbound);
+		return this.written;
+	}
+
+	@Benchmark
+	public Span extractLookup() {
+		return this.extractor.joinTrace(this.lookupInbound);
+	}
+
+	@Benchmark
+	public Span extractIterable() {
+		return this.extractor.joinTrace(this.iterableInbound);
+	}
+
+	@Benchmark
+	public Span.SpanBuilder parseB3Single() {
+		return B3SingleFormat.parse(this.b3);
+	}
+
+	@Benchmark
+	public Span.SpanBuilder parseTraceparent() {
+		return TraceparentFormat.parse(this.traceparent);
+	}
+
+	static class HttpHeadersTextMap implements LookupSpanTextMap {
+
+		final HttpHeaders headers;
+		final Map<String, String> written;
+
+		HttpHeadersTextMap(HttpHeaders headers, Map<String, String> written) {
+			this.headers = headers;
+			this.written = written;
+		}
+
+		@Override
+		public String get(String name) {
+			return this.headers.getFirst(name);
+		}
+
+		@Override
+		public Iterator<String> names() {
+			return this.headers.keySet().iterator();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+			final Iterator<Map.Entry<String, List<String>>> iterator = this.headers
+					.entrySet().iterator();
+			return new Iterator<Map.Entry<String, String>>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Map.Entry<String, String> next() {
+					Map.Entry<String, List<String>> next = iterator.next();
+					return new AbstractMap.SimpleEntry<>(next.getKey(),
+							next.getValue().get(0));
+				}
+			};
+		}
+
+		@Override
+		public void put(String key, String value) {
+			this.written.put(key, value);
+		}
+	}
+
+	/**
+	 * Hides the lookup methods of the carrier
+	 */
+	static class IterableTextMap implements SpanTextMap {
+
+		final SpanTextMap delegate;
+
+		IterableTextMap(SpanTextMap delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+			return this.delegate.iterator();
+		}
+
+		@Override
+		public void put(String key, String value) {
+			this.delegate.put(key, value);
+		}
+	}
+}
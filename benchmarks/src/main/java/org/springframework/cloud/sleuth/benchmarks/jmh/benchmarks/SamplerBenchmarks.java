@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.benchmarks.jmh.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.sampler.SamplerProperties;
+
+/**
+ * Measures how the sampling decision scales when all cores start traces at the same
+ * time. The samplers are shared by all benchmark threads, like in the application.
+ * By default all available cores are used - pass e.g. {@code -t 1} to compare with
+ * the uncontended case.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@Threads(Threads.MAX)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SamplerBenchmarks {
+
+	Span span = Span.builder().name("span").traceId(1L).spanId(1L).build();
+	Sampler percentageBased = new PercentageBasedSampler(properties(0.1f));
+	Sampler probabilityBased = new ProbabilityBasedSampler(properties(0.1f));
+
+	@Benchmark
+	public boolean percentageBasedSampler() {
+		return this.percentageBased.isSampled(this.span);
+	}
+
+	@Benchmark
+	public boolean probabilityBasedSampler() {
+		return this.probabilityBased.isSampled(this.span);
+	}
+
+	private static SamplerProperties properties(float percentage) {
+		SamplerProperties properties = new SamplerProperties();
+		properties.setPercentage(percentage);
+		return properties;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.benchmarks.jmh.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Measures the cost of creating spans. Run with the GC profiler
+ * ({@code -prof gc}) to get the allocation numbers ({@code gc.alloc.rate.norm}).
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SpanBenchmarks {
+
+	Span parent = Span.builder().name("parent").traceId(1L).spanId(1L).build();
+
+	@Benchmark
+	public Span untaggedSpan() {
+		return Span.builder().name("span").traceId(1L).spanId(2L).build();
+	}
+
+	@Benchmark
+	public Span untaggedChildSpan() {
+		return Span.builder().name("child").traceId(this.parent.getTraceId())
+				.parent(this.parent.getSpanId()).spanId(2L)
+				.baggage(this.parent.getBaggage()).savedSpan(this.parent).build();
+	}
+
+	@Benchmark
+	public Span nonExportableSpan() {
+		return Span.builder().name("span").traceId(1L).spanId(2L)
+				.exportable(false).build();
+	}
+
+	@Benchmark
+	public Span taggedSpan() {
+		Span span = Span.builder().name("span").traceId(1L).spanId(2L).build();
+		span.tag("http.method", "GET");
+		span.logEvent(Span.SERVER_RECV);
+		return span;
+	}
+
+	@Benchmark
+	public String spanIdString() {
+		return this.parent.spanIdString();
+	}
+
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public Span continuedSpan() {
+		return new Span(this.parent, null);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.benchmarks.jmh.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.DefaultSpanNamer;
+import org.springframework.cloud.sleuth.NoOpSpanReporter;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
+import org.springframework.cloud.sleuth.TraceKeys;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.log.NoOpSpanLogger;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+
+/**
+ * Measures the cost of keeping the current span in the thread context when spans
+ * get created and closed in a nested fashion. Run with {@code -prof gc} to see
+ * the allocations per operation.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TracerBenchmarks {
+
+	@Param({ "1", "3", "10" })
+	int depth;
+
+	Tracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+			new DefaultSpanNamer(), new NoOpSpanLogger(), new NoOpSpanReporter(),
+			new TraceKeys());
+
+	Span span = Span.builder().name("span").traceId(1L).spanId(1L).build();
+	Span otherSpan = Span.builder().name("other").traceId(1L).spanId(2L).build();
+
+	@Benchmark
+	public void nestedCreateAndClose() {
+		createAndClose(this.depth);
+	}
+
+	@Benchmark
+	public void nestedScopes() {
+		inScope(this.depth);
+	}
+
+	private void createAndClose(int remaining) {
+		Span span = this.tracer.createSpan("span");
+		try {
+			if (remaining > 1) {
+				createAndClose(remaining - 1);
+			}
+		}
+		finally {
+			this.tracer.close(span);
+		}
+	}
+
+	private void inScope(int remaining) {
+		Span span = remaining % 2 == 0 ? this.span : this.otherSpan;
+		try (SpanInScope ws = SpanScopes.withSpan(this.tracer, span)) {
+			if (remaining > 1) {
+				inScope(remaining - 1);
+			}
+		}
+	}
+}
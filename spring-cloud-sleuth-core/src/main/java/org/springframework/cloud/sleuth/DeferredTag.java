@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * Value of a tag that gets rendered only when the tags of a span are read, which
+ * typically happens when the span is reported. Instrumentation can keep cheap
+ * references to the traced data (e.g. the parts of a request URL) and skip building
+ * strings for spans whose tags are never read.
+ * <p>
+ * The value may be rendered in another thread after the traced operation has
+ * completed, so an implementation should only reference immutable data.
+ *
+ * @see Span#deferredTag(String, DeferredTag)
+ * @since 1.3.0
+ */
+public interface DeferredTag {
+
+	/**
+	 * Renders the value of the tag. The tag is skipped if the value has no text.
+	 */
+	String value();
+}
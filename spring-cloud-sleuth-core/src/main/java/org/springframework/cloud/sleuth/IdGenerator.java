@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * Generates ids of spans and traces. Called for every new span so implementations
+ * should be fast and shouldn't contend when used from many threads.
+ *
+ * @since 1.3.0
+ * @see ThreadLocalRandomIdGenerator
+ */
+public interface IdGenerator {
+
+	/**
+	 * @return a non zero id for a span or the lower 64 bits of a trace id
+	 */
+	long nextId();
+
+	/**
+	 * @return the upper 64 bits of a 128-bit trace id
+	 */
+	long nextTraceIdHigh();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.Iterator;
+
+/**
+ * A {@link SpanTextMap} whose entries can be looked up by name. Extractors use it to
+ * read the tracing headers directly from the carrier instead of copying all of its
+ * entries to a map first.
+ *
+ * @since 1.3.0
+ */
+public interface LookupSpanTextMap extends SpanTextMap {
+
+	/**
+	 * Returns the (first) value of the entry with the given name. The name is matched
+	 * ignoring its case, like HTTP header names.
+	 *
+	 * @param name name of the entry
+	 * @return value of the entry or {@code null} if there's no such entry
+	 */
+	String get(String name);
+
+	/**
+	 * Returns an iterator over the names of all entries. Meant for entries whose
+	 * names are not known upfront (e.g. baggage).
+	 */
+	Iterator<String> names();
+}
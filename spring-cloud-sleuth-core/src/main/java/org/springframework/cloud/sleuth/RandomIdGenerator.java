@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.Random;
+
+/**
+ * {@link IdGenerator} that delegates to a given {@link Random}. A {@link Random} is
+ * shared by all threads and gets contended when many of them create spans, so prefer
+ * {@link ThreadLocalRandomIdGenerator} unless you need a specific generator
+ * (e.g. a seeded one in tests).
+ *
+ * @since 1.3.0
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+	private final Random random;
+
+	public RandomIdGenerator(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	public long nextId() {
+		long id;
+		do {
+			id = this.random.nextLong();
+		} while (id == 0L);
+		return id;
+	}
+
+	@Override
+	public long nextTraceIdHigh() {
+		return ThreadLocalRandomIdGenerator.traceIdHigh(this.random.nextInt());
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * A {@link Tracer} that can put a span in scope without copying it. Instrumentation
+ * doesn't call it directly but through {@link SpanScopes#withSpan(Tracer, Span)},
+ * which falls back to continuing and detaching the span for other tracers.
+ *
+ * @since 1.3.0
+ */
+public interface ScopedTracer extends Tracer {
+
+	/**
+	 * Makes the given span the current one until the returned scope gets closed.
+	 * Unlike {@link #continueSpan(Span)} the span is not copied and closing the
+	 * scope restores the span that was current before instead of detaching the
+	 * span from the thread. Passing {@code null} clears the current span for the
+	 * lifetime of the scope.
+	 * <p>
+	 * Example of usage:
+	 * <pre>{@code
+	 *     // Span "A" was present in thread "X". Let's assume that we're in thread "Y" to which span "A" got passed
+	 *     try (SpanInScope ws = tracer.withSpan(spanA)) {
+	 *         // Span "A" is the current span in thread "Y"
+	 *     }
+	 *     // Whatever span was current in thread "Y" before is the current span again
+	 * }</pre>
+	 *
+	 * @param span the span to make the current one, can be {@code null}
+	 * @return the scope to close once the span is no longer the current one
+	 * @since 1.3.0
+	 */
+	SpanInScope withSpan(Span span);
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.sleuth;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -28,12 +29,14 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.springframework.cloud.sleuth.util.CaseInsensitiveHeaders;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Class for gathering and reporting statistics about a block of execution.
@@ -146,16 +149,30 @@ public class Span implements SpanContext {
 	private final String name;
 	private final long traceIdHigh;
 	private final long traceId;
-	private List<Long> parents = new ArrayList<>();
+	// Zipkin supports a single parent - kept as a primitive, serialized as "parents"
+	@JsonIgnore
+	private long parentId;
+	@JsonIgnore
+	private boolean hasParent;
 	private final long spanId;
+	/*
+	 Hex encoded ids - either computed on first use or taken as they were received from
+	 the carrier. Strings are immutable so concurrent readers can at worst compute the
+	 same value twice.
+	  */
+	@JsonIgnore
+	private String traceIdString;
+	@JsonIgnore
+	private String spanIdString;
+	@JsonIgnore
+	private String parentIdString;
 	private boolean remote = false;
 	private boolean exportable = true;
-	private final Map<String, String> tags;
 	private final String processId;
-	private final Collection<Log> logs;
 	private final Span savedSpan;
+	// tags, logs and baggage - serialized through the JSON accessors below
 	@JsonIgnore
-	private final Map<String,String> baggage;
+	private final SpanStorage storage;
 
 	// Null means we don't know the start tick, so fallback to time
 	@JsonIgnore
@@ -188,16 +205,18 @@ public class Span implements SpanContext {
 		this.name = current.getName();
 		this.traceIdHigh = current.getTraceIdHigh();
 		this.traceId = current.getTraceId();
-		this.parents = current.getParents();
+		this.parentId = current.parentId;
+		this.hasParent = current.hasParent;
 		this.spanId = current.getSpanId();
+		this.traceIdString = current.traceIdString;
+		this.spanIdString = current.spanIdString;
+		this.parentIdString = current.parentIdString;
 		this.remote = current.isRemote();
 		this.exportable = current.isExportable();
 		this.processId = current.getProcessId();
-		this.tags = current.tags;
-		this.logs = current.logs;
+		this.storage = current.storage;
 		this.startNanos = current.startNanos;
 		this.durationMicros = current.durationMicros;
-		this.baggage = current.baggage;
 		this.savedSpan = savedSpan;
 		this.shared = current.shared;
 	}
@@ -240,18 +259,33 @@ public class Span implements SpanContext {
 		this.name = builder.name != null ? builder.name : "";
 		this.traceIdHigh = builder.traceIdHigh;
 		this.traceId = builder.traceId;
-		this.parents.addAll(builder.parents);
+		this.parentId = builder.parentId;
+		this.hasParent = builder.hasParent;
 		this.spanId = builder.spanId;
+		this.traceIdString = hexIdOfLength(builder.traceIdString,
+				this.traceIdHigh != 0 ? 32 : 16);
+		this.spanIdString = hexIdOfLength(builder.spanIdString, 16);
+		this.parentIdString = this.hasParent ?
+				hexIdOfLength(builder.parentIdString, 16) : null;
 		this.remote = builder.remote;
 		this.exportable = builder.exportable;
 		this.processId = builder.processId;
 		this.savedSpan = builder.savedSpan;
-		this.tags = new ConcurrentHashMap<>();
-		this.tags.putAll(builder.tags);
-		this.logs = new ConcurrentLinkedQueue<>();
-		this.logs.addAll(builder.logs);
-		this.baggage = new ConcurrentHashMap<>();
-		this.baggage.putAll(builder.baggage);
+		this.storage = new SpanStorage();
+		if (builder.tags != null && !builder.tags.isEmpty()) {
+			this.storage.writableTags().putAll(builder.tags);
+		}
+		if (builder.deferredTags != null) {
+			for (Map.Entry<String, DeferredTag> entry : builder.deferredTags.entrySet()) {
+				this.storage.putDeferredTag(entry.getKey(), entry.getValue());
+			}
+		}
+		if (builder.logs != null && !builder.logs.isEmpty()) {
+			this.storage.writableLogs().addAll(builder.logs);
+		}
+		if (builder.baggage != null && !builder.baggage.isEmpty()) {
+			this.storage.baggage = Baggage.copyOf(builder.baggage);
+		}
 		this.shared = builder.shared;
 	}
 
@@ -259,6 +293,14 @@ public class Span implements SpanContext {
 		return new SpanBuilder();
 	}
 
+	/**
+	 * Returns the passed hex id only if it's as long as the one we would have encoded
+	 * ourselves (e.g. a 16 character header value for a 64-bit id)
+	 */
+	private static String hexIdOfLength(String hexId, int length) {
+		return hexId != null && hexId.length() == length ? hexId : null;
+	}
+
 	/**
 	 * The block has completed, stop the clock
 	 */
@@ -325,7 +367,22 @@ public class Span implements SpanContext {
 	 */
 	public void tag(String key, String value) {
 		if (StringUtils.hasText(value)) {
-			this.tags.put(key, value);
+			this.storage.removeDeferredTag(key);
+			this.storage.writableTags().put(key, value);
+		}
+	}
+
+	/**
+	 * Add a tag whose value is rendered only when the tags of this span are read,
+	 * which typically happens when the span gets reported. As with
+	 * {@link #tag(String, String)}, the tag is added only if the rendered value has
+	 * text, and the last value added for a key wins.
+	 *
+	 * @since 1.3.0
+	 */
+	public void deferredTag(String key, DeferredTag value) {
+		if (value != null) {
+			this.storage.putDeferredTag(key, value);
 		}
 	}
 
@@ -341,7 +398,7 @@ public class Span implements SpanContext {
 	 * associated with this span.
 	 */
 	public void logEvent(long timestampMilliseconds, String event) {
-		this.logs.add(new Log(timestampMilliseconds, event));
+		this.storage.writableLogs().add(new Log(timestampMilliseconds, event));
 	}
 
 	/**
@@ -355,10 +412,13 @@ public class Span implements SpanContext {
 	 * Note 2: Baggage is sent in-band with every subsequent local and remote calls, so this feature must be used with
 	 * care.
 	 *
+	 * Note 3: The baggage is immutable, setting an item creates a new copy of it. That
+	 * way children share the baggage of their parent instead of copying it.
+	 *
 	 * @return this Span instance, for chaining
 	 */
 	public Span setBaggageItem(String key, String value) {
-		this.baggage.put(key.toLowerCase(), value);
+		this.storage.putBaggage(key.toLowerCase(), value);
 		return this;
 	}
 
@@ -366,16 +426,20 @@ public class Span implements SpanContext {
 	 * @return the value of the baggage item identified by the given key, or null if no such item could be found
 	 */
 	public String getBaggageItem(String key) {
-		return this.baggage.get(key.toLowerCase());
+		return this.storage.baggage().get(key);
 	}
 
 	@Override
 	public final Iterable<Map.Entry<String,String>> baggageItems() {
-		return this.baggage.entrySet();
+		return this.storage.baggage().entrySet();
 	}
 
+	/**
+	 * @return the baggage of the span, the returned map is immutable
+	 */
+	@JsonIgnore
 	public final Map<String,String> getBaggage() {
-		return Collections.unmodifiableMap(this.baggage);
+		return this.storage.baggage();
 	}
 
 	/**
@@ -385,7 +449,23 @@ public class Span implements SpanContext {
 	 * Will never be null.
 	 */
 	public Map<String, String> tags() {
-		return Collections.unmodifiableMap(new LinkedHashMap<>(this.tags));
+		Map<String, String> tags = this.storage.tags();
+		if (tags.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+	}
+
+	/**
+	 * Whether a tag, deferred or not, was added for the given key. Unlike
+	 * {@link #tags()} it doesn't render the deferred tags, so it's cheap to call on a
+	 * span that is still in flight. A deferred tag counts even if its value renders
+	 * without text later on.
+	 *
+	 * @since 1.3.0
+	 */
+	public boolean hasTag(String key) {
+		return this.storage.hasTag(key);
 	}
 
 	/**
@@ -395,7 +475,35 @@ public class Span implements SpanContext {
 	 * Will never be null.
 	 */
 	public List<Log> logs() {
-		return Collections.unmodifiableList(new ArrayList<>(this.logs));
+		Collection<Log> logs = this.storage.logs();
+		if (logs.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<>(logs));
+	}
+
+	@JsonProperty("tags")
+	private Map<String, String> getTagsForJson() {
+		return this.storage.tags();
+	}
+
+	@JsonProperty("tags")
+	private void setTagsFromJson(Map<String, String> tags) {
+		if (tags != null && !tags.isEmpty()) {
+			this.storage.writableTags().putAll(tags);
+		}
+	}
+
+	@JsonProperty("logs")
+	private Collection<Log> getLogsForJson() {
+		return this.storage.logs();
+	}
+
+	@JsonProperty("logs")
+	private void setLogsFromJson(List<Log> logs) {
+		if (logs != null && !logs.isEmpty()) {
+			this.storage.writableLogs().addAll(logs);
+		}
 	}
 
 	/**
@@ -475,9 +583,43 @@ public class Span implements SpanContext {
 	 * <p>
 	 * <p>
 	 * The collection will be empty if there are no parents.
+	 *
+	 * @deprecated - a span has at most one parent, use {@link #hasParent()} and
+	 * {@link #getParentId()}
 	 */
+	@Deprecated
 	public List<Long> getParents() {
-		return this.parents;
+		return this.hasParent ? Collections.singletonList(this.parentId)
+				: Collections.<Long>emptyList();
+	}
+
+	/**
+	 * Returns {@code true} if the span has a parent
+	 *
+	 * @see #getParentId()
+	 * @since 1.3.0
+	 */
+	public boolean hasParent() {
+		return this.hasParent;
+	}
+
+	/**
+	 * Returns the ID of the parent span or {@code 0} if there is no parent
+	 *
+	 * @see #hasParent()
+	 * @since 1.3.0
+	 */
+	@JsonIgnore
+	public long getParentId() {
+		return this.parentId;
+	}
+
+	@JsonProperty("parents")
+	private void setParentsFromJson(List<Long> parents) {
+		if (parents != null && !parents.isEmpty() && parents.get(0) != null) {
+			this.parentId = parents.get(0);
+			this.hasParent = true;
+		}
 	}
 
 	/**
@@ -526,15 +668,51 @@ public class Span implements SpanContext {
 	 * @since 1.0.11
 	 */
 	public String traceIdString() {
-		if (this.traceIdHigh != 0) {
-			char[] result = new char[32];
-			writeHexLong(result, 0, this.traceIdHigh);
-			writeHexLong(result, 16, this.traceId);
-			return new String(result);
+		String traceIdString = this.traceIdString;
+		if (traceIdString == null) {
+			if (this.traceIdHigh != 0) {
+				char[] result = new char[32];
+				writeHexLong(result, 0, this.traceIdHigh);
+				writeHexLong(result, 16, this.traceId);
+				traceIdString = new String(result);
+			} else {
+				traceIdString = idToHex(this.traceId);
+			}
+			this.traceIdString = traceIdString;
+		}
+		return traceIdString;
+	}
+
+	/**
+	 * Returns the 16 character hex representation of the span's ID
+	 *
+	 * @since 1.3.0
+	 */
+	public String spanIdString() {
+		String spanIdString = this.spanIdString;
+		if (spanIdString == null) {
+			spanIdString = idToHex(this.spanId);
+			this.spanIdString = spanIdString;
+		}
+		return spanIdString;
+	}
+
+	/**
+	 * Returns the 16 character hex representation of the parent's span ID or
+	 * {@code null} if the span has no parent
+	 *
+	 * @since 1.3.0
+	 */
+	public String parentIdString() {
+		if (!this.hasParent) {
+			return null;
+		}
+		String parentIdString = this.parentIdString;
+		if (parentIdString == null) {
+			parentIdString = idToHex(this.parentId);
+			this.parentIdString = parentIdString;
 		}
-		char[] result = new char[16];
-		writeHexLong(result, 0, this.traceId);
-		return new String(result);
+		return parentIdString;
 	}
 
 	/**
@@ -615,12 +793,12 @@ public class Span implements SpanContext {
 
 	@Override
 	public String toString() {
-		return "[Trace: " + traceIdString() + ", Span: " + idToHex(this.spanId)
+		return "[Trace: " + traceIdString() + ", Span: " + spanIdString()
 				+ ", Parent: " + getParentIdIfPresent() + ", exportable:" + this.exportable + "]";
 	}
 
 	private String getParentIdIfPresent() {
-		return this.getParents().isEmpty() ? "null" : idToHex(this.getParents().get(0));
+		return this.hasParent ? parentIdString() : "null";
 	}
 
 	@Override
@@ -650,21 +828,203 @@ public class Span implements SpanContext {
 		return false;
 	}
 
+	/**
+	 * Holds the tags, logs and baggage of a span. A continued span (see
+	 * {@link #Span(Span, Span)}) shares the storage of the span it continues, so that
+	 * the changes done in either of them are visible in both. The concurrent collections
+	 * are created on first write - spans that never get tagged (e.g. the non exportable
+	 * ones) don't allocate them at all. The baggage is replaced by a new immutable copy
+	 * on every write.
+	 */
+	static final class SpanStorage {
+		private volatile Map<String, String> tags;
+		private volatile Map<String, DeferredTag> deferredTags;
+		private volatile Collection<Log> logs;
+		private volatile Baggage baggage;
+
+		Map<String, String> tags() {
+			if (this.deferredTags != null) {
+				renderDeferredTags();
+			}
+			return renderedTags();
+		}
+
+		/**
+		 * The tags without rendering the deferred ones
+		 */
+		Map<String, String> renderedTags() {
+			Map<String, String> tags = this.tags;
+			return tags != null ? tags : Collections.<String, String>emptyMap();
+		}
+
+		/**
+		 * Checks the deferred tags first - rendering moves them to the tags, so the
+		 * key is found in either of them even when a rendering happens in between
+		 */
+		boolean hasTag(String key) {
+			return deferredTags().containsKey(key) || renderedTags().containsKey(key);
+		}
+
+		Map<String, DeferredTag> deferredTags() {
+			Map<String, DeferredTag> deferredTags = this.deferredTags;
+			return deferredTags != null ? deferredTags
+					: Collections.<String, DeferredTag>emptyMap();
+		}
+
+		Collection<Log> logs() {
+			Collection<Log> logs = this.logs;
+			return logs != null ? logs : Collections.<Log>emptyList();
+		}
+
+		Baggage baggage() {
+			Baggage baggage = this.baggage;
+			return baggage != null ? baggage : Baggage.EMPTY;
+		}
+
+		Map<String, String> writableTags() {
+			Map<String, String> tags = this.tags;
+			if (tags == null) {
+				synchronized (this) {
+					tags = this.tags;
+					if (tags == null) {
+						tags = new ConcurrentHashMap<>();
+						this.tags = tags;
+					}
+				}
+			}
+			return tags;
+		}
+
+		Collection<Log> writableLogs() {
+			Collection<Log> logs = this.logs;
+			if (logs == null) {
+				synchronized (this) {
+					logs = this.logs;
+					if (logs == null) {
+						logs = new ConcurrentLinkedQueue<>();
+						this.logs = logs;
+					}
+				}
+			}
+			return logs;
+		}
+
+		synchronized void putBaggage(String key, String value) {
+			this.baggage = baggage().with(key, value);
+		}
+
+		synchronized void putDeferredTag(String key, DeferredTag value) {
+			Map<String, DeferredTag> deferredTags = this.deferredTags;
+			if (deferredTags == null) {
+				deferredTags = new ConcurrentHashMap<>();
+				this.deferredTags = deferredTags;
+			}
+			deferredTags.put(key, value);
+		}
+
+		synchronized void removeDeferredTag(String key) {
+			Map<String, DeferredTag> deferredTags = this.deferredTags;
+			if (deferredTags != null) {
+				deferredTags.remove(key);
+			}
+		}
+
+		private synchronized void renderDeferredTags() {
+			Map<String, DeferredTag> deferredTags = this.deferredTags;
+			if (deferredTags == null) {
+				return;
+			}
+			Map<String, String> tags = writableTags();
+			for (Map.Entry<String, DeferredTag> entry : deferredTags.entrySet()) {
+				String value = entry.getValue().value();
+				if (StringUtils.hasText(value)) {
+					tags.put(entry.getKey(), value);
+				}
+			}
+			this.deferredTags = null;
+		}
+	}
+
+	/**
+	 * Immutable baggage of a span. The keys are lower cased when they're added, the
+	 * lookups compare them ignoring the case without lower casing the looked up key.
+	 * Since it never changes, the baggage of a parent is handed to its children by
+	 * reference.
+	 */
+	static final class Baggage extends AbstractMap<String, String> {
+
+		static final Baggage EMPTY = new Baggage(new CaseInsensitiveHeaders(0));
+
+		private final CaseInsensitiveHeaders entries;
+		private final Set<Entry<String, String>> entrySet;
+
+		private Baggage(CaseInsensitiveHeaders entries) {
+			this.entries = entries;
+			this.entrySet = Collections.unmodifiableMap(entries).entrySet();
+		}
+
+		/**
+		 * Returns the passed baggage if it's already immutable, a copy otherwise. The
+		 * keys are expected to be lower cased already.
+		 */
+		static Baggage copyOf(Map<String, String> baggage) {
+			if (baggage instanceof Baggage) {
+				return (Baggage) baggage;
+			}
+			CaseInsensitiveHeaders entries = new CaseInsensitiveHeaders(baggage.size());
+			entries.putAll(baggage);
+			return new Baggage(entries);
+		}
+
+		Baggage with(String key, String value) {
+			CaseInsensitiveHeaders entries = new CaseInsensitiveHeaders(size() + 1);
+			entries.putAll(this.entries);
+			entries.put(key, value);
+			return new Baggage(entries);
+		}
+
+		@Override
+		public int size() {
+			return this.entries.size();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return this.entries.containsKey(key);
+		}
+
+		@Override
+		public String get(Object key) {
+			return this.entries.get(key);
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return this.entrySet;
+		}
+	}
+
 	public static class SpanBuilder {
 		private long begin;
 		private long end;
 		private String name;
 		private long traceIdHigh;
 		private long traceId;
-		private final ArrayList<Long> parents = new ArrayList<>();
+		private long parentId;
+		private boolean hasParent;
 		private long spanId;
+		private String traceIdString;
+		private String spanIdString;
+		private String parentIdString;
 		private boolean remote;
 		private boolean exportable = true;
 		private String processId;
 		private Span savedSpan;
-		private final List<Log> logs = new ArrayList<>();
-		private final Map<String, String> tags = new LinkedHashMap<>();
-		private final Map<String, String> baggage = new LinkedHashMap<>();
+		// created on first use, most spans are built without logs, tags or baggage
+		private List<Log> logs;
+		private Map<String, String> tags;
+		private Map<String, DeferredTag> deferredTags;
+		private Map<String, String> baggage;
 		private boolean shared;
 
 		SpanBuilder() {
@@ -702,54 +1062,173 @@ public class Span implements SpanContext {
 			return this;
 		}
 
+		/**
+		 * Sets the parent of the span. Zipkin supports a single parent so if the
+		 * parent was already set, the call is ignored.
+		 */
+		public Span.SpanBuilder parent(long parent) {
+			if (!this.hasParent) {
+				this.parentId = parent;
+				this.hasParent = true;
+			}
+			return this;
+		}
+
+		/**
+		 * @see #parent(long)
+		 */
 		public Span.SpanBuilder parent(Long parent) {
-			this.parents.add(parent);
+			if (parent != null) {
+				parent(parent.longValue());
+			}
 			return this;
 		}
 
+		/**
+		 * Sets the first of the given ids as the parent of the span.
+		 *
+		 * @deprecated - a span has at most one parent, use {@link #parent(long)}
+		 */
+		@Deprecated
 		public Span.SpanBuilder parents(Collection<Long> parents) {
-			this.parents.clear();
-			this.parents.addAll(parents);
+			this.parentId = 0L;
+			this.hasParent = false;
+			if (!parents.isEmpty()) {
+				parent(parents.iterator().next());
+			}
 			return this;
 		}
 
 		public Span.SpanBuilder log(Log log) {
+			if (this.logs == null) {
+				this.logs = new ArrayList<>();
+			}
 			this.logs.add(log);
 			return this;
 		}
 
 		public Span.SpanBuilder logs(Collection<Log> logs) {
-			this.logs.clear();
-			this.logs.addAll(logs);
+			if (this.logs != null) {
+				this.logs.clear();
+			}
+			if (!logs.isEmpty()) {
+				if (this.logs == null) {
+					this.logs = new ArrayList<>(logs.size());
+				}
+				this.logs.addAll(logs);
+			}
 			return this;
 		}
 
 		public Span.SpanBuilder tag(String tagKey, String tagValue) {
+			if (this.tags == null) {
+				this.tags = new LinkedHashMap<>();
+			}
 			this.tags.put(tagKey, tagValue);
+			if (this.deferredTags != null) {
+				this.deferredTags.remove(tagKey);
+			}
+			return this;
+		}
+
+		/**
+		 * Adds a tag that will be rendered once the tags of the built span are read.
+		 *
+		 * @see Span#deferredTag(String, DeferredTag)
+		 * @since 1.3.0
+		 */
+		public Span.SpanBuilder deferredTag(String tagKey, DeferredTag tagValue) {
+			if (this.deferredTags == null) {
+				this.deferredTags = new LinkedHashMap<>();
+			}
+			this.deferredTags.put(tagKey, tagValue);
 			return this;
 		}
 
 		public Span.SpanBuilder tags(Map<String, String> tags) {
-			this.tags.clear();
-			this.tags.putAll(tags);
+			if (this.tags != null) {
+				this.tags.clear();
+			}
+			this.deferredTags = null;
+			if (!tags.isEmpty()) {
+				if (this.tags == null) {
+					this.tags = new LinkedHashMap<>();
+				}
+				this.tags.putAll(tags);
+			}
 			return this;
 		}
 
 		public Span.SpanBuilder baggage(String baggageKey, String baggageValue) {
-			this.baggage.put(baggageKey.toLowerCase(), baggageValue);
+			writableBaggage().put(baggageKey.toLowerCase(), baggageValue);
 			return this;
 		}
 
+		/**
+		 * Adds the baggage items. The baggage of another span (see
+		 * {@link Span#getBaggage()}) is shared instead of copied as long as no other
+		 * items get added.
+		 */
 		public Span.SpanBuilder baggage(Map<String, String> baggage) {
-			this.baggage.putAll(baggage);
+			if (baggage.isEmpty()) {
+				return this;
+			}
+			if (this.baggage == null && baggage instanceof Baggage) {
+				this.baggage = baggage;
+				return this;
+			}
+			Map<String, String> writable = writableBaggage();
+			for (Map.Entry<String, String> entry : baggage.entrySet()) {
+				writable.put(entry.getKey().toLowerCase(), entry.getValue());
+			}
 			return this;
 		}
 
+		private Map<String, String> writableBaggage() {
+			if (this.baggage == null) {
+				this.baggage = new LinkedHashMap<>();
+			}
+			else if (this.baggage instanceof Baggage) {
+				this.baggage = new LinkedHashMap<>(this.baggage);
+			}
+			return this.baggage;
+		}
+
 		public Span.SpanBuilder spanId(long spanId) {
 			this.spanId = spanId;
 			return this;
 		}
 
+		/**
+		 * The hex encoded trace id as it was received (e.g. from a header). It's reused
+		 * instead of encoding the id again when it's the same length as the encoded
+		 * {@link #traceIdHigh(long) traceIdHigh} and {@link #traceId(long) traceId}.
+		 */
+		public Span.SpanBuilder traceIdString(String traceIdString) {
+			this.traceIdString = traceIdString;
+			return this;
+		}
+
+		/**
+		 * The 16 character hex encoded span id as it was received.
+		 *
+		 * @see #traceIdString(String)
+		 */
+		public Span.SpanBuilder spanIdString(String spanIdString) {
+			this.spanIdString = spanIdString;
+			return this;
+		}
+
+		/**
+		 * The 16 character hex encoded parent id as it was received.
+		 *
+		 * @see #traceIdString(String)
+		 */
+		public Span.SpanBuilder parentIdString(String parentIdString) {
+			this.parentIdString = parentIdString;
+			return this;
+		}
+
 		public Span.SpanBuilder remote(boolean remote) {
 			this.remote = remote;
 			return this;
@@ -781,9 +1260,32 @@ public class Span implements SpanContext {
 		public Span.SpanBuilder from(Span span) {
 			return begin(span.begin).end(span.end).name(span.name)
 					.traceIdHigh(span.traceIdHigh).traceId(span.traceId)
-					.parents(span.getParents()).logs(span.logs).tags(span.tags).baggage(span.baggage)
+					.logs(span.storage.logs())
+					.tagsFrom(span.storage).baggage(span.storage.baggage())
 					.spanId(span.spanId).remote(span.remote).exportable(span.exportable)
-					.processId(span.processId).savedSpan(span.savedSpan);
+					.processId(span.processId).savedSpan(span.savedSpan)
+					.parentFrom(span);
+		}
+
+		/**
+		 * Copies the tags without rendering the deferred ones, since an adjuster
+		 * might drop them anyway
+		 */
+		private Span.SpanBuilder tagsFrom(SpanStorage storage) {
+			synchronized (storage) {
+				tags(storage.renderedTags());
+				Map<String, DeferredTag> deferredTags = storage.deferredTags();
+				if (!deferredTags.isEmpty()) {
+					this.deferredTags = new LinkedHashMap<>(deferredTags);
+				}
+			}
+			return this;
+		}
+
+		private Span.SpanBuilder parentFrom(Span span) {
+			this.parentId = span.parentId;
+			this.hasParent = span.hasParent;
+			return this;
 		}
 
 		/**
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.io.Closeable;
+
+/**
+ * A scope in which a span is the current one. Created via
+ * {@link SpanScopes#withSpan(Tracer, Span)}. Closing the scope restores the span that was
+ * current before the scope got opened. It doesn't stop the span nor send it for
+ * collection.
+ * <p>
+ * Example of usage:
+ * <pre>{@code
+ *     try (SpanInScope ws = SpanScopes.withSpan(tracer, span)) {
+ *         // span is the current span here
+ *     }
+ *     // the previous span is the current one again
+ * }</pre>
+ *
+ * @since 1.3.0
+ */
+public interface SpanInScope extends Closeable {
+
+	/**
+	 * Restores the span that was current when the scope got opened. Needs to be
+	 * called from the same thread in which the scope was opened.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * Puts spans in scope with any {@link Tracer}. A {@link ScopedTracer} does it
+ * without copying the span. Other tracers continue the span and detach it when the
+ * scope gets closed.
+ * <p>
+ * Example of usage:
+ * <pre>{@code
+ *     try (SpanInScope ws = SpanScopes.withSpan(tracer, span)) {
+ *         // span is the current span here
+ *     }
+ * }</pre>
+ *
+ * @since 1.3.0
+ */
+public final class SpanScopes {
+
+	private SpanScopes() {
+	}
+
+	/**
+	 * Makes the given span the current one until the returned scope gets closed. For
+	 * tracers other than a {@link ScopedTracer} a {@code null} span leaves the current
+	 * span as it is.
+	 *
+	 * @see ScopedTracer#withSpan(Span)
+	 */
+	public static SpanInScope withSpan(Tracer tracer, Span span) {
+		if (tracer instanceof ScopedTracer) {
+			return ((ScopedTracer) tracer).withSpan(span);
+		}
+		if (span == null) {
+			return NoOpSpanInScope.INSTANCE;
+		}
+		return new ContinuedSpanInScope(tracer, tracer.continueSpan(span));
+	}
+
+	private static final class ContinuedSpanInScope implements SpanInScope {
+
+		private final Tracer tracer;
+		private final Span span;
+
+		ContinuedSpanInScope(Tracer tracer, Span span) {
+			this.tracer = tracer;
+			this.span = span;
+		}
+
+		@Override
+		public void close() {
+			this.tracer.detach(this.span);
+		}
+	}
+
+	private enum NoOpSpanInScope implements SpanInScope {
+		INSTANCE;
+
+		@Override
+		public void close() {
+		}
+	}
+}
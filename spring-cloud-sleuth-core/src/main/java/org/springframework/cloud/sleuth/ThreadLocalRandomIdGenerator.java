@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Default {@link IdGenerator} that uses a random number generator per thread. Unlike a
+ * shared {@link java.util.Random} it doesn't get slower when many threads create spans
+ * at the same time.
+ * <p>
+ * The upper 64 bits of a 128-bit trace id have the epoch seconds encoded in them, so
+ * that the trace id can be converted to an Amazon trace id. Such trace id is composed
+ * of the following: {@code |-- 32 bits for epoch seconds -- | -- 96 bits for random data -- |}
+ *
+ * @since 1.3.0
+ */
+public class ThreadLocalRandomIdGenerator implements IdGenerator {
+
+	@Override
+	public long nextId() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long id;
+		do {
+			id = random.nextLong();
+		} while (id == 0L);
+		return id;
+	}
+
+	@Override
+	public long nextTraceIdHigh() {
+		return traceIdHigh(ThreadLocalRandom.current().nextInt());
+	}
+
+	static long traceIdHigh(int random) {
+		long epochSeconds = System.currentTimeMillis() / 1000;
+		return (epochSeconds & 0xffffffffL) << 32 | (random & 0xffffffffL);
+	}
+}
@@ -230,6 +230,15 @@ public class TraceKeys {
 		 */
 		private String responseSize = "http.response.size";
 
+		/**
+		 * The time between receiving the HTTP request and committing the response, in
+		 * microseconds. Ex. "1250"
+		 *
+		 * <p>Compared with the duration of the span it shows how much of the time is
+		 * spent after the first bytes of the response have been sent.
+		 */
+		private String timeToFirstByte = "http.ttfb";
+
 		/**
 		 * Prefix for header names if they are added as tags.
 		 */
@@ -270,6 +279,10 @@ public class TraceKeys {
 			return this.responseSize;
 		}
 
+		public String getTimeToFirstByte() {
+			return this.timeToFirstByte;
+		}
+
 		public String getPrefix() {
 			return this.prefix;
 		}
@@ -306,6 +319,10 @@ public class TraceKeys {
 			this.responseSize = responseSize;
 		}
 
+		public void setTimeToFirstByte(String timeToFirstByte) {
+			this.timeToFirstByte = timeToFirstByte;
+		}
+
 		public void setPrefix(String prefix) {
 			this.prefix = prefix;
 		}
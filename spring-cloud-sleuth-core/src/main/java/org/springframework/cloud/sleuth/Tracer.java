@@ -42,6 +42,8 @@ import java.util.concurrent.Callable;
  * which has this thread's currentSpan as one of its parents</li>
  * <li>The {@linkplain Tracer#continueSpan(Span) continueSpan} method creates a
  * new instance of span that logically is a continuation of the provided span.</li>
+ * <li>The {@linkplain SpanScopes#withSpan(Tracer, Span) withSpan} method makes the
+ * provided span the current one until the returned {@link SpanInScope} gets closed.</li>
  * </ul>
  *
  * Closing a TraceScope does a few things:
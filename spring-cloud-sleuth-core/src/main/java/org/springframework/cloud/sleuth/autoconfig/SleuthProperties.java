@@ -16,6 +16,9 @@
 
 package org.springframework.cloud.sleuth.autoconfig;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -31,6 +34,12 @@ public class SleuthProperties {
 	private boolean traceId128 = false;
 	/** When true, your tracing system allows sharing a span ID between a client and server span */
 	private boolean supportsJoin = true;
+	/**
+	 * Maximum number of spans held in the context of a thread. Reaching it means that
+	 * spans aren't being closed - a warning is logged and the oldest spans get dropped.
+	 */
+	private int maxContextDepth = 1024;
+	private Propagation propagation = new Propagation();
 
 	public boolean isEnabled() {
 		return this.enabled;
@@ -55,4 +64,129 @@ public class SleuthProperties {
 	public void setSupportsJoin(boolean supportsJoin) {
 		this.supportsJoin = supportsJoin;
 	}
+
+	public int getMaxContextDepth() {
+		return this.maxContextDepth;
+	}
+
+	public void setMaxContextDepth(int maxContextDepth) {
+		this.maxContextDepth = maxContextDepth;
+	}
+
+	public Propagation getPropagation() {
+		return this.propagation;
+	}
+
+	public void setPropagation(Propagation propagation) {
+		this.propagation = propagation;
+	}
+
+	/**
+	 * Headers sent with outgoing requests and messages. Incoming B3 headers are read
+	 * in both formats.
+	 *
+	 * @since 1.3.0
+	 */
+	public static class Propagation {
+
+		/** When true, the ids and the sampling decision are sent in the single b3 header. */
+		private boolean b3Single = false;
+		/** When false, the separate trace id, span id, parent id and sampled headers aren't sent. */
+		private boolean b3Multi = true;
+		/** When false, the name of the span isn't sent. */
+		private boolean spanName = true;
+		/** When true, the W3C traceparent header is sent and read when there are no B3 headers. */
+		private boolean traceparent = false;
+		/** When true, messages carry the trace context in a binary header and read it first. The text headers are still sent unless they're disabled as well. */
+		private boolean binary = false;
+		private Baggage baggage = new Baggage();
+
+		public boolean isB3Single() {
+			return this.b3Single;
+		}
+
+		public void setB3Single(boolean b3Single) {
+			this.b3Single = b3Single;
+		}
+
+		public boolean isB3Multi() {
+			return this.b3Multi;
+		}
+
+		public void setB3Multi(boolean b3Multi) {
+			this.b3Multi = b3Multi;
+		}
+
+		public boolean isSpanName() {
+			return this.spanName;
+		}
+
+		public void setSpanName(boolean spanName) {
+			this.spanName = spanName;
+		}
+
+		public boolean isTraceparent() {
+			return this.traceparent;
+		}
+
+		public void setTraceparent(boolean traceparent) {
+			this.traceparent = traceparent;
+		}
+
+		public boolean isBinary() {
+			return this.binary;
+		}
+
+		public void setBinary(boolean binary) {
+			this.binary = binary;
+		}
+
+		public Baggage getBaggage() {
+			return this.baggage;
+		}
+
+		public void setBaggage(Baggage baggage) {
+			this.baggage = baggage;
+		}
+	}
+
+	/**
+	 * Limits of the baggage that is sent and read. Items that would exceed a limit
+	 * are dropped.
+	 *
+	 * @since 1.3.0
+	 */
+	public static class Baggage {
+
+		/** Maximum number of baggage items that are sent or read. */
+		private int maxEntries = 64;
+		/** Maximum total length of the keys and values of the baggage items that are sent or read. */
+		private int maxBytes = 8192;
+		/** When not empty, only the baggage items with these keys are sent or read. */
+		private List<String> whitelist = new ArrayList<>();
+
+		public int getMaxEntries() {
+			return this.maxEntries;
+		}
+
+		public void setMaxEntries(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		public int getMaxBytes() {
+			return this.maxBytes;
+		}
+
+		public void setMaxBytes(int maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+
+		public List<String> getWhitelist() {
+			return this.whitelist;
+		}
+
+		public void setWhitelist(List<String> whitelist) {
+			this.whitelist = whitelist;
+		}
+	}
 }
@@ -25,12 +25,15 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.cloud.sleuth.DefaultSpanNamer;
 import org.springframework.cloud.sleuth.ErrorParser;
 import org.springframework.cloud.sleuth.ExceptionMessageErrorParser;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.NoOpSpanAdjuster;
 import org.springframework.cloud.sleuth.NoOpSpanReporter;
+import org.springframework.cloud.sleuth.RandomIdGenerator;
 import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.SpanAdjuster;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.SpanReporter;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.log.SpanLogger;
@@ -54,12 +57,23 @@ public class TraceAutoConfiguration {
 	@Autowired
 	SleuthProperties properties;
 
+	/**
+	 * Kept for applications that inject it. Ids are generated by the
+	 * {@link IdGenerator} bean - define one (e.g. a {@link RandomIdGenerator}) to
+	 * change how they are generated.
+	 */
 	@Bean
 	@ConditionalOnMissingBean
 	public Random randomForSpanIds() {
 		return new Random();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public IdGenerator sleuthIdGenerator() {
+		return new ThreadLocalRandomIdGenerator();
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	public Sampler defaultTraceSampler() {
@@ -68,11 +82,12 @@ public class TraceAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean(Tracer.class)
-	public Tracer sleuthTracer(Sampler sampler, Random random,
+	public Tracer sleuthTracer(Sampler sampler, IdGenerator idGenerator,
 			SpanNamer spanNamer, SpanLogger spanLogger,
 			SpanReporter spanReporter, TraceKeys traceKeys) {
-		return new DefaultTracer(sampler, random, spanNamer, spanLogger,
-				spanReporter, this.properties.isTraceId128(), traceKeys);
+		return new DefaultTracer(sampler, idGenerator, spanNamer, spanLogger,
+				spanReporter, this.properties.isTraceId128(), traceKeys,
+				this.properties.getMaxContextDepth());
 	}
 
 	@Bean
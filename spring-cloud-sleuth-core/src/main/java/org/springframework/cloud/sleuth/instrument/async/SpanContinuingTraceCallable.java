@@ -19,6 +19,8 @@ package org.springframework.cloud.sleuth.instrument.async;
 import java.util.concurrent.Callable;
 
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.TraceCallable;
 import org.springframework.cloud.sleuth.TraceKeys;
@@ -49,12 +51,12 @@ public class SpanContinuingTraceCallable<V> extends TraceCallable<V> {
 
 	@Override
 	public V call() throws Exception {
-		Span span = startSpan();
-		try {
-			return this.getDelegate().call();
+		Span parent = this.getParent();
+		if (parent == null) {
+			return this.traceCallable.call();
 		}
-		finally {
-			close(span);
+		try (SpanInScope ws = SpanScopes.withSpan(getTracer(), parent)) {
+			return this.getDelegate().call();
 		}
 	}
 
@@ -17,6 +17,8 @@
 package org.springframework.cloud.sleuth.instrument.async;
 
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.TraceRunnable;
@@ -47,12 +49,13 @@ public class SpanContinuingTraceRunnable extends TraceRunnable {
 
 	@Override
 	public void run() {
-		Span span = startSpan();
-		try {
-			this.getDelegate().run();
+		Span parent = this.getParent();
+		if (parent == null) {
+			this.traceRunnable.run();
+			return;
 		}
-		finally {
-			close(span);
+		try (SpanInScope ws = SpanScopes.withSpan(getTracer(), parent)) {
+			this.getDelegate().run();
 		}
 	}
 
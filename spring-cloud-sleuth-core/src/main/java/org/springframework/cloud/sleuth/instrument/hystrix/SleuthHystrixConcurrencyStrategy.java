@@ -36,6 +36,8 @@ import com.netflix.hystrix.strategy.properties.HystrixProperty;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.Tracer;
 
@@ -161,46 +163,39 @@ public class SleuthHystrixConcurrencyStrategy extends HystrixConcurrencyStrategy
 
 		@Override
 		public S call() throws Exception {
-			Span span = this.parent;
-			boolean created = false;
-			if (span != null) {
-				span = this.tracer.continueSpan(span);
-				if (log.isDebugEnabled()) {
-					log.debug("Continuing span " + span);
-				}
-			}
-			else {
-				span = this.tracer.createSpan(HYSTRIX_COMPONENT);
-				created = true;
+			if (this.parent == null) {
+				Span span = this.tracer.createSpan(HYSTRIX_COMPONENT);
 				if (log.isDebugEnabled()) {
 					log.debug("Creating new span " + span);
 				}
+				try {
+					return tagAndCall(span);
+				}
+				finally {
+					if (log.isDebugEnabled()) {
+						log.debug("Closing span since it was created" + span);
+					}
+					this.tracer.close(span);
+				}
 			}
-			if (!span.tags().containsKey(Span.SPAN_LOCAL_COMPONENT_TAG_NAME)) {
+			if (log.isDebugEnabled()) {
+				log.debug("Continuing span " + this.parent);
+			}
+			try (SpanInScope ws = SpanScopes.withSpan(this.tracer, this.parent)) {
+				return tagAndCall(this.parent);
+			}
+		}
+
+		private S tagAndCall(Span span) throws Exception {
+			if (!span.hasTag(Span.SPAN_LOCAL_COMPONENT_TAG_NAME)) {
 				this.tracer.addTag(Span.SPAN_LOCAL_COMPONENT_TAG_NAME, HYSTRIX_COMPONENT);
 			}
 			String asyncKey = this.traceKeys.getAsync().getPrefix()
 					+ this.traceKeys.getAsync().getThreadNameKey();
-			if (!span.tags().containsKey(asyncKey)) {
+			if (!span.hasTag(asyncKey)) {
 				this.tracer.addTag(asyncKey, Thread.currentThread().getName());
 			}
-			try {
-				return this.callable.call();
-			}
-			finally {
-				if (created) {
-					if (log.isDebugEnabled()) {
-						log.debug("Closing span since it was created" + span);
-					}
-					this.tracer.close(span);
-				}
-				else if(this.tracer.isTracing()) {
-					if (log.isDebugEnabled()) {
-						log.debug("Detaching span since it was continued " + span);
-					}
-					this.tracer.detach(span);
-				}
-			}
+			return this.callable.call();
 		}
 
 	}
@@ -17,6 +17,8 @@
 package org.springframework.cloud.sleuth.instrument.hystrix;
 
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.TraceKeys;
 
@@ -51,7 +53,21 @@ public abstract class TraceCommand<R> extends HystrixCommand<R> {
 	@Override
 	protected R run() throws Exception {
 		String commandKeyName = getCommandKey().name();
-		Span span = startSpan(commandKeyName);
+		if (this.parentSpan == null) {
+			Span span = this.tracer.createSpan(commandKeyName);
+			try {
+				return tagAndRun(commandKeyName);
+			}
+			finally {
+				this.tracer.close(span);
+			}
+		}
+		try (SpanInScope ws = SpanScopes.withSpan(this.tracer, this.parentSpan)) {
+			return tagAndRun(commandKeyName);
+		}
+	}
+
+	private R tagAndRun(String commandKeyName) throws Exception {
 		this.tracer.addTag(Span.SPAN_LOCAL_COMPONENT_TAG_NAME, HYSTRIX_COMPONENT);
 		this.tracer.addTag(this.traceKeys.getHystrix().getPrefix() +
 				this.traceKeys.getHystrix().getCommandKey(), commandKeyName);
@@ -59,28 +75,7 @@ public abstract class TraceCommand<R> extends HystrixCommand<R> {
 				this.traceKeys.getHystrix().getCommandGroup(), getCommandGroup().name());
 		this.tracer.addTag(this.traceKeys.getHystrix().getPrefix() +
 				this.traceKeys.getHystrix().getThreadPoolKey(), getThreadPoolKey().name());
-		try {
-			return doRun();
-		}
-		finally {
-			close(span);
-		}
-	}
-
-	private Span startSpan(String commandKeyName) {
-		Span span = this.parentSpan;
-		if (span == null) {
-			return this.tracer.createSpan(commandKeyName, this.parentSpan);
-		}
-		return this.tracer.continueSpan(span);
-	}
-
-	private void close(Span span) {
-		if (this.parentSpan == null) {
-			this.tracer.close(span);
-		} else {
-			this.tracer.detach(span);
-		}
+		return doRun();
 	}
 
 	public abstract R doRun() throws Exception;
@@ -1,11 +1,17 @@
 package org.springframework.cloud.sleuth.instrument.messaging;
 
 import java.util.Map;
-import java.util.Random;
 
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BaggageLimiter;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
 import org.springframework.cloud.sleuth.util.TextMapUtil;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 
 /**
  * Default implementation for messaging
@@ -15,11 +21,52 @@ import org.springframework.cloud.sleuth.util.TextMapUtil;
  */
 public class HeaderBasedMessagingExtractor implements MessagingSpanTextMapExtractor {
 
-	private final Random random = new Random();
+	private static final String BAGGAGE_PREFIX = Span.SPAN_BAGGAGE_HEADER_PREFIX
+			+ TraceMessageHeaders.HEADER_DELIMITER;
+
+	private final IdGenerator idGenerator;
+	private final SleuthProperties.Propagation propagation;
+
+	public HeaderBasedMessagingExtractor() {
+		this(new ThreadLocalRandomIdGenerator());
+	}
+
+	public HeaderBasedMessagingExtractor(IdGenerator idGenerator) {
+		this(idGenerator, new SleuthProperties.Propagation());
+	}
+
+	/**
+	 * @param propagation tells whether the traceparent and the binary headers should be read
+	 * @since 1.3.0
+	 */
+	public HeaderBasedMessagingExtractor(IdGenerator idGenerator,
+			SleuthProperties.Propagation propagation) {
+		this.idGenerator = idGenerator;
+		this.propagation = propagation;
+	}
 
 	@Override
 	public Span joinTrace(SpanTextMap textMap) {
+		if (this.propagation.isBinary() && textMap instanceof MessagingTextMap) {
+			Map<String, Object> headers = ((MessagingTextMap) textMap).headers();
+			Object context = headers.get(BinaryFormat.NAME);
+			Span.SpanBuilder span = context instanceof byte[]
+					? BinaryFormat.parse((byte[]) context) : null;
+			if (span != null) {
+				byte[] bytes = (byte[]) context;
+				return completeSpan(headers, span, BinaryFormat.isDebug(bytes),
+						BinaryFormat.isSampled(bytes), false);
+			}
+		}
 		Map<String, String> carrier = TextMapUtil.asMap(textMap);
+		String b3 = carrier.get(B3SingleFormat.NAME);
+		// null if the b3 header is missing, malformed or carries just the sampling decision
+		Span.SpanBuilder b3Span = B3SingleFormat.parse(b3);
+		if (b3Span != null) {
+			char samplingState = B3SingleFormat.samplingState(b3);
+			return completeSpan(carrier, b3Span, samplingState == 'd',
+					samplingState == '1', false);
+		}
 		boolean spanIdMissing = !hasHeader(carrier, TraceMessageHeaders.SPAN_ID_NAME);
 		boolean traceIdMissing = !hasHeader(carrier, TraceMessageHeaders.TRACE_ID_NAME);
 		if (Span.SPAN_SAMPLED.equals(carrier.get(TraceMessageHeaders.SPAN_FLAGS_NAME))) {
@@ -28,17 +75,30 @@ public class HeaderBasedMessagingExtractor implements MessagingSpanTextMapExtrac
 				carrier.put(TraceMessageHeaders.SPAN_ID_NAME, traceId);
 			}
 		} else if (spanIdMissing) {
-			return null;
+			return joinTraceparent(carrier);
 			// TODO: Consider throwing IllegalArgumentException;
 		}
 		boolean idMissing = spanIdMissing || traceIdMissing;
 		return extractSpanFromHeaders(carrier, Span.builder(), idMissing);
 	}
 
+	private Span joinTraceparent(Map<String, String> carrier) {
+		if (!this.propagation.isTraceparent()) {
+			return null;
+		}
+		String traceparent = carrier.get(TraceparentFormat.NAME);
+		Span.SpanBuilder span = TraceparentFormat.parse(traceparent);
+		if (span == null) {
+			return null;
+		}
+		return completeSpan(carrier, span, false,
+				TraceparentFormat.isSampled(traceparent), false);
+	}
+
 	private String generateTraceIdIfMissing(Map<String, String> carrier,
 			boolean traceIdMissing) {
 		if (traceIdMissing) {
-			carrier.put(TraceMessageHeaders.TRACE_ID_NAME, Span.idToHex(this.random.nextLong()));
+			carrier.put(TraceMessageHeaders.TRACE_ID_NAME, Span.idToHex(this.idGenerator.nextId()));
 		}
 		return carrier.get(TraceMessageHeaders.TRACE_ID_NAME);
 	}
@@ -46,37 +106,63 @@ public class HeaderBasedMessagingExtractor implements MessagingSpanTextMapExtrac
 	private Span extractSpanFromHeaders(Map<String, String> carrier,
 			Span.SpanBuilder spanBuilder, boolean idMissing) {
 		String traceId = carrier.get(TraceMessageHeaders.TRACE_ID_NAME);
+		String spanId = carrier.get(TraceMessageHeaders.SPAN_ID_NAME);
+		// the received ids are passed on so that they don't have to be encoded again
 		spanBuilder = spanBuilder
 				.traceIdHigh(traceId.length() == 32 ? Span.hexToId(traceId, 0) : 0)
 				.traceId(Span.hexToId(traceId))
-				.spanId(Span.hexToId(carrier.get(TraceMessageHeaders.SPAN_ID_NAME)));
+				.traceIdString(traceId)
+				.spanId(Span.hexToId(spanId))
+				.spanIdString(spanId);
+		setParentIdIfApplicable(carrier, spanBuilder, TraceMessageHeaders.PARENT_ID_NAME);
 		String flags = carrier.get(TraceMessageHeaders.SPAN_FLAGS_NAME);
 		boolean debug = Span.SPAN_SAMPLED.equals(flags);
 		boolean spanSampled = Span.SPAN_SAMPLED.equals(carrier.get(TraceMessageHeaders.SAMPLED_NAME));
+		return completeSpan(carrier, spanBuilder, debug, spanSampled, idMissing);
+	}
+
+	private Span completeSpan(Map<String, ?> carrier, Span.SpanBuilder spanBuilder,
+			boolean debug, boolean spanSampled, boolean idMissing) {
 		if (debug) {
 			spanBuilder.exportable(true);
 		} else {
 			spanBuilder.exportable(spanSampled);
 		}
-		String processId = carrier.get(TraceMessageHeaders.PROCESS_ID_NAME);
-		String spanName = carrier.get(TraceMessageHeaders.SPAN_NAME_NAME);
+		String processId = value(carrier, TraceMessageHeaders.PROCESS_ID_NAME);
+		String spanName = value(carrier, TraceMessageHeaders.SPAN_NAME_NAME);
 		if (spanName != null) {
 			spanBuilder.name(spanName);
 		}
 		if (processId != null) {
 			spanBuilder.processId(processId);
 		}
-		setParentIdIfApplicable(carrier, spanBuilder, TraceMessageHeaders.PARENT_ID_NAME);
 		spanBuilder.remote(true);
 		spanBuilder.shared((debug || spanSampled) && !idMissing);
-		for (Map.Entry<String, String> entry : carrier.entrySet()) {
-			if (entry.getKey().toLowerCase().startsWith(Span.SPAN_BAGGAGE_HEADER_PREFIX + TraceMessageHeaders.HEADER_DELIMITER)) {
-				spanBuilder.baggage(unprefixedKey(entry.getKey()), entry.getValue());
+		BaggageLimiter limiter = null;
+		for (Map.Entry<String, ?> entry : carrier.entrySet()) {
+			if (isBaggage(entry.getKey())) {
+				if (limiter == null) {
+					limiter = new BaggageLimiter(this.propagation.getBaggage());
+				}
+				String key = unprefixedKey(entry.getKey());
+				String value = String.valueOf(entry.getValue());
+				if (limiter.tryAccept(key, value)) {
+					spanBuilder.baggage(key, value);
+				}
 			}
 		}
 		return spanBuilder.build();
 	}
 
+	private boolean isBaggage(String name) {
+		return name.regionMatches(true, 0, BAGGAGE_PREFIX, 0, BAGGAGE_PREFIX.length());
+	}
+
+	private String value(Map<String, ?> carrier, String name) {
+		Object value = carrier.get(name);
+		return value != null ? value.toString() : null;
+	}
+
 	boolean hasHeader(Map<String, String> message, String name) {
 		return message.containsKey(name);
 	}
@@ -85,7 +171,7 @@ public class HeaderBasedMessagingExtractor implements MessagingSpanTextMapExtrac
 			String spanParentIdHeader) {
 		String parentId = carrier.get(spanParentIdHeader);
 		if (parentId != null) {
-			spanBuilder.parent(Span.hexToId(parentId));
+			spanBuilder.parent(Span.hexToId(parentId)).parentIdString(parentId);
 		}
 	}
 
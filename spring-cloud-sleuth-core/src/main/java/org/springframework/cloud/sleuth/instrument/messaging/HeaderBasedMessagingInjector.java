@@ -1,12 +1,17 @@
 package org.springframework.cloud.sleuth.instrument.messaging;
 
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
 import org.springframework.cloud.sleuth.TraceKeys;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BaggageLimiter;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
 import org.springframework.cloud.sleuth.util.TextMapUtil;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.StringUtils;
 
 /**
@@ -18,17 +23,46 @@ import org.springframework.util.StringUtils;
 public class HeaderBasedMessagingInjector implements MessagingSpanTextMapInjector {
 
 	private final TraceKeys traceKeys;
+	private final SleuthProperties.Propagation propagation;
 
 	public HeaderBasedMessagingInjector(TraceKeys traceKeys) {
+		this(traceKeys, new SleuthProperties.Propagation());
+	}
+
+	/**
+	 * @param propagation which of the headers to send
+	 * @since 1.3.0
+	 */
+	public HeaderBasedMessagingInjector(TraceKeys traceKeys,
+			SleuthProperties.Propagation propagation) {
 		this.traceKeys = traceKeys;
+		this.propagation = propagation;
 	}
 
 	@Override
 	public void inject(Span span, SpanTextMap carrier) {
+		if (span != null && this.propagation.isBinary()
+				&& carrier instanceof MessagingTextMap) {
+			MessagingTextMap messagingCarrier = (MessagingTextMap) carrier;
+			MessageHeaders headers = messagingCarrier.headers();
+			if (!headers.containsKey(BinaryFormat.NAME)) {
+				messagingCarrier.putBinary(BinaryFormat.NAME, BinaryFormat.write(span));
+			}
+			if (!sendsTextIds()) {
+				// the headers are looked up as they are, no text copy of them is needed
+				addContextHeaders(headers, span, carrier);
+				return;
+			}
+		}
 		Map<String, String> map = TextMapUtil.asMap(carrier);
 		if (span == null) {
-			if (!isSampled(map, TraceMessageHeaders.SAMPLED_NAME)) {
-				carrier.put(TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_NOT_SAMPLED);
+			if (!isSampled(map)) {
+				if (this.propagation.isB3Multi()) {
+					carrier.put(TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_NOT_SAMPLED);
+				}
+				if (this.propagation.isB3Single()) {
+					carrier.put(B3SingleFormat.NAME, Span.SPAN_NOT_SAMPLED);
+				}
 				return;
 			}
 			return;
@@ -36,33 +70,65 @@ public class HeaderBasedMessagingInjector implements MessagingSpanTextMapInjecto
 		addHeaders(map, span, carrier);
 	}
 
-	private boolean isSampled(Map<String, String> initialMessage, String sampledHeaderName) {
-		return Span.SPAN_SAMPLED.equals(initialMessage.get(sampledHeaderName));
+	private boolean isSampled(Map<String, String> initialMessage) {
+		return Span.SPAN_SAMPLED.equals(initialMessage.get(TraceMessageHeaders.SAMPLED_NAME))
+				|| B3SingleFormat.samplingState(initialMessage.get(B3SingleFormat.NAME)) == '1';
+	}
+
+	private boolean sendsTextIds() {
+		return this.propagation.isB3Multi() || this.propagation.isB3Single()
+				|| this.propagation.isTraceparent();
 	}
 
 	private void addHeaders(Map<String, String> map, Span span, SpanTextMap textMap) {
-		addHeader(map, textMap, TraceMessageHeaders.TRACE_ID_NAME, span.traceIdString());
-		addHeader(map, textMap, TraceMessageHeaders.SPAN_ID_NAME, Span.idToHex(span.getSpanId()));
+		boolean multi = this.propagation.isB3Multi();
+		if (multi) {
+			addHeader(map, textMap, TraceMessageHeaders.TRACE_ID_NAME, span.traceIdString());
+			addHeader(map, textMap, TraceMessageHeaders.SPAN_ID_NAME, span.spanIdString());
+		}
+		if (this.propagation.isB3Single() && !map.containsKey(B3SingleFormat.NAME)) {
+			textMap.put(B3SingleFormat.NAME, B3SingleFormat.write(span));
+		}
+		if (this.propagation.isTraceparent() && !map.containsKey(TraceparentFormat.NAME)) {
+			textMap.put(TraceparentFormat.NAME, TraceparentFormat.write(span));
+		}
 		if (span.isExportable()) {
-			addAnnotations(this.traceKeys, textMap, span);
-			Long parentId = getFirst(span.getParents());
-			if (parentId != null) {
-				addHeader(map, textMap, TraceMessageHeaders.PARENT_ID_NAME, Span.idToHex(parentId));
+			if (multi && span.hasParent()) {
+				addHeader(map, textMap, TraceMessageHeaders.PARENT_ID_NAME, span.parentIdString());
+			}
+			if (multi) {
+				addHeader(map, textMap, TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_SAMPLED);
 			}
-			addHeader(map, textMap, TraceMessageHeaders.SPAN_NAME_NAME, span.getName());
-			addHeader(map, textMap, TraceMessageHeaders.PROCESS_ID_NAME, span.getProcessId());
-			addHeader(map, textMap, TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_SAMPLED);
 		}
-		else {
+		else if (multi) {
 			addHeader(map, textMap, TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_NOT_SAMPLED);
 		}
-		for (Map.Entry<String, String> entry : span.baggageItems()) {
-			textMap.put(prefixedKey(entry.getKey()), entry.getValue());
+		addContextHeaders(map, span, textMap);
+	}
+
+	/**
+	 * Adds the headers that aren't about the ids: the tags of an exported span, its
+	 * name, the process id and the baggage
+	 */
+	private void addContextHeaders(Map<String, ?> map, Span span, SpanTextMap textMap) {
+		if (span.isExportable()) {
+			addAnnotations(this.traceKeys, map, span);
+			if (this.propagation.isSpanName()) {
+				addHeader(map, textMap, TraceMessageHeaders.SPAN_NAME_NAME, span.getName());
+			}
+			addHeader(map, textMap, TraceMessageHeaders.PROCESS_ID_NAME, span.getProcessId());
+		}
+		if (!span.getBaggage().isEmpty()) {
+			BaggageLimiter limiter = new BaggageLimiter(this.propagation.getBaggage());
+			for (Map.Entry<String, String> entry : span.baggageItems()) {
+				if (limiter.tryAccept(entry.getKey(), entry.getValue())) {
+					textMap.put(prefixedKey(entry.getKey()), entry.getValue());
+				}
+			}
 		}
 	}
 
-	private void addAnnotations(TraceKeys traceKeys, SpanTextMap spanTextMap, Span span) {
-		Map<String, String> map = TextMapUtil.asMap(spanTextMap);
+	private void addAnnotations(TraceKeys traceKeys, Map<String, ?> map, Span span) {
 		for (String name : traceKeys.getMessage().getHeaders()) {
 			if (map.containsKey(name)) {
 				String key = traceKeys.getMessage().getPrefix() + name.toLowerCase();
@@ -77,31 +143,27 @@ public class HeaderBasedMessagingInjector implements MessagingSpanTextMapInjecto
 		addPayloadAnnotations(traceKeys, map, span);
 	}
 
-	private void addPayloadAnnotations(TraceKeys traceKeys, Map<String, String> map, Span span) {
+	private void addPayloadAnnotations(TraceKeys traceKeys, Map<String, ?> map, Span span) {
 		if (map.containsKey(traceKeys.getMessage().getPayload().getType())) {
 			tagIfEntryMissing(span, traceKeys.getMessage().getPayload().getType(),
-					map.get(traceKeys.getMessage().getPayload().getType()));
+					String.valueOf(map.get(traceKeys.getMessage().getPayload().getType())));
 			tagIfEntryMissing(span, traceKeys.getMessage().getPayload().getSize(),
-					map.get(traceKeys.getMessage().getPayload().getSize()));
+					String.valueOf(map.get(traceKeys.getMessage().getPayload().getSize())));
 		}
 	}
 
 	private void tagIfEntryMissing(Span span, String key, String value) {
-		if (!span.tags().containsKey(key)) {
+		if (!span.hasTag(key)) {
 			span.tag(key, value);
 		}
 	}
 
-	private void addHeader(Map<String, String> map, SpanTextMap textMap, String name, String value) {
+	private void addHeader(Map<String, ?> map, SpanTextMap textMap, String name, String value) {
 		if (StringUtils.hasText(value) && !map.containsKey(name)) {
 			textMap.put(name, value);
 		}
 	}
 
-	private Long getFirst(List<Long> parents) {
-		return parents.isEmpty() ? null : parents.get(0);
-	}
-
 	private String prefixedKey(String key) {
 		if (key.startsWith(Span.SPAN_BAGGAGE_HEADER_PREFIX + TraceMessageHeaders.HEADER_DELIMITER )) {
 			return key;
@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.springframework.cloud.sleuth.SpanTextMap;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.messaging.support.MessageHeaderAccessor;
@@ -39,6 +40,7 @@ import org.springframework.util.StringUtils;
 class MessagingTextMap implements SpanTextMap {
 
 	private final MessageBuilder<?> delegate;
+	private MessageHeaderAccessor accessor;
 
 	public MessagingTextMap(MessageBuilder<?> delegate) {
 		this.delegate = delegate;
@@ -85,4 +87,36 @@ class MessagingTextMap implements SpanTextMap {
 		}
 		this.delegate.copyHeaders(accessor.toMessageHeaders());
 	}
+
+	/**
+	 * Sets a header that isn't converted to text. Contrary to {@link #put(String, String)}
+	 * the value isn't copied to the native headers.
+	 */
+	void putBinary(String key, byte[] value) {
+		accessor().setHeader(key, value);
+	}
+
+	/**
+	 * The headers of the message as they are, without converting the values to text.
+	 * They're read from the accessor shared with the builder, no message is built.
+	 */
+	MessageHeaders headers() {
+		return accessor().getMessageHeaders();
+	}
+
+	/**
+	 * {@link MessageBuilder} doesn't expose its headers, so the message is built once
+	 * and its headers are handed back to the builder in an accessor that's kept
+	 * mutable. Later lookups read the accessor directly.
+	 */
+	private MessageHeaderAccessor accessor() {
+		if (this.accessor == null) {
+			MessageHeaderAccessor accessor = MessageHeaderAccessor
+					.getMutableAccessor(this.delegate.build());
+			accessor.setLeaveMutable(true);
+			this.delegate.setHeaders(accessor);
+			this.accessor = accessor;
+		}
+		return this.accessor;
+	}
 }
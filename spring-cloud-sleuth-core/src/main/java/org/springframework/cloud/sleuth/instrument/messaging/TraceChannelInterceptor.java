@@ -25,6 +25,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cloud.sleuth.Log;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.sampler.NeverSampler;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
@@ -162,7 +163,9 @@ public class TraceChannelInterceptor extends AbstractTraceChannelInterceptor {
 			return getTracer().createSpan(name, span);
 		}
 		if (Span.SPAN_NOT_SAMPLED
-				.equals(message.getHeaders().get(TraceMessageHeaders.SAMPLED_NAME))) {
+				.equals(message.getHeaders().get(TraceMessageHeaders.SAMPLED_NAME))
+				|| B3SingleFormat.samplingState(message.getHeaders()
+						.get(B3SingleFormat.NAME, String.class)) == '0') {
 			return getTracer().createSpan(name, NeverSampler.INSTANCE);
 		}
 		return getTracer().createSpan(name);
@@ -19,6 +19,10 @@ package org.springframework.cloud.sleuth.instrument.messaging;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
+
 /**
  * Contains trace related messaging headers. The deprecated headers contained `-` which
  * for example in the JMS specs is invalid. That's why the public constants in this class
@@ -37,7 +41,8 @@ public class TraceMessageHeaders {
 	public static final String SPAN_NAME_NAME = "spanName";
 	public static final String SPAN_FLAGS_NAME = "spanFlags";
 	static final List<String> ALL_HEADERS = Arrays.asList(SPAN_ID_NAME, SAMPLED_NAME,
-			PROCESS_ID_NAME, PARENT_ID_NAME, TRACE_ID_NAME, SPAN_NAME_NAME, SPAN_FLAGS_NAME);
+			PROCESS_ID_NAME, PARENT_ID_NAME, TRACE_ID_NAME, SPAN_NAME_NAME, SPAN_FLAGS_NAME,
+			B3SingleFormat.NAME, TraceparentFormat.NAME, BinaryFormat.NAME);
 
 	static final String MESSAGE_SENT_FROM_CLIENT = "messageSent";
 	static final String HEADER_DELIMITER = "_";
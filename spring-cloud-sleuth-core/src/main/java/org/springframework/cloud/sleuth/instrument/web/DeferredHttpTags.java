@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.springframework.cloud.sleuth.DeferredTag;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link DeferredTag Deferred} values of HTTP request tags. They only keep references
+ * to immutable request data, so that they can be rendered after the request has
+ * completed.
+ *
+ * @since 1.3.0
+ */
+final class DeferredHttpTags {
+
+	private DeferredHttpTags() {
+	}
+
+	static DeferredTag url(URI uri) {
+		return new UriString(uri);
+	}
+
+	static DeferredTag path(URI uri) {
+		return new UriPath(uri);
+	}
+
+	/**
+	 * Values of a header joined the same way as in
+	 * {@link HttpTraceKeysInjector#addRequestTags(String, String, String, String, java.util.Map)}
+	 */
+	static DeferredTag headerValues(Collection<String> values) {
+		return new HeaderValues(values.toArray(new String[values.size()]));
+	}
+
+	private static final class UriString implements DeferredTag {
+
+		private final URI uri;
+
+		UriString(URI uri) {
+			this.uri = uri;
+		}
+
+		@Override
+		public String value() {
+			return this.uri.toString();
+		}
+
+		@Override
+		public String toString() {
+			return value();
+		}
+	}
+
+	private static final class UriPath implements DeferredTag {
+
+		private final URI uri;
+
+		UriPath(URI uri) {
+			this.uri = uri;
+		}
+
+		@Override
+		public String value() {
+			return this.uri.getPath();
+		}
+
+		@Override
+		public String toString() {
+			return value();
+		}
+	}
+
+	private static final class HeaderValues implements DeferredTag {
+
+		private final String[] values;
+
+		HeaderValues(String[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public String value() {
+			return this.values.length == 1 ? this.values[0]
+					: StringUtils.collectionToDelimitedString(Arrays.asList(this.values),
+							",", "'", "'");
+		}
+
+		@Override
+		public String toString() {
+			return value();
+		}
+	}
+}
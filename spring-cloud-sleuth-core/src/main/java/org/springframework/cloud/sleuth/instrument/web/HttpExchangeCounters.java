@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bytes of a request and its response together with the time the response got
+ * committed. Shared by the wrappers of all dispatches of a request. A request is
+ * processed by one thread at a time, so the byte counters are plain longs that the
+ * stream wrappers simply add to.
+ *
+ * @since 1.3.0
+ */
+final class HttpExchangeCounters {
+
+	long requestBytes;
+	long responseBytes;
+
+	private final long startNanos = System.nanoTime();
+	private final AtomicBoolean committed = new AtomicBoolean();
+	private volatile long timeToFirstByteMicros = -1;
+
+	/**
+	 * Returns {@code true} only for the first call, which records the time to first
+	 * byte
+	 */
+	boolean commit() {
+		if (this.committed.get() || !this.committed.compareAndSet(false, true)) {
+			return false;
+		}
+		this.timeToFirstByteMicros = (System.nanoTime() - this.startNanos) / 1000;
+		return true;
+	}
+
+	/**
+	 * Microseconds between the start of the request and the commit of the response,
+	 * or {@code -1} if the response hasn't been committed yet
+	 */
+	long timeToFirstByteMicros() {
+		return this.timeToFirstByteMicros;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the number of requests, the request and response bytes and the time to
+ * first byte per HTTP route. Unlike span tags, the aggregates cover every request,
+ * regardless of whether it got sampled.
+ * <p>
+ * A route is the method together with the pattern of the handler that served the
+ * request, e.g. {@code GET /users/{id}}. Requests that no handler pattern matched
+ * are counted under {@link #UNMAPPED_ROUTE}. The number of routes is bounded, routes
+ * seen after the limit was reached are counted under {@link #OTHER_ROUTE}.
+ *
+ * @since 1.3.0
+ */
+public class HttpRouteMetrics {
+
+	public static final String UNMAPPED_ROUTE = "unmapped";
+
+	public static final String OTHER_ROUTE = "other";
+
+	static final int DEFAULT_MAX_ROUTES = 1024;
+
+	private final ConcurrentMap<String, RouteCounters> routes = new ConcurrentHashMap<>();
+	private final int maxRoutes;
+
+	public HttpRouteMetrics() {
+		this(DEFAULT_MAX_ROUTES);
+	}
+
+	HttpRouteMetrics(int maxRoutes) {
+		this.maxRoutes = maxRoutes;
+	}
+
+	/**
+	 * Adds a completed request to the counters of its route. A negative time to first
+	 * byte means that the response was never committed.
+	 */
+	public void record(String route, long requestBytes, long responseBytes,
+			long timeToFirstByteMicros) {
+		RouteCounters counters = counters(route != null ? route : UNMAPPED_ROUTE);
+		counters.requests.incrementAndGet();
+		if (requestBytes > 0) {
+			counters.requestBytes.addAndGet(requestBytes);
+		}
+		if (responseBytes > 0) {
+			counters.responseBytes.addAndGet(responseBytes);
+		}
+		if (timeToFirstByteMicros >= 0) {
+			counters.committedResponses.incrementAndGet();
+			counters.timeToFirstByteMicros.addAndGet(timeToFirstByteMicros);
+		}
+	}
+
+	/**
+	 * Read only view of the counters per route
+	 */
+	public Map<String, RouteCounters> routes() {
+		return Collections.<String, RouteCounters>unmodifiableMap(this.routes);
+	}
+
+	private RouteCounters counters(String route) {
+		RouteCounters counters = this.routes.get(route);
+		if (counters != null) {
+			return counters;
+		}
+		if (this.routes.size() >= this.maxRoutes) {
+			route = OTHER_ROUTE;
+		}
+		counters = new RouteCounters();
+		RouteCounters previous = this.routes.putIfAbsent(route, counters);
+		return previous != null ? previous : counters;
+	}
+
+	/**
+	 * Totals of a single route since the application started
+	 */
+	public static final class RouteCounters {
+
+		private final AtomicLong requests = new AtomicLong();
+		private final AtomicLong requestBytes = new AtomicLong();
+		private final AtomicLong responseBytes = new AtomicLong();
+		private final AtomicLong committedResponses = new AtomicLong();
+		private final AtomicLong timeToFirstByteMicros = new AtomicLong();
+
+		public long getRequests() {
+			return this.requests.get();
+		}
+
+		public long getRequestBytes() {
+			return this.requestBytes.get();
+		}
+
+		public long getResponseBytes() {
+			return this.responseBytes.get();
+		}
+
+		/**
+		 * Number of requests whose response got committed, which the total time to
+		 * first byte relates to
+		 */
+		public long getCommittedResponses() {
+			return this.committedResponses.get();
+		}
+
+		/**
+		 * Sum of the times to first byte of all committed responses
+		 */
+		public long getTimeToFirstByteMicros() {
+			return this.timeToFirstByteMicros.get();
+		}
+
+		@Override
+		public String toString() {
+			return "RouteCounters{requests=" + getRequests() + ", requestBytes="
+					+ getRequestBytes() + ", responseBytes=" + getResponseBytes()
+					+ ", committedResponses=" + getCommittedResponses()
+					+ ", timeToFirstByteMicros=" + getTimeToFirstByteMicros() + "}";
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.StringUtils;
+
+/**
+ * Exposes the {@link HttpRouteMetrics} through the metrics endpoint. A route like
+ * {@code GET /users/{id}} is turned into metrics named e.g.
+ * {@code sleuth.http.route.GET.users.{id}.response.bytes}.
+ *
+ * @since 1.3.0
+ */
+class HttpRoutePublicMetrics implements PublicMetrics {
+
+	static final String PREFIX = "sleuth.http.route.";
+
+	private final HttpRouteMetrics routeMetrics;
+
+	HttpRoutePublicMetrics(HttpRouteMetrics routeMetrics) {
+		this.routeMetrics = routeMetrics;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		Collection<Metric<?>> metrics = new ArrayList<>();
+		for (Map.Entry<String, HttpRouteMetrics.RouteCounters> entry : this.routeMetrics
+				.routes().entrySet()) {
+			String name = PREFIX + name(entry.getKey()) + ".";
+			HttpRouteMetrics.RouteCounters counters = entry.getValue();
+			metrics.add(new Metric<>(name + "requests", counters.getRequests()));
+			metrics.add(new Metric<>(name + "request.bytes", counters.getRequestBytes()));
+			metrics.add(new Metric<>(name + "response.bytes", counters.getResponseBytes()));
+			metrics.add(new Metric<>(name + "committed", counters.getCommittedResponses()));
+			metrics.add(new Metric<>(name + "ttfb.micros", counters.getTimeToFirstByteMicros()));
+		}
+		return metrics;
+	}
+
+	static String name(String route) {
+		String[] segments = StringUtils.tokenizeToStringArray(route, " /");
+		return StringUtils.arrayToDelimitedString(segments, ".");
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.sampler.NeverSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.sampler.SamplerProperties;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+
+/**
+ * Picks the {@link Sampler} for an HTTP request that starts a new trace, based on
+ * an ordered list of {@link SleuthWebProperties.SamplingRule sampling rules}. The
+ * first rule matching the method and path of the request wins. Used both by the
+ * {@link TraceFilter} and the client side interceptors.
+ *
+ * <p>The rules are compiled once: patterns without wildcards are compared as
+ * strings, patterns like {@code /checkout/**} as path prefixes and only the
+ * remaining ones go through an {@link AntPathMatcher}. The outcome is cached per
+ * normalized path (without repeated and trailing slashes) in a bounded
+ * {@link PathCache}, so that the rules aren't evaluated for every request. If any
+ * rule depends on the method, there's a cache per method the rules mention plus one
+ * for all the other methods.
+ *
+ * @since 1.3.0
+ */
+public class HttpSamplingRules {
+
+	static final int MAX_CACHED_PATHS = 1024;
+
+	private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+	private static final Rule NO_MATCH = new Rule(null, "", null);
+
+	public static final HttpSamplingRules EMPTY = new HttpSamplingRules(
+			Collections.<SleuthWebProperties.SamplingRule>emptyList());
+
+	private final Rule[] rules;
+	private final Map<String, PathCache<Rule>> cachesPerMethod;
+	private final PathCache<Rule> cache;
+
+	public HttpSamplingRules(List<SleuthWebProperties.SamplingRule> rules) {
+		this.rules = new Rule[rules.size()];
+		Map<String, PathCache<Rule>> cachesPerMethod = new HashMap<>();
+		for (int i = 0; i < rules.size(); i++) {
+			SleuthWebProperties.SamplingRule rule = rules.get(i);
+			Assert.hasText(rule.getPattern(), "Sampling rule must have a pattern");
+			this.rules[i] = new Rule(rule.getMethod(), rule.getPattern(),
+					sampler(rule.getPercentage()));
+			if (rule.getMethod() != null) {
+				String method = rule.getMethod().toUpperCase(Locale.ROOT);
+				if (!cachesPerMethod.containsKey(method)) {
+					cachesPerMethod.put(method, new PathCache<Rule>(MAX_CACHED_PATHS));
+				}
+			}
+		}
+		// the number of caches is bounded by the rules, not by the requested methods
+		this.cachesPerMethod = cachesPerMethod;
+		this.cache = new PathCache<>(MAX_CACHED_PATHS);
+	}
+
+	private static Sampler sampler(float percentage) {
+		if (percentage <= 0) {
+			return NeverSampler.INSTANCE;
+		}
+		else if (percentage >= 1) {
+			return new AlwaysSampler();
+		}
+		SamplerProperties properties = new SamplerProperties();
+		properties.setPercentage(percentage);
+		return new ProbabilityBasedSampler(properties);
+	}
+
+	/**
+	 * Returns the sampler of the first rule matching the request or {@code null} if
+	 * no rule matches, in which case the default sampler should be used.
+	 */
+	public Sampler sampler(String method, String path) {
+		if (this.rules.length == 0 || path == null) {
+			return null;
+		}
+		String normalizedPath = normalize(path);
+		PathCache<Rule> cache = cache(method);
+		Rule rule = cache.get(normalizedPath);
+		if (rule == null) {
+			rule = match(method, normalizedPath);
+			cache.put(normalizedPath, rule);
+		}
+		return rule.sampler;
+	}
+
+	private PathCache<Rule> cache(String method) {
+		if (this.cachesPerMethod.isEmpty() || method == null) {
+			return this.cache;
+		}
+		PathCache<Rule> cache = this.cachesPerMethod.get(method);
+		if (cache == null) {
+			cache = this.cachesPerMethod.get(method.toUpperCase(Locale.ROOT));
+		}
+		return cache != null ? cache : this.cache;
+	}
+
+	/**
+	 * Collapses repeated slashes and drops a trailing one. Allocates only if the path
+	 * needs to be changed.
+	 */
+	static String normalize(String path) {
+		int length = path.length();
+		boolean normalized = length <= 1 || path.charAt(length - 1) != '/';
+		for (int i = 1; normalized && i < length; i++) {
+			normalized = path.charAt(i) != '/' || path.charAt(i - 1) != '/';
+		}
+		if (normalized) {
+			return path;
+		}
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			char c = path.charAt(i);
+			if (c != '/' || builder.length() == 0
+					|| builder.charAt(builder.length() - 1) != '/') {
+				builder.append(c);
+			}
+		}
+		if (builder.length() > 1 && builder.charAt(builder.length() - 1) == '/') {
+			builder.setLength(builder.length() - 1);
+		}
+		return builder.toString();
+	}
+
+	private Rule match(String method, String path) {
+		for (Rule rule : this.rules) {
+			if (rule.matches(method, path)) {
+				return rule;
+			}
+		}
+		return NO_MATCH;
+	}
+
+	private static final class Rule {
+
+		private final String method;
+		private final String pattern;
+		private final String prefix;
+		private final boolean wildcard;
+		final Sampler sampler;
+
+		Rule(String method, String pattern, Sampler sampler) {
+			this.method = method;
+			this.sampler = sampler;
+			String head = pattern.endsWith("/**") ?
+					pattern.substring(0, pattern.length() - 3) : null;
+			if (head != null && !PATH_MATCHER.isPattern(head)) {
+				this.pattern = null;
+				this.prefix = head;
+				this.wildcard = false;
+			}
+			else {
+				this.pattern = pattern;
+				this.prefix = null;
+				this.wildcard = PATH_MATCHER.isPattern(pattern);
+			}
+		}
+
+		boolean matches(String method, String path) {
+			if (this.method != null && !this.method.equalsIgnoreCase(method)) {
+				return false;
+			}
+			if (this.prefix != null) {
+				return path.startsWith(this.prefix) && (path.length() == this.prefix.length()
+						|| path.charAt(this.prefix.length()) == '/');
+			}
+			return this.wildcard ? PATH_MATCHER.match(this.pattern, path)
+					: this.pattern.equals(path);
+		}
+	}
+}
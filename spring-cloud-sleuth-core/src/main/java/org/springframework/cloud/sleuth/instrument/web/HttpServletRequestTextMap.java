@@ -17,29 +17,69 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.util.UrlPathHelper;
 
 /**
- * A {@link SpanTextMap} abstraction over {@link HttpServletRequest}
+ * A {@link SpanTextMap} abstraction over {@link HttpServletRequest}. The path of the
+ * request is only resolved when the {@link ZipkinHttpSpanMapper#URI_HEADER} entry
+ * gets read, unless the {@link TraceFilter} has already stored it in the request.
  *
  * @author Marcin Grzejszczak
  * @since 1.2.0
  */
-class HttpServletRequestTextMap implements SpanTextMap {
+class HttpServletRequestTextMap implements LookupSpanTextMap {
+
+	private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
 
 	private final HttpServletRequest delegate;
-	private final UrlPathHelper urlPathHelper;
+	private String uri;
 
 	HttpServletRequestTextMap(HttpServletRequest delegate) {
+		this(delegate, null);
+	}
+
+	/**
+	 * @param uri path of the request within the application if it's already known
+	 */
+	HttpServletRequestTextMap(HttpServletRequest delegate, String uri) {
 		this.delegate = delegate;
-		this.urlPathHelper = new UrlPathHelper();
+		this.uri = uri;
+	}
+
+	@Override
+	public String get(String name) {
+		if (ZipkinHttpSpanMapper.URI_HEADER.equalsIgnoreCase(name)) {
+			return uri();
+		}
+		return this.delegate.getHeader(name);
+	}
+
+	@Override
+	public Iterator<String> names() {
+		Enumeration<String> headerNames = this.delegate.getHeaderNames();
+		if (headerNames == null) {
+			return Collections.<String>emptyList().iterator();
+		}
+		return CollectionUtils.toIterator(headerNames);
+	}
+
+	private String uri() {
+		if (this.uri == null) {
+			Object path = this.delegate.getAttribute(TraceFilter.PATH_REQUEST_ATTR);
+			this.uri = path instanceof String ? (String) path
+					: URL_PATH_HELPER.getPathWithinApplication(this.delegate);
+		}
+		return this.uri;
 	}
 
 	@Override
@@ -61,10 +101,7 @@ class HttpServletRequestTextMap implements SpanTextMap {
 				if (useAdditionalHeader) {
 					useAdditionalHeader = false;
 					return new AbstractMap.SimpleImmutableEntry<>(
-							ZipkinHttpSpanMapper.URI_HEADER,
-							HttpServletRequestTextMap.this.urlPathHelper
-									.getPathWithinApplication(
-											HttpServletRequestTextMap.this.delegate));
+							ZipkinHttpSpanMapper.URI_HEADER, uri());
 				}
 
 				String name = headerNames.nextElement();
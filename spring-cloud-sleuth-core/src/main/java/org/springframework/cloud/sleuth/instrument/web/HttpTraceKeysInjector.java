@@ -4,6 +4,7 @@ import java.net.URI;
 import java.util.Collection;
 import java.util.Map;
 
+import org.springframework.cloud.sleuth.DeferredTag;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.Tracer;
@@ -47,6 +48,20 @@ public class HttpTraceKeysInjector {
 		tagSpan(span, this.traceKeys.getHttp().getMethod(), method);
 	}
 
+	/**
+	 * Adds tags from the HTTP request to the given Span. The url only gets rendered when
+	 * the span is reported.
+	 *
+	 * @since 1.3.0
+	 */
+	public void addRequestTags(Span span, DeferredTag url, String host, String path,
+			String method) {
+		tagSpan(span, this.traceKeys.getHttp().getUrl(), url);
+		tagSpan(span, this.traceKeys.getHttp().getHost(), host);
+		tagSpan(span, this.traceKeys.getHttp().getPath(), path);
+		tagSpan(span, this.traceKeys.getHttp().getMethod(), method);
+	}
+
 	/**
 	 * Adds tags from the HTTP repos to the given Span
 	 */
@@ -55,10 +70,37 @@ public class HttpTraceKeysInjector {
 	}
 
 	/**
-	 * Adds tags from the HTTP request to the given Span
+	 * Adds tags from the HTTP request to the given Span. The url and path only get
+	 * rendered when the span is reported.
 	 */
 	public void addRequestTags(Span span, URI uri, String method) {
-		addRequestTags(span, uri.toString(), uri.getHost(), uri.getPath(), method);
+		if (span == null || !span.isExportable()) {
+			return;
+		}
+		span.deferredTag(this.traceKeys.getHttp().getUrl(), DeferredHttpTags.url(uri));
+		span.tag(this.traceKeys.getHttp().getHost(), uri.getHost());
+		span.deferredTag(this.traceKeys.getHttp().getPath(), DeferredHttpTags.path(uri));
+		span.tag(this.traceKeys.getHttp().getMethod(), method);
+	}
+
+	/**
+	 * Adds tags from the HTTP request together with headers to the given Span. The url,
+	 * path and multi valued headers only get rendered when the span is reported.
+	 *
+	 * @since 1.3.0
+	 */
+	public void addRequestTags(Span span, URI uri, String method,
+			Map<String, ? extends Collection<String>> headers) {
+		if (span == null || !span.isExportable()) {
+			return;
+		}
+		addRequestTags(span, uri, method);
+		for (String name : this.traceKeys.getHttp().getHeaders()) {
+			Collection<String> values = headers.get(name);
+			if (values != null && !values.isEmpty()) {
+				tagSpan(span, headerKey(name), values);
+			}
+		}
 	}
 
 	/**
@@ -79,6 +121,34 @@ public class HttpTraceKeysInjector {
 		}
 	}
 
+	/**
+	 * Add a deferred tag to the given, exportable Span
+	 *
+	 * @since 1.3.0
+	 */
+	public void tagSpan(Span span, String key, DeferredTag value) {
+		if (span != null && span.isExportable()) {
+			span.deferredTag(key, value);
+		}
+	}
+
+	/**
+	 * Add a tag with the values of a header to the given, exportable Span. Multiple
+	 * values only get joined when the span is reported.
+	 */
+	void tagSpan(Span span, String key, Collection<String> values) {
+		if (values.size() == 1) {
+			tagSpan(span, key, values.iterator().next());
+		}
+		else {
+			tagSpan(span, key, DeferredHttpTags.headerValues(values));
+		}
+	}
+
+	String headerKey(String name) {
+		return this.traceKeys.getHttp().getPrefix() + name.toLowerCase();
+	}
+
 	private void addRequestTagsFromHeaders(Map<String, ? extends Collection<String>> headers) {
 		for (String name : this.traceKeys.getHttp().getHeaders()) {
 			Collection<String> values = headers.get(name);
@@ -89,7 +159,7 @@ public class HttpTraceKeysInjector {
 	}
 
 	private void addTagForEntry(String name, Collection<String> list) {
-		String key = this.traceKeys.getHttp().getPrefix() + name.toLowerCase();
+		String key = headerKey(name);
 		String value = list.size() == 1 ? list.iterator().next()
 				: StringUtils.collectionToDelimitedString(list, ",", "'", "'");
 		this.tracer.addTag(key, value);
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded cache of values computed per request path. Paths with ids in them would
+ * otherwise grow the cache indefinitely. The cached paths sit on a clock - when the
+ * cache is full, the hand moves on from where it stopped the last time, gives the
+ * paths that were looked up since it passed them a second chance and evicts the
+ * first one that wasn't, which makes room for exactly one path. Lookups don't lock.
+ * Only one thread adds a path at a time, the others go on without caching theirs.
+ *
+ * @since 1.3.0
+ */
+final class PathCache<V> {
+
+	static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final int maxSize;
+	private final ConcurrentMap<String, Entry<V>> entries;
+	private final AtomicBoolean adding = new AtomicBoolean();
+	// guarded by adding
+	private final String[] clock;
+	private int used;
+	private int hand;
+
+	PathCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	PathCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+		this.clock = new String[maxSize];
+	}
+
+	/**
+	 * Returns the cached value or {@code null} if the path isn't cached
+	 */
+	V get(String path) {
+		Entry<V> entry = this.entries.get(path);
+		if (entry == null) {
+			return null;
+		}
+		entry.touch();
+		return entry.value;
+	}
+
+	void put(String path, V value) {
+		if (!this.adding.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			if (this.entries.containsKey(path)) {
+				return;
+			}
+			int slot = this.used < this.maxSize ? this.used++ : evict();
+			this.clock[slot] = path;
+			this.entries.put(path, new Entry<>(value));
+		}
+		finally {
+			this.adding.set(false);
+		}
+	}
+
+	int size() {
+		return this.entries.size();
+	}
+
+	boolean contains(String path) {
+		return this.entries.containsKey(path);
+	}
+
+	/**
+	 * Moves the hand to the first path that wasn't looked up since the hand passed
+	 * it, evicts that path and returns its slot. Ends within one turn of the clock,
+	 * since the hand clears the referenced flags it passes.
+	 */
+	private int evict() {
+		while (true) {
+			int slot = this.hand;
+			this.hand = slot + 1 < this.maxSize ? slot + 1 : 0;
+			Entry<V> entry = this.entries.get(this.clock[slot]);
+			if (entry != null && entry.referenced) {
+				entry.referenced = false;
+			}
+			else {
+				this.entries.remove(this.clock[slot]);
+				return slot;
+			}
+		}
+	}
+
+	private static final class Entry<V> {
+
+		final V value;
+		volatile boolean referenced;
+
+		Entry(V value) {
+			this.value = value;
+		}
+
+		void touch() {
+			// don't write to the shared field when there's nothing to change
+			if (!this.referenced) {
+				this.referenced = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.regex.Pattern;
+
+/**
+ * Remembers per path whether it matches the skip pattern, so that the pattern (by
+ * default a long alternation) isn't matched against the same path over and over.
+ * The number of cached paths is bounded, see {@link PathCache}.
+ *
+ * @since 1.3.0
+ */
+class SkipPatternCache {
+
+	static final int DEFAULT_MAX_SIZE = PathCache.DEFAULT_MAX_SIZE;
+
+	private final Pattern skipPattern;
+	private final PathCache<Boolean> decisions;
+
+	SkipPatternCache(Pattern skipPattern) {
+		this(skipPattern, DEFAULT_MAX_SIZE);
+	}
+
+	SkipPatternCache(Pattern skipPattern, int maxSize) {
+		this.skipPattern = skipPattern;
+		this.decisions = new PathCache<>(maxSize);
+	}
+
+	/**
+	 * Returns whether the path matches the skip pattern
+	 */
+	boolean shouldSkip(String path) {
+		Boolean decision = this.decisions.get(path);
+		if (decision != null) {
+			return decision;
+		}
+		boolean skip = this.skipPattern.matcher(path).matches();
+		this.decisions.put(path, skip);
+		return skip;
+	}
+
+	int size() {
+		return this.decisions.size();
+	}
+
+	boolean isCached(String path) {
+		return this.decisions.contains(path);
+	}
+}
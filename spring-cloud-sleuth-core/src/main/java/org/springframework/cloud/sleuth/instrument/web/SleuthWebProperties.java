@@ -1,5 +1,8 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -25,7 +28,15 @@ public class SleuthWebProperties {
 	 */
 	private String skipPattern = DEFAULT_SKIP_PATTERN;
 
-	private Client client;
+	/**
+	 * Sampling rules for incoming requests, evaluated in order. The first rule that
+	 * matches the path (and method if set) of a request that starts a new trace
+	 * decides whether it gets sampled. Requests that match no rule are sampled by
+	 * the default sampler.
+	 */
+	private List<SamplingRule> samplingRules = new ArrayList<>();
+
+	private Client client = new Client();
 
 	public boolean isEnabled() {
 		return this.enabled;
@@ -43,6 +54,14 @@ public class SleuthWebProperties {
 		this.skipPattern = skipPattern;
 	}
 
+	public List<SamplingRule> getSamplingRules() {
+		return this.samplingRules;
+	}
+
+	public void setSamplingRules(List<SamplingRule> samplingRules) {
+		this.samplingRules = samplingRules;
+	}
+
 	public Client getClient() {
 		return this.client;
 	}
@@ -58,6 +77,12 @@ public class SleuthWebProperties {
 		 */
 		private boolean enabled = true;
 
+		/**
+		 * Sampling rules for outgoing requests that start a new trace, evaluated in
+		 * order. Requests that match no rule are sampled by the default sampler.
+		 */
+		private List<SamplingRule> samplingRules = new ArrayList<>();
+
 		public boolean isEnabled() {
 			return this.enabled;
 		}
@@ -65,6 +90,64 @@ public class SleuthWebProperties {
 		public void setEnabled(boolean enabled) {
 			this.enabled = enabled;
 		}
+
+		public List<SamplingRule> getSamplingRules() {
+			return this.samplingRules;
+		}
+
+		public void setSamplingRules(List<SamplingRule> samplingRules) {
+			this.samplingRules = samplingRules;
+		}
+	}
+
+	public static class SamplingRule {
+
+		/**
+		 * Ant style pattern of the path the rule applies to, e.g. {@code /checkout/**}
+		 */
+		private String pattern;
+
+		/**
+		 * HTTP method the rule applies to. Applies to all methods if not set
+		 */
+		private String method;
+
+		/**
+		 * Fraction of the matching requests that should be sampled, from 0.0 to 1.0
+		 */
+		private float percentage = 0.1f;
+
+		public SamplingRule() {
+		}
+
+		public SamplingRule(String pattern, float percentage) {
+			this.pattern = pattern;
+			this.percentage = percentage;
+		}
+
+		public String getPattern() {
+			return this.pattern;
+		}
+
+		public void setPattern(String pattern) {
+			this.pattern = pattern;
+		}
+
+		public String getMethod() {
+			return this.method;
+		}
+
+		public void setMethod(String method) {
+			this.method = method;
+		}
+
+		public float getPercentage() {
+			return this.percentage;
+		}
+
+		public void setPercentage(float percentage) {
+			this.percentage = percentage;
+		}
 	}
 
 	public static class Async {
@@ -32,7 +32,8 @@ class SsLogSetter {
 	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
 
 	static void annotateWithServerSendIfLogIsNotAlreadyPresent(Span span) {
-		if (span == null) {
+		// non exportable spans won't get reported so there's no point in logging
+		if (span == null || !span.isExportable()) {
 			return;
 		}
 		for (org.springframework.cloud.sleuth.Log log1 : span.logs()) {
@@ -17,10 +17,14 @@ package org.springframework.cloud.sleuth.instrument.web;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
@@ -32,21 +36,26 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.cloud.sleuth.DeferredTag;
 import org.springframework.cloud.sleuth.ErrorParser;
+import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
 import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
 import org.springframework.cloud.sleuth.sampler.NeverSampler;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.StringUtils;
 import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.filter.GenericFilterBean;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
 
 /**
  * Filter that takes the value of the {@link Span#SPAN_ID_NAME} and
@@ -95,14 +104,31 @@ public class TraceFilter extends GenericFilterBean {
 	private static final String TRACE_SPAN_WITHOUT_PARENT = TraceFilter.class.getName()
 			+ ".SPAN_WITH_NO_PARENT";
 
+	/**
+	 * Path of the request within the application, resolved once per dispatch
+	 */
+	static final String PATH_REQUEST_ATTR = TraceFilter.class.getName() + ".PATH";
+
+	private static final String ASYNC_LISTENER_REQUEST_ATTR = TraceFilter.class.getName()
+			+ ".ASYNC_LISTENER";
+
+	/**
+	 * Value of {@code HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE} (without adding
+	 * a runtime dependency to Web MVC)
+	 */
+	private static final String BEST_MATCHING_PATTERN_REQUEST_ATTR =
+			"org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+
 	private Tracer tracer;
 	private TraceKeys traceKeys;
-	private final Pattern skipPattern;
+	private final SkipPatternCache skipPatternCache;
 	private final boolean supportsJoin;
 	private SpanReporter spanReporter;
 	private HttpSpanExtractor spanExtractor;
 	private HttpTraceKeysInjector httpTraceKeysInjector;
 	private ErrorParser errorParser;
+	private HttpSamplingRules samplingRules;
+	private AtomicReference<HttpRouteMetrics> routeMetrics;
 	private final BeanFactory beanFactory;
 
 	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
@@ -114,7 +140,7 @@ public class TraceFilter extends GenericFilterBean {
 	public TraceFilter(BeanFactory beanFactory, Pattern skipPattern) {
 		this.beanFactory = beanFactory;
 		this.supportsJoin = beanFactory.getBean(SleuthProperties.class).isSupportsJoin();
-		this.skipPattern = skipPattern;
+		this.skipPatternCache = new SkipPatternCache(skipPattern);
 	}
 
 	private static Pattern skipPattern(BeanFactory beanFactory) {
@@ -141,9 +167,17 @@ public class TraceFilter extends GenericFilterBean {
 		}
 		HttpServletRequest request = (HttpServletRequest) servletRequest;
 		HttpServletResponse response = (HttpServletResponse) servletResponse;
+		AsyncSpanListener asyncListener = (AsyncSpanListener) request
+				.getAttribute(ASYNC_LISTENER_REQUEST_ATTR);
+		if (asyncListener != null) {
+			processAsyncDispatch(filterChain, request, response, asyncListener);
+			return;
+		}
 		String uri = this.urlPathHelper.getPathWithinApplication(request);
-		boolean skip = this.skipPattern.matcher(uri).matches()
-				|| Span.SPAN_NOT_SAMPLED.equals(ServletUtils.getHeader(request, response, Span.SAMPLED_NAME));
+		request.setAttribute(PATH_REQUEST_ATTR, uri);
+		boolean skip = this.skipPatternCache.shouldSkip(uri)
+				|| Span.SPAN_NOT_SAMPLED.equals(ServletUtils.getHeader(request, response, Span.SAMPLED_NAME))
+				|| B3SingleFormat.samplingState(request.getHeader(B3SingleFormat.NAME)) == '0';
 		Span spanFromRequest = getSpanFromAttribute(request);
 		if (spanFromRequest != null) {
 			continueSpan(request, spanFromRequest);
@@ -159,9 +193,16 @@ public class TraceFilter extends GenericFilterBean {
 		}
 		String name = HTTP_COMPONENT + ":" + uri;
 		Throwable exception = null;
+		HttpServletResponse tracedResponse = response;
 		try {
-			spanFromRequest = createSpan(request, skip, spanFromRequest, name);
-			filterChain.doFilter(request, new TraceHttpServletResponse(response, spanFromRequest));
+			spanFromRequest = createSpan(request, skip, spanFromRequest, uri, name);
+			HttpServletRequest tracedRequest = request;
+			if (spanFromRequest != null && measuresExchange(spanFromRequest)) {
+				HttpExchangeCounters counters = new HttpExchangeCounters();
+				tracedRequest = new TraceHttpServletRequest(request, counters);
+				tracedResponse = new TraceHttpServletResponse(response, spanFromRequest, counters);
+			}
+			filterChain.doFilter(tracedRequest, tracedResponse);
 		} catch (Throwable e) {
 			exception = e;
 			errorParser().parseErrorTags(tracer().getCurrentSpan(), e);
@@ -171,13 +212,72 @@ public class TraceFilter extends GenericFilterBean {
 			throw e;
 		} finally {
 			if (isAsyncStarted(request) || request.isAsyncStarted()) {
-				if (log.isDebugEnabled()) {
-					log.debug("The span " + spanFromRequest + " will get detached by a HandleInterceptor");
+				if (spanFromRequest != null && request.isAsyncStarted()) {
+					registerAsyncListener(request, tracedResponse, spanFromRequest);
 				}
-				// TODO: how to deal with response annotations and async?
 				return;
 			}
-			detachOrCloseSpans(request, response, spanFromRequest, exception);
+			detachOrCloseSpans(request, tracedResponse, spanFromRequest, exception);
+			// nested dispatches write through the response of the request dispatch
+			if (request.getDispatcherType() == DispatcherType.REQUEST) {
+				recordRouteMetrics(request, tracedResponse);
+			}
+		}
+	}
+
+	/**
+	 * Registers a listener that closes the span once the async processing of the
+	 * request completes. Until then the span isn't bound to any thread.
+	 */
+	private void registerAsyncListener(HttpServletRequest request,
+			HttpServletResponse response, Span span) {
+		if (log.isDebugEnabled()) {
+			log.debug("The span " + span + " will get closed when the async processing completes");
+		}
+		AsyncSpanListener listener = new AsyncSpanListener(request, response, span);
+		request.getAsyncContext().addListener(listener, request, response);
+		request.setAttribute(ASYNC_LISTENER_REQUEST_ATTR, listener);
+		if (span.equals(tracer().getCurrentSpan())) {
+			tracer().detach(span);
+		}
+	}
+
+	/**
+	 * Dispatches that are part of the async processing of a request (e.g. the ASYNC
+	 * dispatch that renders the result of a controller) only put the span in scope.
+	 * If the async processing ends successfully with the dispatch, the span gets closed
+	 * right away. If the dispatch failed, closing is deferred to the ERROR dispatch of
+	 * the container so that the final status is captured, or to the
+	 * {@link AsyncSpanListener} if there's none.
+	 */
+	private void processAsyncDispatch(FilterChain filterChain, HttpServletRequest request,
+			HttpServletResponse response, AsyncSpanListener listener)
+			throws IOException, ServletException {
+		Throwable exception = null;
+		// the response passed to startAsync might be the wrapper of the first dispatch
+		HttpServletResponse tracedResponse = !measuresExchange(listener.span)
+				|| WebUtils.getNativeResponse(response, TraceHttpServletResponse.class) != null
+				? response
+				: new TraceHttpServletResponse(response, listener.span, listener.counters());
+		try (SpanInScope ws = SpanScopes.withSpan(tracer(), listener.span)) {
+			filterChain.doFilter(request, tracedResponse);
+		} catch (Throwable e) {
+			exception = e;
+			errorParser().parseErrorTags(listener.span, e);
+			throw e;
+		} finally {
+			if (!request.isAsyncStarted()) {
+				if (request.getDispatcherType() == DispatcherType.ERROR
+						|| exception == null && httpStatusSuccessful(tracedResponse)) {
+					listener.finish(exception);
+				}
+				else {
+					if (log.isDebugEnabled()) {
+						log.debug("The span " + listener.span + " will get closed when the error is handled");
+					}
+					listener.failed(exception);
+				}
+			}
 		}
 	}
 
@@ -224,12 +324,7 @@ public class TraceFilter extends GenericFilterBean {
 			HttpServletResponse response, Span spanFromRequest, Throwable exception) {
 		Span span = spanFromRequest;
 		if (span != null) {
-			addResponseTags(response, exception);
-			addResponseTagsForSpanWithoutParent(request, response);
-			if (span.hasSavedSpan() && requestHasAlreadyBeenHandled(request)) {
-				recordParentSpan(span.getSavedSpan());
-			}
-			recordParentSpan(span);
+			addResponseTagsAndRecordParentSpans(request, response, span, exception);
 			// in case of a response with exception status will close the span when exception dispatch is handled
 			// checking if tracing is in progress due to async / different order of view controller processing
 			if (httpStatusSuccessful(response) && tracer().isTracing()) {
@@ -259,6 +354,92 @@ public class TraceFilter extends GenericFilterBean {
 		}
 	}
 
+	private void addResponseTagsAndRecordParentSpans(HttpServletRequest request,
+			HttpServletResponse response, Span span, Throwable exception) {
+		addResponseTags(response, exception);
+		addResponseTagsForSpanWithoutParent(request, response);
+		if (span.hasSavedSpan() && requestHasAlreadyBeenHandled(request)) {
+			SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(span.getSavedSpan());
+			recordParentSpan(span.getSavedSpan());
+		}
+		annotateWithServerSend(span, response);
+		addExchangeTags(request, response, span);
+		recordParentSpan(span);
+	}
+
+	/**
+	 * Should be already done by the {@link TraceHttpServletResponse} when the response
+	 * got committed, otherwise SS is recorded now
+	 */
+	private void annotateWithServerSend(Span span, HttpServletResponse response) {
+		if (response instanceof TraceHttpServletResponse) {
+			((TraceHttpServletResponse) response).commit();
+		}
+		else {
+			SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(span);
+		}
+	}
+
+	/**
+	 * Tags the span with the sizes of the request and the response and with the time
+	 * to first byte, as counted by the wrappers of the request and the response
+	 */
+	private void addExchangeTags(HttpServletRequest request, HttpServletResponse response,
+			Span span) {
+		if (!span.isExportable() || !(response instanceof TraceHttpServletResponse)) {
+			return;
+		}
+		HttpExchangeCounters counters = ((TraceHttpServletResponse) response).counters();
+		long requestBytes = requestBytes(request, counters);
+		if (requestBytes > 0) {
+			keysInjector().tagSpan(span, traceKeys().getHttp().getRequestSize(),
+					String.valueOf(requestBytes));
+		}
+		if (counters.responseBytes > 0) {
+			keysInjector().tagSpan(span, traceKeys().getHttp().getResponseSize(),
+					String.valueOf(counters.responseBytes));
+		}
+		if (counters.timeToFirstByteMicros() >= 0) {
+			keysInjector().tagSpan(span, traceKeys().getHttp().getTimeToFirstByte(),
+					String.valueOf(counters.timeToFirstByteMicros()));
+		}
+	}
+
+	/**
+	 * The exchange is measured for the tags of an exported span and, regardless of
+	 * sampling, for the route metrics. Otherwise the request and the response aren't
+	 * wrapped.
+	 */
+	private boolean measuresExchange(Span span) {
+		return span.isExportable() || routeMetrics() != null;
+	}
+
+	/**
+	 * Adds the request to the aggregates of its route, regardless of whether its span
+	 * got sampled
+	 */
+	private void recordRouteMetrics(HttpServletRequest request,
+			HttpServletResponse response) {
+		HttpRouteMetrics routeMetrics = routeMetrics();
+		if (routeMetrics == null || !(response instanceof TraceHttpServletResponse)) {
+			return;
+		}
+		HttpExchangeCounters counters = ((TraceHttpServletResponse) response).counters();
+		Object pattern = request.getAttribute(BEST_MATCHING_PATTERN_REQUEST_ATTR);
+		String route = pattern != null ? request.getMethod() + " " + pattern
+				: HttpRouteMetrics.UNMAPPED_ROUTE;
+		routeMetrics.record(route, requestBytes(request, counters),
+				counters.responseBytes, counters.timeToFirstByteMicros());
+	}
+
+	/**
+	 * The container reads form parameters without going through the wrapper, so the
+	 * declared content length is taken when it's larger than what was read
+	 */
+	private long requestBytes(HttpServletRequest request, HttpExchangeCounters counters) {
+		return Math.max(counters.requestBytes, request.getContentLengthLong());
+	}
+
 	private void addResponseTagsForSpanWithoutParent(HttpServletRequest request,
 			HttpServletResponse response) {
 		if (spanWithoutParent(request) && response.getStatus() >= 100) {
@@ -288,12 +469,7 @@ public class TraceFilter extends GenericFilterBean {
 				log.debug("Trying to send the parent span " + parent + " to Zipkin");
 			}
 			parent.stop();
-			// should be already done by HttpServletResponse wrappers
-			SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(parent);
 			spanReporter().report(parent);
-		} else {
-			// should be already done by HttpServletResponse wrappers
-			SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(parent);
 		}
 	}
 
@@ -341,14 +517,15 @@ public class TraceFilter extends GenericFilterBean {
 	 * Creates a span and appends it as the current request's attribute
 	 */
 	private Span createSpan(HttpServletRequest request,
-			boolean skip, Span spanFromRequest, String name) {
+			boolean skip, Span spanFromRequest, String uri, String name) {
 		if (spanFromRequest != null) {
 			if (log.isDebugEnabled()) {
 				log.debug("Span has already been created - continuing with the previous one");
 			}
 			return spanFromRequest;
 		}
-		Span parent = spanExtractor().joinTrace(new HttpServletRequestTextMap(request));
+		Span parent = spanExtractor().joinTrace(
+				new HttpServletRequestTextMap(request, uri));
 		if (parent != null) {
 			if (log.isDebugEnabled()) {
 				log.debug("Found a parent span " + parent + " in the request");
@@ -373,15 +550,20 @@ public class TraceFilter extends GenericFilterBean {
 			}
 			else {
 				String header = request.getHeader(Span.SPAN_FLAGS);
-				if (Span.SPAN_SAMPLED.equals(header)) {
+				if (Span.SPAN_SAMPLED.equals(header) || B3SingleFormat
+						.samplingState(request.getHeader(B3SingleFormat.NAME)) == 'd') {
 					spanFromRequest = tracer().createSpan(name, new AlwaysSampler());
 				} else {
-					spanFromRequest = tracer().createSpan(name);
+					spanFromRequest = createSpan(name, samplingRules().sampler(request.getMethod(), uri));
+				}
+				if (spanFromRequest.isExportable()) {
+					addRequestTags(spanFromRequest, request);
 				}
-				addRequestTags(spanFromRequest, request);
 				request.setAttribute(TRACE_SPAN_WITHOUT_PARENT, spanFromRequest);
 			}
-			spanFromRequest.logEvent(Span.SERVER_RECV);
+			if (spanFromRequest.isExportable()) {
+				spanFromRequest.logEvent(Span.SERVER_RECV);
+			}
 			request.setAttribute(TRACE_REQUEST_ATTR, spanFromRequest);
 			if (log.isDebugEnabled()) {
 				log.debug("No parent span present - creating a new span");
@@ -390,19 +572,27 @@ public class TraceFilter extends GenericFilterBean {
 		return spanFromRequest;
 	}
 
+	private Span createSpan(String name, Sampler sampler) {
+		// no sampling rule matched - the default sampler decides
+		if (sampler == null) {
+			return tracer().createSpan(name);
+		}
+		return tracer().createSpan(name, sampler);
+	}
+
 	/** Override to add annotations not defined in {@link TraceKeys}. */
 	protected void addRequestTags(Span span, HttpServletRequest request) {
-		String uri = this.urlPathHelper.getPathWithinApplication(request);
-		keysInjector().addRequestTags(span, getFullUrl(request),
+		String uri = (String) request.getAttribute(PATH_REQUEST_ATTR);
+		if (uri == null) {
+			uri = this.urlPathHelper.getPathWithinApplication(request);
+		}
+		keysInjector().addRequestTags(span, new RequestUrl(request),
 				request.getServerName(), uri, request.getMethod());
 		for (String name : traceKeys().getHttp().getHeaders()) {
 			Enumeration<String> values = request.getHeaders(name);
 			if (values.hasMoreElements()) {
-				String key = traceKeys().getHttp().getPrefix() + name.toLowerCase();
-				ArrayList<String> list = Collections.list(values);
-				String value = list.size() == 1 ? list.get(0)
-						: StringUtils.collectionToDelimitedString(list, ",", "'", "'");
-				keysInjector().tagSpan(span, key, value);
+				keysInjector().tagSpan(span, keysInjector().headerKey(name),
+						Collections.list(values));
 			}
 		}
 	}
@@ -427,16 +617,6 @@ public class TraceFilter extends GenericFilterBean {
 		return WebAsyncUtils.getAsyncManager(request).isConcurrentHandlingStarted();
 	}
 
-	private String getFullUrl(HttpServletRequest request) {
-		StringBuffer requestURI = request.getRequestURL();
-		String queryString = request.getQueryString();
-		if (queryString == null) {
-			return requestURI.toString();
-		} else {
-			return requestURI.append('?').append(queryString).toString();
-		}
-	}
-
 	Tracer tracer() {
 		if (this.tracer == null) {
 			this.tracer = this.beanFactory.getBean(Tracer.class);
@@ -472,11 +652,166 @@ public class TraceFilter extends GenericFilterBean {
 		return this.httpTraceKeysInjector;
 	}
 
+	HttpSamplingRules samplingRules() {
+		if (this.samplingRules == null) {
+			this.samplingRules = samplingRules(this.beanFactory);
+		}
+		return this.samplingRules;
+	}
+
+	private static HttpSamplingRules samplingRules(BeanFactory beanFactory) {
+		try {
+			SleuthWebProperties properties = beanFactory.getBean(SleuthWebProperties.class);
+			// the null value will not happen on production but might happen in tests
+			if (properties != null) {
+				return new HttpSamplingRules(properties.getSamplingRules());
+			}
+		} catch (NoSuchBeanDefinitionException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("SleuthWebProperties are missing, no sampling rules will be applied");
+			}
+		}
+		return HttpSamplingRules.EMPTY;
+	}
+
+	HttpRouteMetrics routeMetrics() {
+		if (this.routeMetrics == null) {
+			try {
+				// a null value (possible in tests) disables the aggregation as well
+				this.routeMetrics = new AtomicReference<>(
+						this.beanFactory.getBean(HttpRouteMetrics.class));
+			} catch (NoSuchBeanDefinitionException e) {
+				if (log.isTraceEnabled()) {
+					log.trace("HttpRouteMetrics bean not found, won't aggregate the requests per route");
+				}
+				this.routeMetrics = new AtomicReference<>();
+			}
+		}
+		return this.routeMetrics.get();
+	}
+
 	ErrorParser errorParser() {
 		if (this.errorParser == null) {
 			this.errorParser = this.beanFactory.getBean(ErrorParser.class);
 		}
 		return this.errorParser;
 	}
-}
 
+	/**
+	 * Full URL of the request together with the query string, rendered the way
+	 * {@link HttpServletRequest#getRequestURL()} does it. Containers recycle the
+	 * request once it has completed, so only the parts of the URL are kept.
+	 */
+	private static final class RequestUrl implements DeferredTag {
+
+		private final String scheme;
+		private final String serverName;
+		private final int serverPort;
+		private final String requestUri;
+		private final String queryString;
+
+		RequestUrl(HttpServletRequest request) {
+			this.scheme = request.getScheme();
+			this.serverName = request.getServerName();
+			this.serverPort = request.getServerPort();
+			this.requestUri = request.getRequestURI();
+			this.queryString = request.getQueryString();
+		}
+
+		@Override
+		public String value() {
+			StringBuilder url = new StringBuilder(64);
+			url.append(this.scheme).append("://").append(this.serverName);
+			if (this.serverPort > 0 && !("http".equalsIgnoreCase(this.scheme) && this.serverPort == 80)
+					&& !("https".equalsIgnoreCase(this.scheme) && this.serverPort == 443)) {
+				url.append(':').append(this.serverPort);
+			}
+			url.append(this.requestUri);
+			if (this.queryString != null) {
+				url.append('?').append(this.queryString);
+			}
+			return url.toString();
+		}
+
+		@Override
+		public String toString() {
+			return value();
+		}
+	}
+
+	/**
+	 * Closes the span of a request exactly once, when its async processing completes.
+	 * Errors and timeouts reported by the container are tagged on the span.
+	 */
+	private final class AsyncSpanListener implements AsyncListener {
+
+		private final HttpServletRequest request;
+		private final HttpServletResponse response;
+		private final Span span;
+		private final AtomicBoolean finished = new AtomicBoolean();
+		private volatile Throwable error;
+
+		AsyncSpanListener(HttpServletRequest request, HttpServletResponse response,
+				Span span) {
+			this.request = request;
+			this.response = response;
+			this.span = span;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			finish(null);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			keysInjector().tagSpan(this.span, Span.SPAN_ERROR_TAG_NAME,
+					"Request timed out after " + event.getAsyncContext().getTimeout() + " ms");
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			Throwable error = event.getThrowable();
+			if (error != null) {
+				this.error = error;
+				errorParser().parseErrorTags(this.span, error);
+			}
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// the async processing got restarted, which removes all listeners
+			event.getAsyncContext().addListener(this, this.request, this.response);
+		}
+
+		void finish(Throwable exception) {
+			if (!this.finished.compareAndSet(false, true)) {
+				return;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Closing the span " + this.span + " since the async processing completed");
+			}
+			try (SpanInScope ws = SpanScopes.withSpan(tracer(), this.span)) {
+				addResponseTagsAndRecordParentSpans(this.request, this.response, this.span,
+						exception != null ? exception : this.error);
+				tracer().close(this.span);
+			}
+			clearTraceAttribute(this.request);
+			// later dispatches of the request mustn't continue the reported span
+			this.request.removeAttribute(ASYNC_LISTENER_REQUEST_ATTR);
+			recordRouteMetrics(this.request, this.response);
+		}
+
+		void failed(Throwable exception) {
+			if (exception != null) {
+				this.error = exception;
+			}
+		}
+
+		HttpExchangeCounters counters() {
+			return this.response instanceof TraceHttpServletResponse ?
+					((TraceHttpServletResponse) this.response).counters()
+					: new HttpExchangeCounters();
+		}
+	}
+}
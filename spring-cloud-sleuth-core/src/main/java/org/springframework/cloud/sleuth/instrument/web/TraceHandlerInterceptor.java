@@ -67,14 +67,26 @@ public class TraceHandlerInterceptor extends HandlerInterceptorAdapter {
 			Object handler) throws Exception {
 		String spanName = spanName(handler);
 		boolean continueSpan = getRootSpanFromAttribute(request) != null;
-		Span span = continueSpan ? getRootSpanFromAttribute(request) : getTracer().createSpan(spanName);
+		Span newSpan = getNewSpanFromAttribute(request);
+		Span span;
+		if (continueSpan) {
+			span = getRootSpanFromAttribute(request);
+		}
+		else if (newSpan != null) {
+			// dispatch of the result of async processing, the span got detached when
+			// the concurrent handling started
+			span = getTracer().continueSpan(newSpan);
+		}
+		else {
+			span = getTracer().createSpan(spanName);
+		}
 		if (log.isDebugEnabled()) {
 			log.debug("Handling span " + span);
 		}
 		addClassMethodTag(handler, span);
 		addClassNameTag(handler, span);
 		setSpanInAttribute(request, span);
-		if (!continueSpan) {
+		if (!continueSpan && newSpan == null) {
 			setNewSpanCreatedAttribute(request, span);
 		}
 		return true;
@@ -121,9 +133,11 @@ public class TraceHandlerInterceptor extends HandlerInterceptorAdapter {
 		Span spanFromRequest = getNewSpanFromAttribute(request);
 		Span rootSpanFromRequest = getRootSpanFromAttribute(request);
 		if (log.isDebugEnabled()) {
-			log.debug("Closing the span " + spanFromRequest + " and detaching its parent " + rootSpanFromRequest + " since the request is asynchronous");
+			log.debug("Detaching the span " + spanFromRequest + " and its parent " + rootSpanFromRequest + " since the request is asynchronous");
 		}
-		getTracer().close(spanFromRequest);
+		// the spans are closed once the async processing completes, the root span by
+		// the AsyncListener of the TraceFilter
+		getTracer().detach(spanFromRequest);
 		getTracer().detach(rootSpanFromRequest);
 	}
 
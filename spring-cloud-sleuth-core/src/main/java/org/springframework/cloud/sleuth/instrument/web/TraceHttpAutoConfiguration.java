@@ -21,8 +21,10 @@ import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.TraceKeys;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,7 +39,8 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ConditionalOnBean(Tracer.class)
 @AutoConfigureAfter(TraceAutoConfiguration.class)
-@EnableConfigurationProperties({ TraceKeys.class, SleuthWebProperties.class })
+@EnableConfigurationProperties({ TraceKeys.class, SleuthWebProperties.class,
+		SleuthProperties.class })
 public class TraceHttpAutoConfiguration {
 
 	@Bean
@@ -48,13 +51,15 @@ public class TraceHttpAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public HttpSpanExtractor httpSpanExtractor(SleuthWebProperties sleuthWebProperties) {
-		return new ZipkinHttpSpanExtractor(Pattern.compile(sleuthWebProperties.getSkipPattern()));
+	public HttpSpanExtractor httpSpanExtractor(SleuthWebProperties sleuthWebProperties,
+			IdGenerator idGenerator, SleuthProperties sleuthProperties) {
+		return new ZipkinHttpSpanExtractor(Pattern.compile(sleuthWebProperties.getSkipPattern()),
+				idGenerator, sleuthProperties.getPropagation());
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	public HttpSpanInjector httpSpanInjector() {
-		return new ZipkinHttpSpanInjector();
+	public HttpSpanInjector httpSpanInjector(SleuthProperties sleuthProperties) {
+		return new ZipkinHttpSpanInjector(sleuthProperties.getPropagation());
 	}
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.io.IOException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Counts the bytes of the request body that are read through
+ * {@link #getInputStream()}. Like the {@link TraceHttpServletResponse} it's created
+ * once per dispatch and hands out a single stream.
+ *
+ * @since 1.3.0
+ */
+class TraceHttpServletRequest extends HttpServletRequestWrapper {
+
+	private final HttpExchangeCounters counters;
+	private TraceServletInputStream inputStream;
+
+	TraceHttpServletRequest(HttpServletRequest request, HttpExchangeCounters counters) {
+		super(request);
+		this.counters = counters;
+	}
+
+	@Override public ServletInputStream getInputStream() throws IOException {
+		if (this.inputStream == null) {
+			this.inputStream = new TraceServletInputStream(super.getInputStream(),
+					this.counters);
+		}
+		return this.inputStream;
+	}
+}
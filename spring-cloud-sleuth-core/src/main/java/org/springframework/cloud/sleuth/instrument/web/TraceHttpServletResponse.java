@@ -30,31 +30,104 @@ import org.springframework.cloud.sleuth.Span;
 /**
  * We want to set SS as fast as possible after the response was sent back. The response
  * can be sent back by calling either an {@link ServletOutputStream} or {@link PrintWriter}.
+ * <p>
+ * The wrapper is created once per dispatch and hands out a single stream and writer,
+ * which count the written bytes and watch flushing and closing. The response also gets
+ * committed by {@code sendError} and {@code sendRedirect}, and by the container once
+ * more bytes were written than fit into its buffer - that's checked once, when the
+ * count of written bytes exceeds the buffer size. The first time the response gets
+ * committed SS and the time to first byte are recorded - every later flush costs a
+ * single read of a flag.
  */
 class TraceHttpServletResponse extends HttpServletResponseWrapper {
 
 	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
 
 	private final Span span;
+	private final HttpExchangeCounters counters;
+	private TraceServletOutputStream outputStream;
+	private TracePrintWriter writer;
+	private long commitCheckThreshold = Long.MAX_VALUE;
 
 	TraceHttpServletResponse(HttpServletResponse response, Span span) {
+		this(response, span, new HttpExchangeCounters());
+	}
+
+	TraceHttpServletResponse(HttpServletResponse response, Span span,
+			HttpExchangeCounters counters) {
 		super(response);
 		this.span = span;
+		this.counters = counters;
 	}
 
 	@Override public void flushBuffer() throws IOException {
-		if (log.isTraceEnabled()) {
-			log.trace("Will annotate SS once the response is flushed");
-		}
-		SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(this.span);
+		commit();
 		super.flushBuffer();
 	}
 
+	@Override public void sendError(int sc, String msg) throws IOException {
+		commit();
+		super.sendError(sc, msg);
+	}
+
+	@Override public void sendError(int sc) throws IOException {
+		commit();
+		super.sendError(sc);
+	}
+
+	@Override public void sendRedirect(String location) throws IOException {
+		commit();
+		super.sendRedirect(location);
+	}
+
 	@Override public ServletOutputStream getOutputStream() throws IOException {
-		return new TraceServletOutputStream(super.getOutputStream(), this.span);
+		if (this.outputStream == null) {
+			this.commitCheckThreshold = getBufferSize();
+			this.outputStream = new TraceServletOutputStream(super.getOutputStream(), this,
+					this.counters);
+		}
+		return this.outputStream;
 	}
 
 	@Override public PrintWriter getWriter() throws IOException {
-		return new TracePrintWriter(super.getWriter(), this.span);
+		if (this.writer == null) {
+			this.commitCheckThreshold = getBufferSize();
+			this.writer = new TracePrintWriter(super.getWriter(), this, this.counters);
+		}
+		return this.writer;
+	}
+
+	HttpExchangeCounters counters() {
+		return this.counters;
+	}
+
+	/**
+	 * Called by the stream and the writer after they counted written bytes. Once the
+	 * bytes exceed the buffer size the container has most likely committed the
+	 * response. If it hasn't, its buffer is bigger than reported and the commit is
+	 * left to flushing and closing.
+	 */
+	void afterWrite() {
+		if (this.counters.responseBytes <= this.commitCheckThreshold) {
+			return;
+		}
+		this.commitCheckThreshold = Long.MAX_VALUE;
+		if (isCommitted()) {
+			commit();
+		}
+	}
+
+	/**
+	 * Records SS on the span unless the response has already been committed
+	 */
+	void commit() {
+		if (!this.counters.commit()) {
+			return;
+		}
+		if (log.isTraceEnabled()) {
+			log.trace("The response got committed, will annotate the span with SS");
+		}
+		// an earlier dispatch of the request might have annotated the span already
+		SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(this.span);
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.io.IOException;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+/**
+ * Counts the bytes read from the body of a request
+ *
+ * @since 1.3.0
+ */
+class TraceServletInputStream extends ServletInputStream {
+
+	private final ServletInputStream delegate;
+	private final HttpExchangeCounters counters;
+
+	TraceServletInputStream(ServletInputStream delegate, HttpExchangeCounters counters) {
+		this.delegate = delegate;
+		this.counters = counters;
+	}
+
+	@Override public boolean isFinished() {
+		return this.delegate.isFinished();
+	}
+
+	@Override public boolean isReady() {
+		return this.delegate.isReady();
+	}
+
+	@Override public void setReadListener(ReadListener listener) {
+		this.delegate.setReadListener(listener);
+	}
+
+	@Override public int read() throws IOException {
+		int b = this.delegate.read();
+		if (b != -1) {
+			this.counters.requestBytes++;
+		}
+		return b;
+	}
+
+	@Override public int read(byte[] b) throws IOException {
+		return count(this.delegate.read(b));
+	}
+
+	@Override public int read(byte[] b, int off, int len) throws IOException {
+		return count(this.delegate.read(b, off, len));
+	}
+
+	@Override public int readLine(byte[] b, int off, int len) throws IOException {
+		return count(this.delegate.readLine(b, off, len));
+	}
+
+	@Override public long skip(long n) throws IOException {
+		long skipped = this.delegate.skip(n);
+		if (skipped > 0) {
+			this.counters.requestBytes += skipped;
+		}
+		return skipped;
+	}
+
+	@Override public int available() throws IOException {
+		return this.delegate.available();
+	}
+
+	@Override public void close() throws IOException {
+		this.delegate.close();
+	}
+
+	private int count(int read) {
+		if (read > 0) {
+			this.counters.requestBytes += read;
+		}
+		return read;
+	}
+}
@@ -17,27 +17,29 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
 import java.io.IOException;
-import java.lang.invoke.MethodHandles;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-import org.springframework.cloud.sleuth.Span;
-
 /**
+ * Counts the bytes written to the response and reports flushing and closing to the
+ * {@link TraceHttpServletResponse}. The {@code print} methods of a
+ * {@link ServletOutputStream} write a single byte per character.
+ *
  * @author Marcin Grzejszczak
  */
 class TraceServletOutputStream extends ServletOutputStream {
 
-	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+	private static final int CRLF_LENGTH = 2;
 
 	private final ServletOutputStream delegate;
-	private final Span span;
+	private final TraceHttpServletResponse response;
+	private final HttpExchangeCounters counters;
 
-	TraceServletOutputStream(ServletOutputStream delegate, Span span) {
+	TraceServletOutputStream(ServletOutputStream delegate, TraceHttpServletResponse response,
+			HttpExchangeCounters counters) {
 		this.delegate = delegate;
-		this.span = span;
+		this.response = response;
+		this.counters = counters;
 	}
 
 	@Override public boolean isReady() {
@@ -50,89 +52,95 @@ class TraceServletOutputStream extends ServletOutputStream {
 
 	@Override public void write(int b) throws IOException {
 		this.delegate.write(b);
+		this.counters.responseBytes++;
+		this.response.afterWrite();
 	}
 
 	@Override public void print(String s) throws IOException {
 		this.delegate.print(s);
+		this.counters.responseBytes += s != null ? s.length() : 4;
+		this.response.afterWrite();
 	}
 
 	@Override public void print(boolean b) throws IOException {
-		this.delegate.print(b);
+		print(String.valueOf(b));
 	}
 
 	@Override public void print(char c) throws IOException {
-		this.delegate.print(c);
+		print(String.valueOf(c));
 	}
 
 	@Override public void print(int i) throws IOException {
-		this.delegate.print(i);
+		print(String.valueOf(i));
 	}
 
 	@Override public void print(long l) throws IOException {
-		this.delegate.print(l);
+		print(String.valueOf(l));
 	}
 
 	@Override public void print(float f) throws IOException {
-		this.delegate.print(f);
+		print(String.valueOf(f));
 	}
 
 	@Override public void print(double d) throws IOException {
-		this.delegate.print(d);
+		print(String.valueOf(d));
 	}
 
 	@Override public void println() throws IOException {
 		this.delegate.println();
+		this.counters.responseBytes += CRLF_LENGTH;
+		this.response.afterWrite();
 	}
 
 	@Override public void println(String s) throws IOException {
 		this.delegate.println(s);
+		this.counters.responseBytes += (s != null ? s.length() : 4) + CRLF_LENGTH;
+		this.response.afterWrite();
 	}
 
 	@Override public void println(boolean b) throws IOException {
-		this.delegate.println(b);
+		println(String.valueOf(b));
 	}
 
 	@Override public void println(char c) throws IOException {
-		this.delegate.println(c);
+		println(String.valueOf(c));
 	}
 
 	@Override public void println(int i) throws IOException {
-		this.delegate.println(i);
+		println(String.valueOf(i));
 	}
 
 	@Override public void println(long l) throws IOException {
-		this.delegate.println(l);
+		println(String.valueOf(l));
 	}
 
 	@Override public void println(float f) throws IOException {
-		this.delegate.println(f);
+		println(String.valueOf(f));
 	}
 
 	@Override public void println(double d) throws IOException {
-		this.delegate.println(d);
+		println(String.valueOf(d));
 	}
 
 	@Override public void write(byte[] b) throws IOException {
 		this.delegate.write(b);
+		this.counters.responseBytes += b.length;
+		this.response.afterWrite();
 	}
 
 	@Override public void write(byte[] b, int off, int len) throws IOException {
 		this.delegate.write(b, off, len);
+		this.counters.responseBytes += len;
+		this.response.afterWrite();
 	}
 
 	@Override public void flush() throws IOException {
-		if (log.isTraceEnabled()) {
-			log.trace("Will annotate SS once the stream is flushed");
-		}
-		SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(this.span);
+		this.response.commit();
 		this.delegate.flush();
 	}
 
 	@Override public void close() throws IOException {
-		if (log.isTraceEnabled()) {
-			log.trace("Will annotate SS once the stream is closed");
-		}
-		SsLogSetter.annotateWithServerSendIfLogIsNotAlreadyPresent(this.span);
+		this.response.commit();
 		this.delegate.close();
 	}
 }
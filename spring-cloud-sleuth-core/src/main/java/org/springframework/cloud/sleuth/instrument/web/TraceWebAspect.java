@@ -148,7 +148,7 @@ public class TraceWebAspect {
 			HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Throwable {
 		Span currentSpan = this.tracer.getCurrentSpan();
 		try {
-			if (currentSpan != null && !currentSpan.tags().containsKey(Span.SPAN_ERROR_TAG_NAME)) {
+			if (currentSpan != null && !currentSpan.hasTag(Span.SPAN_ERROR_TAG_NAME)) {
 				this.errorParser.parseErrorTags(currentSpan, ex);
 			}
 			return pjp.proceed();
@@ -19,6 +19,7 @@ import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -101,6 +102,28 @@ public class TraceWebAutoConfiguration {
 		return new TraceFilter(beanFactory, skipPatternProvider.skipPattern());
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.sleuth.web.route-metrics.enabled", matchIfMissing = true)
+	public HttpRouteMetrics httpRouteMetrics() {
+		return new HttpRouteMetrics();
+	}
+
+	/**
+	 * Nested config that exposes the per route metrics through the metrics endpoint if
+	 * Actuator is present (without adding a runtime dependency to it)
+	 */
+	@Configuration
+	@ConditionalOnClass(PublicMetrics.class)
+	@ConditionalOnProperty(value = "spring.sleuth.web.route-metrics.enabled", matchIfMissing = true)
+	protected static class HttpRoutePublicMetricsConfig {
+
+		@Bean
+		public PublicMetrics sleuthHttpRoutePublicMetrics(HttpRouteMetrics httpRouteMetrics) {
+			return new HttpRoutePublicMetrics(httpRouteMetrics);
+		}
+	}
+
 	@Configuration
 	@ConditionalOnClass(ManagementServerProperties.class)
 	@ConditionalOnMissingBean(SkipPatternProvider.class)
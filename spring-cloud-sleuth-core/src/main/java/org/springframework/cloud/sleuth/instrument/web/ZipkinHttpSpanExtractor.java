@@ -1,18 +1,31 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.sleuth.IdGenerator;
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BaggageLimiter;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 import org.springframework.util.StringUtils;
 
 /**
  * Default implementation, compatible with Zipkin propagation.
  *
+ * <p>If the carrier is a {@link LookupSpanTextMap} the B3 headers are looked up
+ * directly by name and only the header names are scanned for baggage. Otherwise
+ * the Zipkin entries of the carrier are copied to a map first. A valid single
+ * {@code b3} header takes precedence over the separate B3 headers. If enabled, the
+ * W3C {@code traceparent} header is read when there are no B3 headers.
+ *
  * @author Marcin Grzejszczak
  * @since 1.2.0
  */
@@ -25,27 +38,52 @@ public class ZipkinHttpSpanExtractor implements HttpSpanExtractor {
 
 	private static final ZipkinHttpSpanMapper SPAN_CARRIER_MAPPER = new ZipkinHttpSpanMapper();
 
-	private final Pattern skipPattern;
-	private final Random random;
+	private final SkipPatternCache skipPatternCache;
+	private final IdGenerator idGenerator;
+	private final SleuthProperties.Propagation propagation;
 
 	public ZipkinHttpSpanExtractor(Pattern skipPattern) {
-		this.skipPattern = skipPattern;
-		this.random = new Random();
+		this(skipPattern, new ThreadLocalRandomIdGenerator());
+	}
+
+	public ZipkinHttpSpanExtractor(Pattern skipPattern, IdGenerator idGenerator) {
+		this(skipPattern, idGenerator, new SleuthProperties.Propagation());
+	}
+
+	/**
+	 * @param propagation tells whether the traceparent header should be read
+	 * @since 1.3.0
+	 */
+	public ZipkinHttpSpanExtractor(Pattern skipPattern, IdGenerator idGenerator,
+			SleuthProperties.Propagation propagation) {
+		this.skipPatternCache = new SkipPatternCache(skipPattern);
+		this.idGenerator = idGenerator;
+		this.propagation = propagation;
 	}
 
 	@Override
 	public Span joinTrace(SpanTextMap textMap) {
-		Map<String, String> carrier = SPAN_CARRIER_MAPPER.convert(textMap);
-
-		boolean debug = Span.SPAN_SAMPLED.equals(carrier.get(Span.SPAN_FLAGS));
-		boolean idToBeGenerated = debug && onlySpanIdIsPresent(carrier);
-		// we're only generating Trace ID since if there's no Span ID will assume
-		// that it's equal to Trace ID - we're trying to fix a malformed request
-		if (!idToBeGenerated && traceIdIsMissing(carrier)) {
-			// can't build a Span without trace id
-			return null;
-		}
+		Headers carrier = textMap instanceof LookupSpanTextMap ?
+				new LookupHeaders((LookupSpanTextMap) textMap) :
+				new MapHeaders(SPAN_CARRIER_MAPPER.convert(textMap));
 		try {
+			String b3 = carrier.get(B3SingleFormat.NAME);
+			// null if the b3 header is missing, malformed or carries just the
+			// sampling decision
+			Span.SpanBuilder span = B3SingleFormat.parse(b3);
+			if (span != null) {
+				char samplingState = B3SingleFormat.samplingState(b3);
+				return completeParentSpan(carrier, span, samplingState == 'd',
+						samplingState == '0', false);
+			}
+			boolean debug = Span.SPAN_SAMPLED.equals(carrier.get(Span.SPAN_FLAGS));
+			boolean idToBeGenerated = debug && onlySpanIdIsPresent(carrier);
+			// we're only generating Trace ID since if there's no Span ID will assume
+			// that it's equal to Trace ID - we're trying to fix a malformed request
+			if (!idToBeGenerated && traceIdIsMissing(carrier)) {
+				// can't build a Span without trace id
+				return joinTraceparent(carrier);
+			}
 			return buildParentSpan(carrier, idToBeGenerated);
 		} catch (Exception e) {
 			log.error("Exception occurred while trying to extract span from carrier", e);
@@ -53,20 +91,33 @@ public class ZipkinHttpSpanExtractor implements HttpSpanExtractor {
 		}
 	}
 
-	private boolean onlySpanIdIsPresent(Map<String, String> carrier) {
+	private Span joinTraceparent(Headers carrier) {
+		if (!this.propagation.isTraceparent()) {
+			return null;
+		}
+		String traceparent = carrier.get(TraceparentFormat.NAME);
+		Span.SpanBuilder span = TraceparentFormat.parse(traceparent);
+		if (span == null) {
+			return null;
+		}
+		return completeParentSpan(carrier, span, false,
+				!TraceparentFormat.isSampled(traceparent), false);
+	}
+
+	private boolean onlySpanIdIsPresent(Headers carrier) {
 		return traceIdIsMissing(carrier) && spanIdIsPresent(carrier);
 	}
 
-	private boolean traceIdIsMissing(Map<String, String> carrier) {
+	private boolean traceIdIsMissing(Headers carrier) {
 		return carrier.get(Span.TRACE_ID_NAME) == null;
 	}
 
-	private boolean spanIdIsPresent(Map<String, String> carrier) {
+	private boolean spanIdIsPresent(Headers carrier) {
 		return carrier.get(Span.SPAN_ID_NAME) != null;
 	}
 
 	private String generateId() {
-		return Span.idToHex(this.random.nextLong());
+		return Span.idToHex(this.idGenerator.nextId());
 	}
 
 	private long spanId(String spanId, String traceId) {
@@ -81,47 +132,64 @@ public class ZipkinHttpSpanExtractor implements HttpSpanExtractor {
 		}
 	}
 
-	private Span buildParentSpan(Map<String, String> carrier, boolean idToBeGenerated) {
+	private Span buildParentSpan(Headers carrier, boolean idToBeGenerated) {
 		String traceId = carrier.get(Span.TRACE_ID_NAME);
 		if (traceId == null) {
 			traceId = generateId();
 		}
+		String spanId = carrier.get(Span.SPAN_ID_NAME);
+		// the received ids are passed on so that they don't have to be encoded again
 		Span.SpanBuilder span = Span.builder()
 				.traceIdHigh(traceId.length() == 32 ? Span.hexToId(traceId, 0) : 0)
 				.traceId(Span.hexToId(traceId))
-				.spanId(spanId(carrier.get(Span.SPAN_ID_NAME), traceId));
+				.traceIdString(traceId)
+				.spanId(spanId(spanId, traceId))
+				.spanIdString(spanId);
+		String parentId = carrier.get(Span.PARENT_ID_NAME);
+		if (parentId != null) {
+			span.parent(Span.hexToId(parentId)).parentIdString(parentId);
+		}
+		boolean debug = Span.SPAN_SAMPLED.equals(carrier.get(Span.SPAN_FLAGS));
+		boolean notSampled = Span.SPAN_NOT_SAMPLED.equals(carrier.get(Span.SAMPLED_NAME));
+		return completeParentSpan(carrier, span, debug, notSampled, idToBeGenerated);
+	}
+
+	private Span completeParentSpan(Headers carrier, Span.SpanBuilder span,
+			boolean debug, boolean notSampled, boolean idToBeGenerated) {
+		String uri = carrier.get(ZipkinHttpSpanMapper.URI_HEADER);
 		String parentName = carrier.get(Span.SPAN_NAME_NAME);
 		if (StringUtils.hasText(parentName)) {
 			span.name(parentName);
 		}  else {
-			span.name(HTTP_COMPONENT + ":/parent"
-					+ carrier.get(ZipkinHttpSpanMapper.URI_HEADER));
+			span.name(HTTP_COMPONENT + ":/parent" + (uri != null ? uri : ""));
 		}
 		String processId = carrier.get(Span.PROCESS_ID_NAME);
 		if (StringUtils.hasText(processId)) {
 			span.processId(processId);
 		}
-		String parentId = carrier.get(Span.PARENT_ID_NAME);
-		if (parentId != null) {
-			span.parent(Span.hexToId(parentId));
-		}
 		span.remote(true);
 
-		boolean skip = this.skipPattern
-				.matcher(carrier.get(ZipkinHttpSpanMapper.URI_HEADER)).matches()
-				|| Span.SPAN_NOT_SAMPLED.equals(carrier.get(Span.SAMPLED_NAME));
+		boolean skip = uri != null && this.skipPatternCache.shouldSkip(uri)
+				|| notSampled;
 		// trace, span id were retrieved from the headers and span is sampled
 		span.shared(!(skip || idToBeGenerated));
-		boolean debug = Span.SPAN_SAMPLED.equals(carrier.get(Span.SPAN_FLAGS));
 		if (debug) {
 			span.exportable(true);
 		} else if (skip) {
 			span.exportable(false);
 		}
-		for (Map.Entry<String, String> entry : carrier.entrySet()) {
-			if (entry.getKey().toLowerCase()
-					.startsWith(ZipkinHttpSpanMapper.BAGGAGE_PREFIX)) {
-				span.baggage(unprefixedKey(entry.getKey()), entry.getValue());
+		BaggageLimiter limiter = null;
+		for (Iterator<String> names = carrier.names(); names.hasNext();) {
+			String name = names.next();
+			if (ZipkinHttpSpanMapper.isBaggage(name)) {
+				if (limiter == null) {
+					limiter = new BaggageLimiter(this.propagation.getBaggage());
+				}
+				String key = unprefixedKey(name);
+				String value = carrier.get(name);
+				if (limiter.tryAccept(key, value)) {
+					span.baggage(key, value);
+				}
 			}
 		}
 		return span.build();
@@ -132,4 +200,54 @@ public class ZipkinHttpSpanExtractor implements HttpSpanExtractor {
 				.toLowerCase();
 	}
 
+	/**
+	 * The header lookups the extraction needs, whatever the carrier is
+	 */
+	private interface Headers {
+
+		String get(String name);
+
+		Iterator<String> names();
+	}
+
+	private static class LookupHeaders implements Headers {
+
+		private final LookupSpanTextMap carrier;
+
+		LookupHeaders(LookupSpanTextMap carrier) {
+			this.carrier = carrier;
+		}
+
+		@Override
+		public String get(String name) {
+			return this.carrier.get(name);
+		}
+
+		@Override
+		public Iterator<String> names() {
+			return this.carrier.names();
+		}
+	}
+
+	/**
+	 * The Zipkin entries of a carrier that can't be looked up
+	 */
+	private static class MapHeaders implements Headers {
+
+		private final Map<String, String> entries;
+
+		MapHeaders(Map<String, String> entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		public String get(String name) {
+			return this.entries.get(name);
+		}
+
+		@Override
+		public Iterator<String> names() {
+			return this.entries.keySet().iterator();
+		}
+	}
 }
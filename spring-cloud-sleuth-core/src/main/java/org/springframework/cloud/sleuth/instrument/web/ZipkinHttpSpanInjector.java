@@ -2,12 +2,21 @@ package org.springframework.cloud.sleuth.instrument.web;
 
 import java.util.Map;
 
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BaggageLimiter;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 import org.springframework.util.StringUtils;
 
 /**
  * Default implementation of {@link HttpSpanInjector}, compatible with Zipkin propagation.
+ * Headers that are already present in the carrier are not overridden. For a
+ * {@link LookupSpanTextMap} only the written headers are looked up, otherwise the
+ * Zipkin entries of the carrier are read first. Which headers get sent is controlled
+ * by {@link SleuthProperties.Propagation}.
  *
  * @author Marcin Grzejszczak
  * @since 1.2.0
@@ -16,43 +25,70 @@ public class ZipkinHttpSpanInjector implements HttpSpanInjector {
 
 	private static final ZipkinHttpSpanMapper SPAN_CARRIER_MAPPER = new ZipkinHttpSpanMapper();
 
+	private final SleuthProperties.Propagation propagation;
+
+	public ZipkinHttpSpanInjector() {
+		this(new SleuthProperties.Propagation());
+	}
+
+	/**
+	 * @param propagation which of the headers to send
+	 * @since 1.3.0
+	 */
+	public ZipkinHttpSpanInjector(SleuthProperties.Propagation propagation) {
+		this.propagation = propagation;
+	}
+
 	@Override
 	public void inject(Span span, SpanTextMap map) {
-		Map<String, String> carrier = SPAN_CARRIER_MAPPER.convert(map);
-		setHeader(map, carrier, Span.TRACE_ID_NAME, span.traceIdString());
-		setIdHeader(map, carrier, Span.SPAN_ID_NAME, span.getSpanId());
-		setHeader(map, carrier, Span.SAMPLED_NAME, span.isExportable() ? Span.SPAN_SAMPLED : Span.SPAN_NOT_SAMPLED);
-		setHeader(map, carrier, Span.SPAN_NAME_NAME, span.getName());
-		setIdHeader(map, carrier, Span.PARENT_ID_NAME, getParentId(span));
+		// carriers that can be looked up are checked only for the headers we write
+		Map<String, String> carrier = map instanceof LookupSpanTextMap ? null :
+				SPAN_CARRIER_MAPPER.convert(map);
+		if (this.propagation.isB3Multi()) {
+			setHeader(map, carrier, Span.TRACE_ID_NAME, span.traceIdString());
+			setHeader(map, carrier, Span.SPAN_ID_NAME, span.spanIdString());
+			setHeader(map, carrier, Span.SAMPLED_NAME, span.isExportable() ? Span.SPAN_SAMPLED : Span.SPAN_NOT_SAMPLED);
+			setHeader(map, carrier, Span.PARENT_ID_NAME, span.parentIdString());
+		}
+		if (this.propagation.isB3Single() && !containsKey(map, carrier, B3SingleFormat.NAME)) {
+			map.put(B3SingleFormat.NAME, B3SingleFormat.write(span));
+		}
+		if (this.propagation.isTraceparent()) {
+			setHeader(map, carrier, TraceparentFormat.NAME, TraceparentFormat.write(span));
+		}
+		if (this.propagation.isSpanName()) {
+			setHeader(map, carrier, Span.SPAN_NAME_NAME, span.getName());
+		}
 		setHeader(map, carrier, Span.PROCESS_ID_NAME, span.getProcessId());
-		for (Map.Entry<String, String> entry : span.baggageItems()) {
-			map.put(prefixedKey(entry.getKey()), entry.getValue());
+		if (!span.getBaggage().isEmpty()) {
+			BaggageLimiter limiter = new BaggageLimiter(this.propagation.getBaggage());
+			for (Map.Entry<String, String> entry : span.baggageItems()) {
+				if (limiter.tryAccept(entry.getKey(), entry.getValue())) {
+					map.put(prefixedKey(entry.getKey()), entry.getValue());
+				}
+			}
 		}
 	}
 
 	private String prefixedKey(String key) {
-		if (key.startsWith(Span.SPAN_BAGGAGE_HEADER_PREFIX
-				+ ZipkinHttpSpanMapper.HEADER_DELIMITER)) {
+		if (ZipkinHttpSpanMapper.isBaggage(key)) {
 			return key;
 		}
 		return Span.SPAN_BAGGAGE_HEADER_PREFIX + ZipkinHttpSpanMapper.HEADER_DELIMITER
 				+ key;
 	}
 
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty() ? span.getParents().get(0) : null;
-	}
-
-	private void setIdHeader(SpanTextMap map, Map<String, String> carrier, String name, Long value) {
-		if (value != null) {
-			setHeader(map, carrier, name, Span.idToHex(value));
+	private void setHeader(SpanTextMap map, Map<String, String> carrier, String name, String value) {
+		if (StringUtils.hasText(value) && !containsKey(map, carrier, name)) {
+			map.put(name, value);
 		}
 	}
 
-	private void setHeader(SpanTextMap map, Map<String, String> carrier, String name, String value) {
-		if (StringUtils.hasText(value) && !carrier.containsKey(name)) {
-			map.put(name, value);
+	private boolean containsKey(SpanTextMap map, Map<String, String> carrier, String name) {
+		if (carrier != null) {
+			return carrier.containsKey(name);
 		}
+		return ((LookupSpanTextMap) map).get(name) != null;
 	}
 
 }
@@ -17,14 +17,13 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.CaseInsensitiveHeaders;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 
 /**
  * Mapper util for filter Zipkin compatible carrier values only from {@link SpanTextMap}
@@ -38,31 +37,27 @@ class ZipkinHttpSpanMapper {
 			+ HEADER_DELIMITER;
 	static final String URI_HEADER = "X-Span-Uri";
 
-	private static Comparator<String> IGNORE_CASE_COMPARATOR = new Comparator<String>() {
-		@Override
-		public int compare(String o1, String o2) {
-			return o1.toLowerCase().compareTo(o2.toLowerCase());
-		}
-	};
-
 	/**
 	 * Acceptable span fields
 	 */
-	private static final Set<String> SPAN_FIELDS;
+	private static final Map<String, String> SPAN_FIELDS;
 
 	static {
-		TreeSet<String> fields = new TreeSet<>(IGNORE_CASE_COMPARATOR);
-		Collections.addAll(fields, Span.SPAN_FLAGS, Span.TRACE_ID_NAME, Span.SPAN_ID_NAME,
-				Span.PROCESS_ID_NAME, Span.SPAN_NAME_NAME, Span.PARENT_ID_NAME,
-				Span.SAMPLED_NAME, URI_HEADER);
-		SPAN_FIELDS = Collections.unmodifiableSet(fields);
+		Map<String, String> fields = new CaseInsensitiveHeaders();
+		for (String field : new String[] { Span.SPAN_FLAGS, Span.TRACE_ID_NAME,
+				Span.SPAN_ID_NAME, Span.PROCESS_ID_NAME, Span.SPAN_NAME_NAME,
+				Span.PARENT_ID_NAME, Span.SAMPLED_NAME, URI_HEADER, B3SingleFormat.NAME,
+				TraceparentFormat.NAME }) {
+			fields.put(field, field);
+		}
+		SPAN_FIELDS = Collections.unmodifiableMap(fields);
 	}
 
 	/**
 	 * Create new Map of carrier values
 	 */
 	Map<String, String> convert(SpanTextMap textMap) {
-		Map<String, String> carrier = new TreeMap<>(IGNORE_CASE_COMPARATOR);
+		Map<String, String> carrier = new CaseInsensitiveHeaders();
 		for (Map.Entry<String, String> entry : textMap) {
 			if (isAcceptable(entry.getKey())) {
 				carrier.put(entry.getKey(), entry.getValue());
@@ -72,6 +67,13 @@ class ZipkinHttpSpanMapper {
 	}
 
 	private boolean isAcceptable(String key) {
-		return SPAN_FIELDS.contains(key) || key.startsWith(BAGGAGE_PREFIX);
+		return SPAN_FIELDS.containsKey(key) || isBaggage(key);
+	}
+
+	/**
+	 * Header names are case insensitive, so is the baggage prefix
+	 */
+	static boolean isBaggage(String name) {
+		return name.regionMatches(true, 0, BAGGAGE_PREFIX, 0, BAGGAGE_PREFIX.length());
 	}
 }
@@ -22,7 +22,9 @@ import java.net.URI;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.sleuth.instrument.web.HttpSamplingRules;
 import org.springframework.cloud.sleuth.instrument.web.HttpSpanInjector;
+import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.web.HttpTraceKeysInjector;
@@ -44,12 +46,20 @@ abstract class AbstractTraceHttpRequestInterceptor {
 	protected final Tracer tracer;
 	protected final HttpSpanInjector spanInjector;
 	protected final HttpTraceKeysInjector keysInjector;
+	protected final HttpSamplingRules samplingRules;
 
 	protected AbstractTraceHttpRequestInterceptor(Tracer tracer,
 			HttpSpanInjector spanInjector, HttpTraceKeysInjector keysInjector) {
+		this(tracer, spanInjector, keysInjector, HttpSamplingRules.EMPTY);
+	}
+
+	protected AbstractTraceHttpRequestInterceptor(Tracer tracer,
+			HttpSpanInjector spanInjector, HttpTraceKeysInjector keysInjector,
+			HttpSamplingRules samplingRules) {
 		this.tracer = tracer;
 		this.spanInjector = spanInjector;
 		this.keysInjector = keysInjector;
+		this.samplingRules = samplingRules;
 	}
 
 	/**
@@ -59,10 +69,13 @@ abstract class AbstractTraceHttpRequestInterceptor {
 	protected void publishStartEvent(HttpRequest request) {
 		URI uri = request.getURI();
 		String spanName = getName(uri);
-		Span newSpan = this.tracer.createSpan(spanName);
+		Span newSpan = createSpan(spanName, request);
 		this.spanInjector.inject(newSpan, new HttpRequestTextMap(request));
-		addRequestTags(request);
-		newSpan.logEvent(Span.CLIENT_SEND);
+		// tags and logs of a non exportable span would never get reported
+		if (newSpan.isExportable()) {
+			addRequestTags(request);
+			newSpan.logEvent(Span.CLIENT_SEND);
+		}
 		if (log.isDebugEnabled()) {
 			log.debug("Starting new client span [" + newSpan + "]");
 		}
@@ -79,6 +92,22 @@ abstract class AbstractTraceHttpRequestInterceptor {
 		}
 	}
 
+	/**
+	 * Creates a child of the current span or a new trace sampled according to the
+	 * first matching sampling rule
+	 */
+	private Span createSpan(String spanName, HttpRequest request) {
+		if (this.tracer.isTracing()) {
+			return this.tracer.createSpan(spanName);
+		}
+		Sampler sampler = this.samplingRules.sampler(request.getMethod().name(),
+				request.getURI().getPath());
+		if (sampler == null) {
+			return this.tracer.createSpan(spanName);
+		}
+		return this.tracer.createSpan(spanName, sampler);
+	}
+
 	private String getName(URI uri) {
 		// The returned name should comply with RFC 882 - Section 3.1.2.
 		// i.e Header values must composed of printable ASCII values.
@@ -93,11 +122,8 @@ abstract class AbstractTraceHttpRequestInterceptor {
 	 * Adds HTTP request tags to the client side span
 	 */
 	protected void addRequestTags(HttpRequest request) {
-		this.keysInjector.addRequestTags(request.getURI().toString(),
-				request.getURI().getHost(),
-				request.getURI().getPath(),
-				request.getMethod().name(),
-				request.getHeaders());
+		this.keysInjector.addRequestTags(this.tracer.getCurrentSpan(), request.getURI(),
+				request.getMethod().name(), request.getHeaders());
 	}
 
 	/**
@@ -118,8 +144,11 @@ abstract class AbstractTraceHttpRequestInterceptor {
 		if (!isTracing()) {
 			return;
 		}
-		currentSpan().logEvent(Span.CLIENT_RECV);
-		this.tracer.close(this.currentSpan());
+		Span span = currentSpan();
+		if (span.isExportable()) {
+			span.logEvent(Span.CLIENT_RECV);
+		}
+		this.tracer.close(span);
 	}
 
 	protected Span currentSpan() {
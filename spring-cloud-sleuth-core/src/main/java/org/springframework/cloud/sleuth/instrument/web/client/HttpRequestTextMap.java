@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.SpanTextMap;
 import org.springframework.http.HttpRequest;
 import org.springframework.util.StringUtils;
@@ -32,7 +33,7 @@ import org.springframework.util.StringUtils;
  * @author Marcin Grzejszczak
  * @since 1.2.0
  */
-class HttpRequestTextMap implements SpanTextMap {
+class HttpRequestTextMap implements LookupSpanTextMap {
 
 	private final HttpRequest delegate;
 
@@ -40,6 +41,17 @@ class HttpRequestTextMap implements SpanTextMap {
 		this.delegate = delegate;
 	}
 
+	@Override
+	public String get(String name) {
+		// the headers are case insensitive
+		return this.delegate.getHeaders().getFirst(name);
+	}
+
+	@Override
+	public Iterator<String> names() {
+		return this.delegate.getHeaders().keySet().iterator();
+	}
+
 	@Override
 	public Iterator<Map.Entry<String, String>> iterator() {
 		final Iterator<Map.Entry<String, List<String>>> iterator = this.delegate.getHeaders()
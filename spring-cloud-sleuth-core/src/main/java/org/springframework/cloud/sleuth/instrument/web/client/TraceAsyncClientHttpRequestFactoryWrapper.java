@@ -19,6 +19,7 @@ package org.springframework.cloud.sleuth.instrument.web.client;
 import java.io.IOException;
 import java.net.URI;
 
+import org.springframework.cloud.sleuth.instrument.web.HttpSamplingRules;
 import org.springframework.cloud.sleuth.instrument.web.HttpSpanInjector;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.web.HttpTraceKeysInjector;
@@ -81,7 +82,17 @@ public class TraceAsyncClientHttpRequestFactoryWrapper extends AbstractTraceHttp
 			AsyncClientHttpRequestFactory asyncDelegate,
 			ClientHttpRequestFactory syncDelegate,
 			HttpTraceKeysInjector httpTraceKeysInjector) {
-		super(tracer, spanInjector, httpTraceKeysInjector);
+		this(tracer, spanInjector, asyncDelegate, syncDelegate, httpTraceKeysInjector,
+				HttpSamplingRules.EMPTY);
+	}
+
+	public TraceAsyncClientHttpRequestFactoryWrapper(Tracer tracer,
+			HttpSpanInjector spanInjector,
+			AsyncClientHttpRequestFactory asyncDelegate,
+			ClientHttpRequestFactory syncDelegate,
+			HttpTraceKeysInjector httpTraceKeysInjector,
+			HttpSamplingRules samplingRules) {
+		super(tracer, spanInjector, httpTraceKeysInjector, samplingRules);
 		this.asyncDelegate = asyncDelegate;
 		this.syncDelegate = syncDelegate;
 	}
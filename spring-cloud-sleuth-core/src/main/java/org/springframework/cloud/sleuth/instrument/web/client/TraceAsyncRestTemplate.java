@@ -278,8 +278,11 @@ public class TraceAsyncRestTemplate extends AsyncRestTemplate {
 			if (!isTracing()) {
 				return;
 			}
-			currentSpan().logEvent(Span.CLIENT_RECV);
-			this.tracer.close(currentSpan());
+			Span span = currentSpan();
+			if (span.isExportable()) {
+				span.logEvent(Span.CLIENT_RECV);
+			}
+			this.tracer.close(span);
 		}
 
 		private Span currentSpan() {
@@ -18,6 +18,7 @@ package org.springframework.cloud.sleuth.instrument.web.client;
 
 import org.springframework.cloud.sleuth.ErrorParser;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.web.HttpSamplingRules;
 import org.springframework.cloud.sleuth.instrument.web.HttpSpanInjector;
 import org.springframework.cloud.sleuth.instrument.web.HttpTraceKeysInjector;
 import org.springframework.http.HttpRequest;
@@ -48,6 +49,13 @@ public class TraceRestTemplateInterceptor extends AbstractTraceHttpRequestInterc
 		this.errorParser = errorParser;
 	}
 
+	public TraceRestTemplateInterceptor(Tracer tracer, HttpSpanInjector spanInjector,
+			HttpTraceKeysInjector httpTraceKeysInjector, ErrorParser errorParser,
+			HttpSamplingRules samplingRules) {
+		super(tracer, spanInjector, httpTraceKeysInjector, samplingRules);
+		this.errorParser = errorParser;
+	}
+
 	@Override
 	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
 		throws IOException {
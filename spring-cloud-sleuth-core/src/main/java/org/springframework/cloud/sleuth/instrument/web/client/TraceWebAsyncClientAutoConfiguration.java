@@ -23,9 +23,11 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.sleuth.ErrorParser;
+import org.springframework.cloud.sleuth.instrument.web.HttpSamplingRules;
 import org.springframework.cloud.sleuth.instrument.web.HttpSpanInjector;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.web.HttpTraceKeysInjector;
+import org.springframework.cloud.sleuth.instrument.web.SleuthWebProperties;
 import org.springframework.cloud.sleuth.instrument.web.TraceWebAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,6 +57,7 @@ public class TraceWebAsyncClientAutoConfiguration {
 	@Autowired Tracer tracer;
 	@Autowired private HttpTraceKeysInjector httpTraceKeysInjector;
 	@Autowired private HttpSpanInjector spanInjector;
+	@Autowired private SleuthWebProperties sleuthWebProperties;
 	@Autowired(required = false) private ClientHttpRequestFactory clientHttpRequestFactory;
 	@Autowired(required = false) private AsyncClientHttpRequestFactory asyncClientHttpRequestFactory;
 
@@ -69,7 +72,8 @@ public class TraceWebAsyncClientAutoConfiguration {
 					(AsyncClientHttpRequestFactory) clientFactory : defaultClientHttpRequestFactory(this.tracer);
 		}
 		return new TraceAsyncClientHttpRequestFactoryWrapper(this.tracer, this.spanInjector,
-				asyncClientFactory, clientFactory, this.httpTraceKeysInjector);
+				asyncClientFactory, clientFactory, this.httpTraceKeysInjector,
+				new HttpSamplingRules(this.sleuthWebProperties.getClient().getSamplingRules()));
 	}
 
 	private SimpleClientHttpRequestFactory defaultClientHttpRequestFactory(Tracer tracer) {
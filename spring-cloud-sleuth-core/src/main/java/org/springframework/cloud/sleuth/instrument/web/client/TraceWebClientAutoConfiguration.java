@@ -32,8 +32,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoRestTemplateCustomizer;
 import org.springframework.cloud.sleuth.ErrorParser;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.web.HttpSamplingRules;
 import org.springframework.cloud.sleuth.instrument.web.HttpSpanInjector;
 import org.springframework.cloud.sleuth.instrument.web.HttpTraceKeysInjector;
+import org.springframework.cloud.sleuth.instrument.web.SleuthWebProperties;
 import org.springframework.cloud.sleuth.instrument.web.TraceWebAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -60,9 +62,10 @@ public class TraceWebClientAutoConfiguration {
 	@ConditionalOnMissingBean
 	public TraceRestTemplateInterceptor traceRestTemplateInterceptor(Tracer tracer,
 			HttpSpanInjector spanInjector, HttpTraceKeysInjector httpTraceKeysInjector,
-			ErrorParser errorParser) {
+			ErrorParser errorParser, SleuthWebProperties sleuthWebProperties) {
 		return new TraceRestTemplateInterceptor(tracer, spanInjector,
-				httpTraceKeysInjector, errorParser);
+				httpTraceKeysInjector, errorParser,
+				new HttpSamplingRules(sleuthWebProperties.getClient().getSamplingRules()));
 	}
 
 	@Configuration
@@ -52,23 +52,18 @@ class FeignRequestInjector implements SpanInjector<AtomicReference<Request>> {
 			carrier.set(Request.create(method, url, headers, body, charset));
 			return;
 		}
-		setHeader(headers, Span.TRACE_ID_NAME, Span.idToHex(span.getTraceId()));
+		setHeader(headers, Span.TRACE_ID_NAME, span.traceIdString());
 		setHeader(headers, Span.SPAN_NAME_NAME, span.getName());
-		setHeader(headers, Span.SPAN_ID_NAME, Span.idToHex(span.getSpanId()));
+		setHeader(headers, Span.SPAN_ID_NAME, span.spanIdString());
 		setHeader(headers, Span.SAMPLED_NAME, span.isExportable() ?
 				Span.SPAN_SAMPLED : Span.SPAN_NOT_SAMPLED);
-		Long parentId = getParentId(span);
-		if (parentId != null) {
-			setHeader(headers, Span.PARENT_ID_NAME, Span.idToHex(parentId));
+		if (span.hasParent()) {
+			setHeader(headers, Span.PARENT_ID_NAME, span.parentIdString());
 		}
 		setHeader(headers, Span.PROCESS_ID_NAME, span.getProcessId());
 		carrier.set(Request.create(method, url, headers, body, charset));
 	}
 
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty() ? span.getParents().get(0) : null;
-	}
-
 	protected void setHeader(Map<String, Collection<String>> headers, String name, String value) {
 		if (StringUtils.hasText(value) && !headers.containsKey(name)) {
 			List<String> list = new ArrayList<>();
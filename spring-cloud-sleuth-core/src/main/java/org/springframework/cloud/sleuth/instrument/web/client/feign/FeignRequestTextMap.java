@@ -16,7 +16,6 @@
 
 package org.springframework.cloud.sleuth.instrument.web.client.feign;
 
-import java.nio.charset.Charset;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -26,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.SpanTextMap;
 import org.springframework.util.StringUtils;
 
@@ -37,14 +37,33 @@ import feign.Request;
  * @author Marcin Grzejszczak
  * @since 1.2.0
  */
-class FeignRequestTextMap implements SpanTextMap {
+class FeignRequestTextMap implements LookupSpanTextMap {
 
 	private final AtomicReference<Request> delegate;
+	private Map<String, Collection<String>> headers;
 
 	FeignRequestTextMap(AtomicReference<Request> delegate) {
 		this.delegate = delegate;
 	}
 
+	@Override
+	public String get(String name) {
+		// the header map of a request is case sensitive
+		for (Map.Entry<String, Collection<String>> entry : this.delegate.get().headers()
+				.entrySet()) {
+			if (name.equalsIgnoreCase(entry.getKey())) {
+				Collection<String> value = entry.getValue();
+				return value.isEmpty() ? "" : value.iterator().next();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Iterator<String> names() {
+		return this.delegate.get().headers().keySet().iterator();
+	}
+
 	@Override
 	public Iterator<Map.Entry<String, String>> iterator() {
 		final Iterator<Map.Entry<String, Collection<String>>> iterator = this.delegate.get().headers().entrySet().iterator();
@@ -66,13 +85,14 @@ class FeignRequestTextMap implements SpanTextMap {
 		if (!StringUtils.hasText(value)) {
 			return;
 		}
-		String method = this.delegate.get().method();
-		String url = this.delegate.get().url();
-		Map<String, Collection<String>> headers = new HashMap<>(this.delegate.get().headers());
-		byte[] body = this.delegate.get().body();
-		Charset charset = this.delegate.get().charset();
-		addHeader(key, value, headers);
-		this.delegate.set(Request.create(method, url, headers, body, charset));
+		Request request = this.delegate.get();
+		if (this.headers == null || request.headers() != this.headers) {
+			// copied once, further headers are added to the copy
+			this.headers = new HashMap<>(request.headers());
+		}
+		addHeader(key, value, this.headers);
+		this.delegate.set(Request.create(request.method(), request.url(), this.headers,
+				request.body(), request.charset()));
 	}
 
 	private void addHeader(String key, String value,
@@ -83,8 +83,10 @@ class TraceFeignClient implements Client {
 		try {
 			AtomicReference<Request> feignRequest = new AtomicReference<>(request);
 			spanInjector().inject(span, new FeignRequestTextMap(feignRequest));
-			span.logEvent(Span.CLIENT_SEND);
-			addRequestTags(request);
+			if (span.isExportable()) {
+				span.logEvent(Span.CLIENT_SEND);
+				addRequestTags(request);
+			}
 			Request modifiedRequest = feignRequest.get();
 			if (log.isDebugEnabled()) {
 				log.debug("The modified request equals " + modifiedRequest);
@@ -144,7 +146,7 @@ class TraceFeignClient implements Client {
 
 	private void logCr() {
 		Span span = getTracer().getCurrentSpan();
-		if (span != null) {
+		if (span != null && span.isExportable()) {
 			if (log.isDebugEnabled()) {
 				log.debug("Closing Feign span and logging CR " + span);
 			}
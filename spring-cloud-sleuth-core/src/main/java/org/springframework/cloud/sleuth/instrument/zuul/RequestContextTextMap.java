@@ -21,6 +21,7 @@ import java.util.Map;
 
 import com.netflix.zuul.context.RequestContext;
 
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.SpanTextMap;
 
 /**
@@ -29,7 +30,7 @@ import org.springframework.cloud.sleuth.SpanTextMap;
  * @author Marcin Grzejszczak
  * @since 1.2.0
  */
-class RequestContextTextMap implements SpanTextMap {
+class RequestContextTextMap implements LookupSpanTextMap {
 
 	private final RequestContext carrier;
 
@@ -37,6 +38,27 @@ class RequestContextTextMap implements SpanTextMap {
 		this.carrier = carrier;
 	}
 
+	@Override
+	public String get(String name) {
+		Map<String, String> headers = this.carrier.getZuulRequestHeaders();
+		String value = headers.get(name);
+		if (value != null) {
+			return value;
+		}
+		// Zuul lower cases the names of the headers it adds itself
+		for (Map.Entry<String, String> entry : headers.entrySet()) {
+			if (name.equalsIgnoreCase(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Iterator<String> names() {
+		return this.carrier.getZuulRequestHeaders().keySet().iterator();
+	}
+
 	@Override
 	public Iterator<Map.Entry<String, String>> iterator() {
 		return this.carrier.getZuulRequestHeaders().entrySet().iterator();
@@ -69,19 +69,14 @@ abstract class SpanInjectingRibbonRequestCustomizer<T> implements RibbonRequestC
 		carrier.put(Span.SAMPLED_NAME, span.isExportable() ?
 				Span.SPAN_SAMPLED : Span.SPAN_NOT_SAMPLED);
 		carrier.put(Span.TRACE_ID_NAME, span.traceIdString());
-		carrier.put(Span.SPAN_ID_NAME, Span.idToHex(span.getSpanId()));
+		carrier.put(Span.SPAN_ID_NAME, span.spanIdString());
 		carrier.put(Span.SPAN_NAME_NAME, span.getName());
-		if (getParentId(span) != null) {
-			carrier.put(Span.PARENT_ID_NAME, Span.idToHex(getParentId(span)));
+		if (span.hasParent()) {
+			carrier.put(Span.PARENT_ID_NAME, span.parentIdString());
 		}
 		carrier.put(Span.PROCESS_ID_NAME, span.getProcessId());
 	}
 
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty()
-				? span.getParents().get(0) : null;
-	}
-
 	private Span getCurrentSpan() {
 		return this.tracer.getCurrentSpan();
 	}
@@ -45,19 +45,19 @@ public class Slf4jSpanLogger implements SpanLogger {
 
 	@Override
 	public void logStartedSpan(Span parent, Span span) {
-		MDC.put(Span.SPAN_ID_NAME, Span.idToHex(span.getSpanId()));
+		MDC.put(Span.SPAN_ID_NAME, span.spanIdString());
 		MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(span.isExportable()));
 		MDC.put(Span.TRACE_ID_NAME, span.traceIdString());
 		log("Starting span: {}", span);
 		if (parent != null) {
 			log("With parent: {}", parent);
-			MDC.put(Span.PARENT_ID_NAME, Span.idToHex(parent.getSpanId()));
+			MDC.put(Span.PARENT_ID_NAME, parent.spanIdString());
 		}
 	}
 
 	@Override
 	public void logContinuedSpan(Span span) {
-		MDC.put(Span.SPAN_ID_NAME, Span.idToHex(span.getSpanId()));
+		MDC.put(Span.SPAN_ID_NAME, span.spanIdString());
 		MDC.put(Span.TRACE_ID_NAME, span.traceIdString());
 		MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(span.isExportable()));
 		setParentIdIfPresent(span);
@@ -65,8 +65,8 @@ public class Slf4jSpanLogger implements SpanLogger {
 	}
 
 	private void setParentIdIfPresent(Span span) {
-		if (!span.getParents().isEmpty()) {
-			MDC.put(Span.PARENT_ID_NAME, Span.idToHex(span.getParents().get(0)));
+		if (span.hasParent()) {
+			MDC.put(Span.PARENT_ID_NAME, span.parentIdString());
 		}
 	}
 
@@ -77,7 +77,7 @@ public class Slf4jSpanLogger implements SpanLogger {
 		}
 		if (span != null && parent != null) {
 			log("With parent: {}", parent);
-			MDC.put(Span.SPAN_ID_NAME, Span.idToHex(parent.getSpanId()));
+			MDC.put(Span.SPAN_ID_NAME, parent.spanIdString());
 			MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(parent.isExportable()));
 			setParentIdIfPresent(parent);
 		}
@@ -90,12 +90,13 @@ public class Slf4jSpanLogger implements SpanLogger {
 	}
 
 	private void log(String text, Span span) {
-		if (span != null && this.nameSkipPattern.matcher(span.getName()).matches()) {
+		if (!this.log.isTraceEnabled()) {
 			return;
 		}
-		if (this.log.isTraceEnabled()) {
-			this.log.trace(text, span);
+		if (span != null && this.nameSkipPattern.matcher(span.getName()).matches()) {
+			return;
 		}
+		this.log.trace(text, span);
 	}
 
 }
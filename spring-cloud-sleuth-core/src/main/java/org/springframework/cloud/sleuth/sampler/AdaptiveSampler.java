@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * {@link Sampler} that lowers the sampling rate of the delegate when the span
+ * reporter can't keep up, and recovers once the pressure eases. That way no spans
+ * are created and converted only to be dropped by the reporter afterwards.
+ *
+ * @since 1.3.0
+ * @see ReporterBackPressure
+ */
+public class AdaptiveSampler implements Sampler {
+
+	private final Sampler delegate;
+	private final ReporterBackPressure backPressure;
+
+	public AdaptiveSampler(Sampler delegate, ReporterBackPressure backPressure) {
+		this.delegate = delegate;
+		this.backPressure = backPressure;
+	}
+
+	@Override
+	public boolean isSampled(Span currentSpan) {
+		if (currentSpan == null || !this.backPressure.admits(currentSpan)) {
+			return false;
+		}
+		return this.delegate.isSampled(currentSpan);
+	}
+}
@@ -19,6 +19,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p>This counts to see how many out of 100 traces should be retained. This means that it is
  * accurate in units of 100 traces.
  *
+ * <p>All threads synchronize on the sampler to make a decision. Prefer the
+ * {@link ProbabilityBasedSampler} when many threads start traces or when a precision
+ * finer than 1% is required.
+ *
  * @author Marcin Grzejszczak
  * @author Adrian Cole
  * @since 1.0.0
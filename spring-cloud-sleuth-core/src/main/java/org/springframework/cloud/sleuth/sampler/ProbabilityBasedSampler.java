@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Lock free counterpart of {@link PercentageBasedSampler} that supports a precision
+ * of up to 6 decimal places (e.g. {@code 0.0001} samples 0.01% of the traces).
+ * Like the {@link PercentageBasedSampler} it's not appropriate for collectors as the
+ * sampling decision isn't consistent based on trace id.
+ *
+ * <h3>Implementation</h3>
+ *
+ * <p>The decisions are precomputed in a random bit set whose size depends on the
+ * precision of the percentage (100 bits for whole percents, 10000 bits for 0.01%
+ * and so on). Instead of a single synchronized counter, every thread picks one of a
+ * few padded counters (a stripe) and walks the bit set with it, starting from a
+ * random offset. That way the sampler is accurate in units of the bit set size per
+ * stripe and threads don't block each other.
+ *
+ * @since 1.3.0
+ */
+public class ProbabilityBasedSampler implements Sampler {
+
+	static final int MAX_PRECISION = 6;
+
+	// 128 bytes between two counters so that they don't share a cache line
+	private static final int PADDING = 16;
+
+	private final SamplerProperties configuration;
+	private final BitSet sampleDecisions;
+	private final int outOf;
+	private final AtomicLongArray counters;
+	private final int stripeMask;
+
+	public ProbabilityBasedSampler(SamplerProperties configuration) {
+		this.configuration = configuration;
+		BigDecimal percentage = new BigDecimal(Float.toString(configuration.getPercentage()));
+		int precision = Math.min(Math.max(percentage.stripTrailingZeros().scale(), 2),
+				MAX_PRECISION);
+		this.outOf = BigDecimal.TEN.pow(precision).intValue();
+		int sampled = percentage.movePointRight(precision)
+				.setScale(0, RoundingMode.HALF_UP).intValue();
+		Random random = new Random();
+		this.sampleDecisions = PercentageBasedSampler.randomBitSet(this.outOf,
+				Math.max(0, Math.min(sampled, this.outOf)), random);
+		int stripes = stripes();
+		this.stripeMask = stripes - 1;
+		this.counters = new AtomicLongArray(stripes * PADDING);
+		for (int i = 0; i < stripes; i++) {
+			this.counters.set(i * PADDING, random.nextInt(this.outOf));
+		}
+	}
+
+	@Override
+	public boolean isSampled(Span currentSpan) {
+		float percentage = this.configuration.getPercentage();
+		if (percentage == 0 || currentSpan == null) {
+			return false;
+		} else if (percentage == 1.0f) {
+			return true;
+		}
+		int stripe = (int) Thread.currentThread().getId() & this.stripeMask;
+		long i = this.counters.getAndIncrement(stripe * PADDING);
+		return this.sampleDecisions.get((int) (i % this.outOf));
+	}
+
+	/**
+	 * Power of two that is not lower than the number of available processors
+	 */
+	private static int stripes() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * {@link Sampler} that samples at most {@link SamplerProperties#getRate()} traces
+ * per second, regardless of the amount of traffic the JVM receives. Like the
+ * {@link ProbabilityBasedSampler} the decision isn't consistent based on trace id.
+ *
+ * <h3>Implementation</h3>
+ *
+ * <p>A lock free token bucket that gets refilled every second. The thread that is
+ * first to notice that the second has passed moves the next reset time forward
+ * (via compare and set) and refills the bucket. Other threads only ever take
+ * tokens. A few extra traces might get sampled by threads racing with the refill,
+ * which is fine for the purpose of protecting the tracing system from spikes.
+ *
+ * @since 1.3.0
+ */
+public class RateLimitingSampler implements Sampler {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final SamplerProperties configuration;
+	private final AtomicInteger usage = new AtomicInteger();
+	private final AtomicLong nextReset;
+
+	public RateLimitingSampler(SamplerProperties configuration) {
+		this.configuration = configuration;
+		this.nextReset = new AtomicLong(nanoTime() + NANOS_PER_SECOND);
+	}
+
+	@Override
+	public boolean isSampled(Span currentSpan) {
+		Integer rate = this.configuration.getRate();
+		if (currentSpan == null || rate == null || rate <= 0) {
+			return false;
+		}
+		long now = nanoTime();
+		long resetAt = this.nextReset.get();
+		// difference instead of comparison as nano time can overflow
+		if (now - resetAt >= 0 && this.nextReset.compareAndSet(resetAt, now + NANOS_PER_SECOND)) {
+			this.usage.set(0);
+		}
+		if (this.usage.get() >= rate) {
+			// avoids contended writes and overflow once the bucket is empty
+			return false;
+		}
+		return this.usage.incrementAndGet() <= rate;
+	}
+
+	long nanoTime() {
+		return System.nanoTime();
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Collects the signals of a span reporter being overloaded (dropped spans and the
+ * usage of its queue) and turns them into the fraction of new traces that an
+ * {@link AdaptiveSampler} lets through.
+ *
+ * <p>Once a second, on the first sampling decision after that time, the fraction
+ * is halved if any spans got dropped or the queue was at least 75% full, and
+ * grows by 10% of all traces once the queue is at most 25% full. It never gets
+ * below {@value #MIN_RATIO}. Traces are let through based on their trace id, like
+ * in the {@link TraceIdBasedSampler}, so a decision costs a shift and a
+ * comparison. The state outlives the samplers, so it's kept when a refresh scoped
+ * sampler gets recreated.
+ *
+ * @since 1.3.0
+ */
+public class ReporterBackPressure {
+
+	static final float MIN_RATIO = 0.01f;
+
+	private static final long ADJUSTMENT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	private static final float HIGH_WATERMARK = 0.75f;
+	private static final float LOW_WATERMARK = 0.25f;
+	private static final float RECOVERY_STEP = 0.1f;
+
+	private final AtomicLong droppedSpans = new AtomicLong();
+	private final AtomicLong nextAdjustment;
+	private volatile float queueUsage;
+	private volatile float ratio = 1.0f;
+	private volatile long threshold = Long.MAX_VALUE;
+
+	public ReporterBackPressure() {
+		this.nextAdjustment = new AtomicLong(nanoTime() + ADJUSTMENT_INTERVAL);
+	}
+
+	/**
+	 * Called by the reporter when spans got dropped, e.g. due to a full queue
+	 */
+	public void spansDropped(long quantity) {
+		this.droppedSpans.addAndGet(quantity);
+	}
+
+	/**
+	 * Called by the reporter with the current number of queued spans
+	 */
+	public void queuedSpans(int queued, int capacity) {
+		this.queueUsage = capacity > 0 ? (float) queued / capacity : 0f;
+	}
+
+	/**
+	 * Whether a new trace should be let through given the current pressure
+	 */
+	public boolean admits(Span span) {
+		adjust(nanoTime());
+		return (span.getTraceId() >>> 1) <= this.threshold;
+	}
+
+	/**
+	 * Fraction of the new traces that are currently let through
+	 */
+	public float getRatio() {
+		return this.ratio;
+	}
+
+	private void adjust(long now) {
+		long adjustAt = this.nextAdjustment.get();
+		if (now - adjustAt < 0
+				|| !this.nextAdjustment.compareAndSet(adjustAt, now + ADJUSTMENT_INTERVAL)) {
+			return;
+		}
+		long dropped = this.droppedSpans.getAndSet(0);
+		float usage = this.queueUsage;
+		float ratio = this.ratio;
+		if (dropped > 0 || usage >= HIGH_WATERMARK) {
+			ratio = Math.max(MIN_RATIO, ratio / 2);
+		}
+		else if (usage <= LOW_WATERMARK && ratio < 1.0f) {
+			ratio = Math.min(1.0f, ratio + RECOVERY_STEP);
+		}
+		if (ratio != this.ratio) {
+			this.ratio = ratio;
+			this.threshold = TraceIdBasedSampler.threshold(ratio);
+		}
+	}
+
+	long nanoTime() {
+		return System.nanoTime();
+	}
+}
@@ -14,11 +14,24 @@ public class SamplerProperties {
 
 	/**
 	 * Percentage of requests that should be sampled. E.g. 1.0 - 100% requests should be
-	 * sampled. The precision is whole-numbers only (i.e. there's no support for 0.1% of
-	 * the traces).
+	 * sampled. The {@link ProbabilityBasedSampler} supports a precision of up to 6
+	 * decimal places (e.g. 0.0001 - 0.01% requests should be sampled), the
+	 * {@link PercentageBasedSampler} supports whole percents only.
 	 */
 	private float percentage = 0.1f;
 
+	/**
+	 * Maximum number of traces per second that should be sampled by this JVM. When
+	 * set, a {@link RateLimitingSampler} is used instead of the percentage based one.
+	 */
+	private Integer rate;
+
+	/**
+	 * When true, the sampling rate gets lowered while the span reporter drops spans
+	 * or its queue fills up, and recovers once the pressure eases.
+	 */
+	private boolean adaptive = true;
+
 	public float getPercentage() {
 		return this.percentage;
 	}
@@ -26,4 +39,20 @@ public class SamplerProperties {
 	public void setPercentage(float percentage) {
 		this.percentage = percentage;
 	}
+
+	public Integer getRate() {
+		return this.rate;
+	}
+
+	public void setRate(Integer rate) {
+		this.rate = rate;
+	}
+
+	public boolean isAdaptive() {
+		return this.adaptive;
+	}
+
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.sleuth.SpanReporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration Auto-configuration}
+ * that enables tail based sampling via {@link TailSamplingSpanReporter} when
+ * {@code spring.sleuth.sampler.tail.enabled} is set to {@code true}
+ *
+ * @since 1.3.0
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.sleuth.sampler.tail.enabled")
+@EnableConfigurationProperties(TailSamplingProperties.class)
+public class TailSamplingAutoConfiguration {
+
+	@Bean
+	public static TailSamplingSpanReporterBeanPostProcessor tailSamplingSpanReporterBeanPostProcessor(
+			BeanFactory beanFactory) {
+		return new TailSamplingSpanReporterBeanPostProcessor(beanFactory);
+	}
+
+	@Configuration
+	@ConditionalOnClass(PublicMetrics.class)
+	protected static class TailSamplingMetricsConfiguration {
+
+		@Bean
+		public PublicMetrics tailSamplingPublicMetrics(final SpanReporter spanReporter) {
+			return new PublicMetrics() {
+				@Override
+				public Collection<Metric<?>> metrics() {
+					List<Metric<?>> metrics = new ArrayList<>();
+					if (spanReporter instanceof TailSamplingSpanReporter) {
+						TailSamplingSpanReporter reporter = (TailSamplingSpanReporter) spanReporter;
+						metrics.add(new Metric<>("gauge.sleuth.tail.spans.buffered", reporter.getBufferedSpans()));
+						metrics.add(new Metric<>("counter.sleuth.tail.traces.kept", reporter.getKeptTraces()));
+						metrics.add(new Metric<>("counter.sleuth.tail.traces.dropped", reporter.getDroppedTraces()));
+						metrics.add(new Metric<>("counter.sleuth.tail.traces.evicted", reporter.getEvictedTraces()));
+						metrics.add(new Metric<>("counter.sleuth.tail.traces.expired", reporter.getExpiredTraces()));
+					}
+					return metrics;
+				}
+			};
+		}
+	}
+}
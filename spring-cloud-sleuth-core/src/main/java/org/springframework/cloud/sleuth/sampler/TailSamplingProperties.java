@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties related to tail based sampling
+ *
+ * @since 1.3.0
+ */
+@ConfigurationProperties("spring.sleuth.sampler.tail")
+public class TailSamplingProperties {
+
+	/**
+	 * When true, finished spans are buffered per trace and forwarded for reporting
+	 * only if the local part of the trace contains an error, is slow or gets picked
+	 * by the base rate
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Fraction of the traces without errors and below the latency threshold that
+	 * should be kept, from 0.0 to 1.0
+	 */
+	private float percentage = 0.1f;
+
+	/**
+	 * Traces with a span lasting at least that many milliseconds are always kept
+	 */
+	private long latencyThreshold = 1000;
+
+	/**
+	 * Maximum number of spans buffered in total. When reached, the trace of the
+	 * incoming span gets evicted, i.e. decided upon right away
+	 */
+	private int maxSpans = 10000;
+
+	/**
+	 * Maximum number of spans buffered per trace. When reached, the trace gets
+	 * evicted, i.e. decided upon right away
+	 */
+	private int maxSpansPerTrace = 1000;
+
+	/**
+	 * Time in milliseconds after which a trace whose local root span didn't finish
+	 * gets decided upon with the spans buffered so far
+	 */
+	private long traceTimeout = 30000;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public float getPercentage() {
+		return this.percentage;
+	}
+
+	public void setPercentage(float percentage) {
+		this.percentage = percentage;
+	}
+
+	public long getLatencyThreshold() {
+		return this.latencyThreshold;
+	}
+
+	public void setLatencyThreshold(long latencyThreshold) {
+		this.latencyThreshold = latencyThreshold;
+	}
+
+	public int getMaxSpans() {
+		return this.maxSpans;
+	}
+
+	public void setMaxSpans(int maxSpans) {
+		this.maxSpans = maxSpans;
+	}
+
+	public int getMaxSpansPerTrace() {
+		return this.maxSpansPerTrace;
+	}
+
+	public void setMaxSpansPerTrace(int maxSpansPerTrace) {
+		this.maxSpansPerTrace = maxSpansPerTrace;
+	}
+
+	public long getTraceTimeout() {
+		return this.traceTimeout;
+	}
+
+	public void setTraceTimeout(long traceTimeout) {
+		this.traceTimeout = traceTimeout;
+	}
+}
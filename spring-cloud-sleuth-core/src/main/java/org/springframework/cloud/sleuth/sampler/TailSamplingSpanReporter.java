@@ -0,0 +1,388 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanReporter;
+
+/**
+ * {@link SpanReporter} that buffers the finished spans of a trace and decides
+ * whether to pass them to the delegate once the local root span of the trace
+ * (the one that didn't have a parent in this thread context, e.g. the server
+ * span) finishes. A trace is kept if any of its spans has an
+ * {@link Span#SPAN_ERROR_TAG_NAME error} tag, lasted at least
+ * {@link TailSamplingProperties#getLatencyThreshold()} or if it gets picked by the
+ * {@link TraceIdBasedSampler base rate}. Since the decision is made after the
+ * spans are finished, the spans have to be sampled in the first place - use e.g.
+ * {@link AlwaysSampler} as the {@link Sampler}.
+ *
+ * <p>The memory is bounded by {@link TailSamplingProperties#getMaxSpans()} and
+ * {@link TailSamplingProperties#getMaxSpansPerTrace()}. When a bound would be
+ * exceeded the trace of the incoming span is evicted, i.e. decided upon with the
+ * spans buffered so far. Traces whose local root doesn't finish within
+ * {@link TailSamplingProperties#getTraceTimeout()} expire the same way. Expired
+ * traces are looked for at most once a second, by the thread reporting a span and,
+ * once {@link #startExpiry() started}, by a background thread so that they expire
+ * when no spans get reported as well. The verdicts of the most recently decided
+ * traces are remembered, so that spans finishing after their trace got decided
+ * upon (e.g. async work) get the same verdict right away. The buffered traces are
+ * decided upon when the reporter is destroyed.
+ *
+ * @since 1.3.0
+ */
+public class TailSamplingSpanReporter implements SpanReporter, DisposableBean {
+
+	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+
+	private static final long EXPIRY_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	static final int MAX_VERDICTS = 10000;
+
+	private final SpanReporter delegate;
+	private final Sampler baseRate;
+	private final long latencyThresholdMicros;
+	private final int maxSpans;
+	private final int maxSpansPerTrace;
+	private final long traceTimeoutNanos;
+	private final ConcurrentMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+	private final AtomicInteger bufferedSpans = new AtomicInteger();
+	private final AtomicLong nextExpiryCheck;
+	private final ConcurrentMap<Long, Boolean> verdicts = new ConcurrentHashMap<>();
+	private final Queue<Long> verdictOrder = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger verdictCount = new AtomicInteger();
+	private final AtomicLong keptTraces = new AtomicLong();
+	private final AtomicLong droppedTraces = new AtomicLong();
+	private final AtomicLong evictedTraces = new AtomicLong();
+	private final AtomicLong expiredTraces = new AtomicLong();
+	private volatile ScheduledExecutorService expiryExecutor;
+
+	public TailSamplingSpanReporter(SpanReporter delegate,
+			TailSamplingProperties properties) {
+		this.delegate = delegate;
+		this.baseRate = new TraceIdBasedSampler(properties.getPercentage());
+		this.latencyThresholdMicros = TimeUnit.MILLISECONDS
+				.toMicros(properties.getLatencyThreshold());
+		this.maxSpans = properties.getMaxSpans();
+		this.maxSpansPerTrace = properties.getMaxSpansPerTrace();
+		this.traceTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getTraceTimeout());
+		this.nextExpiryCheck = new AtomicLong(nanoTime() + EXPIRY_CHECK_INTERVAL);
+	}
+
+	@Override
+	public void report(Span span) {
+		if (!span.isExportable()) {
+			this.delegate.report(span);
+			return;
+		}
+		long now = nanoTime();
+		expireFragments(now);
+		Long traceId = span.getTraceId();
+		if (isLocalRoot(span)) {
+			decide(traceId, span, this.fragments.remove(traceId));
+			return;
+		}
+		Boolean verdict = this.verdicts.get(traceId);
+		if (verdict != null) {
+			// the trace got decided upon before the span finished
+			reportIfKept(span, verdict);
+			return;
+		}
+		if (this.bufferedSpans.incrementAndGet() > this.maxSpans) {
+			this.bufferedSpans.decrementAndGet();
+			evict(span, traceId, this.fragments.remove(traceId));
+			return;
+		}
+		Fragment fragment = this.fragments.get(traceId);
+		if (fragment == null) {
+			Fragment newFragment = new Fragment(now);
+			fragment = this.fragments.putIfAbsent(traceId, newFragment);
+			if (fragment == null) {
+				fragment = newFragment;
+			}
+		}
+		switch (fragment.add(span, this.maxSpansPerTrace)) {
+		case FULL:
+			this.bufferedSpans.decrementAndGet();
+			// only the full fragment may be removed, not a newer one of the same trace
+			this.fragments.remove(traceId, fragment);
+			evict(span, traceId, fragment);
+			break;
+		case DECIDED:
+			// got decided upon in the meantime, the span gets the same verdict
+			this.bufferedSpans.decrementAndGet();
+			reportIfKept(span, fragment.kept());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Decides upon all the buffered traces, e.g. before shutting down
+	 */
+	public void flush() {
+		for (Map.Entry<Long, Fragment> entry : this.fragments.entrySet()) {
+			if (this.fragments.remove(entry.getKey(), entry.getValue())) {
+				decide(entry.getKey(), null, entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Starts a daemon thread that looks for expired traces once a second, so that
+	 * they expire even if no spans get reported
+	 */
+	public synchronized void startExpiry() {
+		if (this.expiryExecutor != null) {
+			return;
+		}
+		this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "sleuth-tail-sampling-expiry");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.expiryExecutor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					expireFragments(nanoTime());
+				}
+				catch (Exception e) {
+					log.warn("Exception occurred while expiring the buffered traces", e);
+				}
+			}
+		}, EXPIRY_CHECK_INTERVAL, EXPIRY_CHECK_INTERVAL, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stops the expiry thread and decides upon the buffered traces before the
+	 * delegate gets destroyed
+	 */
+	@Override
+	public void destroy() throws Exception {
+		synchronized (this) {
+			if (this.expiryExecutor != null) {
+				this.expiryExecutor.shutdownNow();
+				this.expiryExecutor = null;
+			}
+		}
+		flush();
+		if (this.delegate instanceof DisposableBean) {
+			((DisposableBean) this.delegate).destroy();
+		}
+	}
+
+	/**
+	 * A span is the local root of its trace if it was not started as the child of
+	 * a span of the same trace in this process
+	 */
+	private boolean isLocalRoot(Span span) {
+		Span saved = span.getSavedSpan();
+		return saved == null || saved.getTraceId() != span.getTraceId();
+	}
+
+	private void evict(Span span, Long traceId, Fragment fragment) {
+		this.evictedTraces.incrementAndGet();
+		if (log.isDebugEnabled()) {
+			log.debug("Evicting trace [" + span.traceIdString() + "] from the tail sampling buffer");
+		}
+		decide(traceId, span, fragment);
+	}
+
+	void expireFragments(long now) {
+		long checkAt = this.nextExpiryCheck.get();
+		if (now - checkAt < 0
+				|| !this.nextExpiryCheck.compareAndSet(checkAt, now + EXPIRY_CHECK_INTERVAL)) {
+			return;
+		}
+		for (Map.Entry<Long, Fragment> entry : this.fragments.entrySet()) {
+			Fragment fragment = entry.getValue();
+			if (now - fragment.startNanos >= this.traceTimeoutNanos
+					&& this.fragments.remove(entry.getKey(), fragment)) {
+				this.expiredTraces.incrementAndGet();
+				decide(entry.getKey(), null, fragment);
+			}
+		}
+	}
+
+	private void decide(Long traceId, Span span, Fragment fragment) {
+		List<Span> spans = (fragment != null ? fragment : new Fragment(0L))
+				.decide(traceId, span);
+		for (Span each : spans) {
+			this.delegate.report(each);
+		}
+	}
+
+	private void reportIfKept(Span span, boolean kept) {
+		if (kept) {
+			this.delegate.report(span);
+		}
+	}
+
+	private boolean shouldKeep(Long traceId, List<Span> spans) {
+		if (Boolean.TRUE.equals(this.verdicts.get(traceId))) {
+			// another local part of the trace got kept
+			return true;
+		}
+		for (Span span : spans) {
+			if (span.tags().containsKey(Span.SPAN_ERROR_TAG_NAME)
+					|| span.getAccumulatedMicros() >= this.latencyThresholdMicros) {
+				return true;
+			}
+		}
+		return this.baseRate.isSampled(spans.get(0));
+	}
+
+	private void rememberVerdict(Long traceId, boolean kept) {
+		if (this.verdicts.put(traceId, kept) != null) {
+			return;
+		}
+		this.verdictOrder.offer(traceId);
+		if (this.verdictCount.incrementAndGet() > MAX_VERDICTS) {
+			Long oldest = this.verdictOrder.poll();
+			if (oldest != null) {
+				this.verdicts.remove(oldest);
+				this.verdictCount.decrementAndGet();
+			}
+		}
+	}
+
+	long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Number of spans that are currently buffered
+	 */
+	public int getBufferedSpans() {
+		return this.bufferedSpans.get();
+	}
+
+	/**
+	 * Number of traces whose spans got passed for reporting
+	 */
+	public long getKeptTraces() {
+		return this.keptTraces.get();
+	}
+
+	/**
+	 * Number of traces whose spans got discarded
+	 */
+	public long getDroppedTraces() {
+		return this.droppedTraces.get();
+	}
+
+	/**
+	 * Number of traces decided upon before their local root finished, because the
+	 * buffer was full
+	 */
+	public long getEvictedTraces() {
+		return this.evictedTraces.get();
+	}
+
+	/**
+	 * Number of traces decided upon before their local root finished, because it
+	 * took longer than the trace timeout
+	 */
+	public long getExpiredTraces() {
+		return this.expiredTraces.get();
+	}
+
+	private enum Added {
+		YES, FULL, DECIDED
+	}
+
+	/**
+	 * Finished spans of the local part of a trace
+	 */
+	private final class Fragment {
+
+		final long startNanos;
+		private List<Span> spans = new ArrayList<>();
+		private boolean kept;
+
+		Fragment(long startNanos) {
+			this.startNanos = startNanos;
+		}
+
+		synchronized Added add(Span span, int maxSpans) {
+			if (this.spans == null) {
+				return Added.DECIDED;
+			}
+			if (this.spans.size() >= maxSpans) {
+				return Added.FULL;
+			}
+			this.spans.add(span);
+			return Added.YES;
+		}
+
+		synchronized boolean kept() {
+			return this.kept;
+		}
+
+		/**
+		 * Decides upon the buffered spans together with the passed one and returns the
+		 * spans to report. Once decided, no spans can be added and a passed span only
+		 * gets the verdict.
+		 */
+		synchronized List<Span> decide(Long traceId, Span span) {
+			if (this.spans == null) {
+				return this.kept && span != null ? Collections.singletonList(span)
+						: Collections.<Span>emptyList();
+			}
+			List<Span> spans = this.spans;
+			this.spans = null;
+			TailSamplingSpanReporter.this.bufferedSpans.addAndGet(-spans.size());
+			if (span != null) {
+				spans.add(span);
+			}
+			if (spans.isEmpty()) {
+				return spans;
+			}
+			this.kept = shouldKeep(traceId, spans);
+			rememberVerdict(traceId, this.kept);
+			if (this.kept) {
+				TailSamplingSpanReporter.this.keptTraces.incrementAndGet();
+				return spans;
+			}
+			TailSamplingSpanReporter.this.droppedTraces.incrementAndGet();
+			return Collections.emptyList();
+		}
+	}
+}
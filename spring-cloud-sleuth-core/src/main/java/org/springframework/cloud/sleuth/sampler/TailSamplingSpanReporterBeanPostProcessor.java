@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.lang.invoke.MethodHandles;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.sleuth.SpanReporter;
+
+/**
+ * Bean post processor that wraps the {@link SpanReporter} in a
+ * {@link TailSamplingSpanReporter}, so that all spans reported for collection go
+ * through the tail sampling buffer. Since the wrapper replaces the bean, it's the one
+ * that gets destroyed, which flushes the buffer and destroys the wrapped reporter.
+ *
+ * @since 1.3.0
+ */
+class TailSamplingSpanReporterBeanPostProcessor implements BeanPostProcessor {
+
+	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+
+	private final BeanFactory beanFactory;
+
+	TailSamplingSpanReporterBeanPostProcessor(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName)
+			throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName)
+			throws BeansException {
+		if (bean instanceof SpanReporter && !(bean instanceof TailSamplingSpanReporter)) {
+			if (log.isDebugEnabled()) {
+				log.debug("Wrapping bean [" + beanName + "] of type [" + bean.getClass().getSimpleName() +
+						"] in its tail sampling representation");
+			}
+			TailSamplingSpanReporter reporter = new TailSamplingSpanReporter(
+					(SpanReporter) bean, this.beanFactory.getBean(TailSamplingProperties.class));
+			reporter.startExpiry();
+			return reporter;
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * {@link Sampler} that samples {@link SamplerProperties#getPercentage()} of the
+ * traces deciding from the trace id alone. Since the trace id is random, comparing
+ * its upper 63 bits with a threshold samples the expected fraction of traces. Each
+ * service configured with the same percentage comes to the same verdict for the
+ * same trace, even if it starts a new root span for it (e.g. for a message without
+ * sampling headers), so the traces don't end up partial.
+ *
+ * <p>The threshold is computed once, the decision is a shift and a comparison.
+ * Only the lower 64 bits of the trace id are used, as the upper ones of a 128-bit
+ * trace id might not be random.
+ *
+ * @since 1.3.0
+ */
+public class TraceIdBasedSampler implements Sampler {
+
+	private final long threshold;
+
+	public TraceIdBasedSampler(SamplerProperties configuration) {
+		this(configuration.getPercentage());
+	}
+
+	public TraceIdBasedSampler(float percentage) {
+		if (percentage < 0.0f || percentage > 1.0f) {
+			throw new IllegalArgumentException(
+					"The percentage must be between 0.0 and 1.0 but was [" + percentage + "]");
+		}
+		this.threshold = threshold(percentage);
+	}
+
+	static long threshold(float percentage) {
+		if (percentage == 0.0f) {
+			return Long.MIN_VALUE;
+		}
+		else if (percentage == 1.0f) {
+			return Long.MAX_VALUE;
+		}
+		return (long) (Long.MAX_VALUE * (double) percentage);
+	}
+
+	@Override
+	public boolean isSampled(Span currentSpan) {
+		if (currentSpan == null) {
+			return false;
+		}
+		// unsigned shift, so that all ids map to 0 - Long.MAX_VALUE
+		return (currentSpan.getTraceId() >>> 1) <= this.threshold;
+	}
+}
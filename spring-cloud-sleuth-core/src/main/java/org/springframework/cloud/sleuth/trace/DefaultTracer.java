@@ -22,8 +22,12 @@ import java.util.concurrent.Callable;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.sleuth.IdGenerator;
+import org.springframework.cloud.sleuth.RandomIdGenerator;
 import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.ScopedTracer;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.TraceKeys;
@@ -31,6 +35,7 @@ import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.async.SpanContinuingTraceCallable;
 import org.springframework.cloud.sleuth.instrument.async.SpanContinuingTraceRunnable;
 import org.springframework.cloud.sleuth.log.SpanLogger;
+import org.springframework.cloud.sleuth.sampler.NeverSampler;
 import org.springframework.cloud.sleuth.util.ExceptionUtils;
 import org.springframework.cloud.sleuth.util.SpanNameUtil;
 
@@ -40,13 +45,13 @@ import org.springframework.cloud.sleuth.util.SpanNameUtil;
  * @author Spencer Gibb
  * @since 1.0.0
  */
-public class DefaultTracer implements Tracer {
+public class DefaultTracer implements ScopedTracer {
 
 	private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
 
 	private final Sampler defaultSampler;
 
-	private final Random random;
+	private final IdGenerator idGenerator;
 
 	private final SpanNamer spanNamer;
 
@@ -58,21 +63,62 @@ public class DefaultTracer implements Tracer {
 
 	private final boolean traceId128;
 
+	private final int maxContextDepth;
+
+	/**
+	 * @deprecated use {@link #DefaultTracer(Sampler, IdGenerator, SpanNamer, SpanLogger, SpanReporter, TraceKeys)}
+	 */
+	@Deprecated
 	public DefaultTracer(Sampler defaultSampler, Random random, SpanNamer spanNamer,
 				SpanLogger spanLogger, SpanReporter spanReporter, TraceKeys traceKeys) {
 		this(defaultSampler, random, spanNamer, spanLogger, spanReporter, false, traceKeys);
 	}
 
+	/**
+	 * @deprecated use {@link #DefaultTracer(Sampler, IdGenerator, SpanNamer, SpanLogger, SpanReporter, boolean, TraceKeys)}
+	 */
+	@Deprecated
 	public DefaultTracer(Sampler defaultSampler, Random random, SpanNamer spanNamer,
 				SpanLogger spanLogger, SpanReporter spanReporter, boolean traceId128,
 			TraceKeys traceKeys) {
+		this(defaultSampler, new RandomIdGenerator(random), spanNamer, spanLogger,
+				spanReporter, traceId128, traceKeys);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			SpanNamer spanNamer, SpanLogger spanLogger, SpanReporter spanReporter,
+			TraceKeys traceKeys) {
+		this(defaultSampler, idGenerator, spanNamer, spanLogger, spanReporter, false,
+				traceKeys);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			SpanNamer spanNamer, SpanLogger spanLogger, SpanReporter spanReporter,
+			boolean traceId128, TraceKeys traceKeys) {
+		this(defaultSampler, idGenerator, spanNamer, spanLogger, spanReporter,
+				traceId128, traceKeys, SpanContextHolder.DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * @param maxContextDepth the number of spans held in the context of a thread. Once
+	 * the limit is reached a warning is logged and the oldest spans get dropped.
+	 * @since 1.3.0
+	 */
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			SpanNamer spanNamer, SpanLogger spanLogger, SpanReporter spanReporter,
+			boolean traceId128, TraceKeys traceKeys, int maxContextDepth) {
+		if (maxContextDepth < 1) {
+			throw new IllegalArgumentException(
+					"The max context depth must be positive but was " + maxContextDepth);
+		}
 		this.defaultSampler = defaultSampler;
-		this.random = random;
+		this.idGenerator = idGenerator;
 		this.spanNamer = spanNamer;
 		this.spanLogger = spanLogger;
 		this.spanReporter = spanReporter;
 		this.traceId128 = traceId128;
 		this.traceKeys = traceKeys != null ? traceKeys : new TraceKeys();
+		this.maxContextDepth = maxContextDepth;
 	}
 
 	@Override
@@ -96,15 +142,10 @@ public class DefaultTracer implements Tracer {
 			span = createChild(getCurrentSpan(), shortenedName);
 		}
 		else {
-			long id = createId();
-			span = Span.builder().name(shortenedName)
-					.traceIdHigh(this.traceId128 ? createTraceIdHigh() : 0L)
-					.traceId(id)
-					.spanId(id).build();
 			if (sampler == null) {
 				sampler = this.defaultSampler;
 			}
-			span = sampledSpan(span, sampler);
+			span = createRootSpan(shortenedName, sampler);
 			this.spanLogger.logStartedSpan(null, span);
 		}
 		return continueSpan(span);
@@ -147,7 +188,8 @@ public class DefaultTracer implements Tracer {
 		}
 		else {
 			span.stop();
-			if (savedSpan != null && span.getParents().contains(savedSpan.getSpanId())) {
+			if (savedSpan != null && span.hasParent()
+					&& span.getParentId() == savedSpan.getSpanId()) {
 				this.spanReporter.report(span);
 				this.spanLogger.logStoppedSpan(savedSpan, span);
 			}
@@ -168,20 +210,16 @@ public class DefaultTracer implements Tracer {
 
 	Span createChild(Span parent, String name) {
 		String shortenedName = SpanNameUtil.shorten(name);
-		long id = createId();
 		if (parent == null) {
-			Span span = Span.builder().name(shortenedName)
-					.traceIdHigh(this.traceId128 ? createTraceIdHigh() : 0L)
-					.traceId(id)
-					.spanId(id).build();
-			span = sampledSpan(span, this.defaultSampler);
+			Span span = createRootSpan(shortenedName, this.defaultSampler);
 			this.spanLogger.logStartedSpan(null, span);
 			return span;
 		}
 		else {
 			if (!isTracing()) {
-				SpanContextHolder.push(parent, true);
+				SpanContextHolder.push(parent, true, this.maxContextDepth);
 			}
+			long id = createId();
 			Span span = Span.builder().name(shortenedName)
 					.traceIdHigh(parent.getTraceIdHigh())
 					.traceId(parent.getTraceId()).parent(parent.getSpanId()).spanId(id)
@@ -194,37 +232,34 @@ public class DefaultTracer implements Tracer {
 		}
 	}
 
-	private Span sampledSpan(Span span, Sampler sampler) {
+	/**
+	 * Creates a new root span. If the sampler doesn't sample it, the returned span is
+	 * a non exportable one that carries only the name and the ids - the builder is
+	 * reused so that no additional collections get copied. When we know upfront that
+	 * the span won't be sampled (e.g. {@link NeverSampler}) the sampling step is skipped.
+	 */
+	private Span createRootSpan(String name, Sampler sampler) {
+		long id = createId();
+		Span.SpanBuilder builder = Span.builder().name(name)
+				.traceIdHigh(this.traceId128 ? createTraceIdHigh() : 0L)
+				.traceId(id)
+				.spanId(id);
+		if (sampler instanceof NeverSampler) {
+			return builder.exportable(false).build();
+		}
+		Span span = builder.build();
 		if (!sampler.isSampled(span)) {
-			// Copy everything, except set exportable to false
-			return Span.builder()
-					.begin(span.getBegin())
-					.traceIdHigh(span.getTraceIdHigh())
-					.traceId(span.getTraceId())
-					.spanId(span.getSpanId())
-					.name(span.getName())
-					.exportable(false).build();
+			return builder.exportable(false).build();
 		}
 		return span;
 	}
 
-	/**
-	 * Encodes a timestamp into the upper 32-bits, so that it can be converted to an Amazon trace ID.
-	 *
-	 * <p>For example, an Amazon trace ID is composed of the following: {@code |-- 32 bits for epoch
-	 * seconds -- | -- 96 bits for random data -- |}
-	 *
-	 * <p>To support this, {@link Span#getTraceIdHigh() traceIdHigh} holds the epoch seconds and first
-	 * 32 random bits: and {@link Span#getTraceId()} traceId} holds the remaining 64 random bits.
-	 */
 	private long createTraceIdHigh() {
-		long epochSeconds = System.currentTimeMillis() / 1000;
-		int random = this.random.nextInt();
-		return (epochSeconds & 0xffffffffL) << 32 | (random & 0xffffffffL);
+		return this.idGenerator.nextTraceIdHigh();
 	}
 
 	private long createId() {
-		return this.random.nextLong();
+		return this.idGenerator.nextId();
 	}
 
 	@Override
@@ -235,22 +270,58 @@ public class DefaultTracer implements Tracer {
 			return null;
 		}
 		Span newSpan = createContinuedSpan(span, SpanContextHolder.getCurrentSpan());
-		SpanContextHolder.setCurrentSpan(newSpan);
+		SpanContextHolder.setCurrentSpan(newSpan, this.maxContextDepth);
 		return newSpan;
 	}
 
+	@SuppressWarnings("deprecation")
 	private Span createContinuedSpan(Span span, Span saved) {
 		if (saved == null && span.getSavedSpan() != null) {
 			saved = span.getSavedSpan();
 		}
+		if (saved == span.getSavedSpan()) {
+			// the copy would be identical (e.g. a freshly created span) - no need to create it
+			return span;
+		}
 		return new Span(span, saved);
 	}
 
+	@Override
+	public SpanInScope withSpan(Span span) {
+		Span previousSpan = SpanContextHolder.getCurrentSpan();
+		int previousDepth = SpanContextHolder.replaceCurrentSpan(span,
+				this.maxContextDepth);
+		if (span != previousSpan) {
+			logCurrentSpan(span);
+		}
+		return new ThreadLocalSpanInScope(previousDepth, previousSpan, span);
+	}
+
+	private void logCurrentSpan(Span span) {
+		if (span != null) {
+			this.spanLogger.logContinuedSpan(span);
+		}
+		else {
+			// clears the logging context
+			this.spanLogger.logStoppedSpan(null, null);
+		}
+	}
+
 	@Override
 	public Span getCurrentSpan() {
 		return SpanContextHolder.getCurrentSpan();
 	}
 
+	/**
+	 * Number of spans held in the context of the current thread. A depth that keeps
+	 * growing points to spans that get continued or created but never closed.
+	 *
+	 * @since 1.3.0
+	 */
+	public int getCurrentContextDepth() {
+		return SpanContextHolder.depth();
+	}
+
 	@Override
 	public boolean isTracing() {
 		return SpanContextHolder.isTracing();
@@ -289,4 +360,25 @@ public class DefaultTracer implements Tracer {
 		}
 		return runnable;
 	}
+
+	private final class ThreadLocalSpanInScope implements SpanInScope {
+
+		private final int previousDepth;
+		private final Span previousSpan;
+		private final Span span;
+
+		ThreadLocalSpanInScope(int previousDepth, Span previousSpan, Span span) {
+			this.previousDepth = previousDepth;
+			this.previousSpan = previousSpan;
+			this.span = span;
+		}
+
+		@Override
+		public void close() {
+			SpanContextHolder.restore(this.previousDepth, this.previousSpan);
+			if (this.previousSpan != this.span) {
+				logCurrentSpan(this.previousSpan);
+			}
+		}
+	}
 }
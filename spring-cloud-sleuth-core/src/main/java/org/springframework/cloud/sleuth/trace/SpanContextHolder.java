@@ -16,12 +16,19 @@
 
 package org.springframework.cloud.sleuth.trace;
 
+import java.util.Arrays;
+
 import org.apache.commons.logging.Log;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.core.NamedThreadLocal;
 
 /**
  * Utility for managing the thread local state for the {@link DefaultTracer}.
+ * The spans of a thread are kept on an array backed stack, so that pushing and
+ * popping a span doesn't allocate. The stack is removed from the thread once it
+ * gets empty. Its depth is bounded by the max depth of the tracer that pushes the
+ * span - a thread that keeps pushing spans without closing them (a leak) gets a
+ * warning and then loses the oldest spans.
  *
  * @author Spencer Gibb
  * @author Dave Syer
@@ -30,24 +37,76 @@ class SpanContextHolder {
 
 	private static final Log log = org.apache.commons.logging.LogFactory
 			.getLog(SpanContextHolder.class);
-	private static final ThreadLocal<SpanContext> CURRENT_SPAN = new NamedThreadLocal<>(
+	private static final ThreadLocal<SpanStack> CURRENT_SPAN = new NamedThreadLocal<>(
 			"Trace Context");
 
+	static final int DEFAULT_MAX_DEPTH = 1024;
+
 	/**
 	 * Get the current span out of the thread context
 	 */
 	static Span getCurrentSpan() {
-		return isTracing() ? CURRENT_SPAN.get().span : null;
+		SpanStack stack = CURRENT_SPAN.get();
+		return stack != null ? stack.peek() : null;
 	}
 
 	/**
 	 * Set the current span in the thread context
 	 */
-	static void setCurrentSpan(Span span) {
+	static void setCurrentSpan(Span span, int maxDepth) {
 		if (log.isTraceEnabled()) {
 			log.trace("Setting current span " + span);
 		}
-		push(span, false);
+		push(span, false, maxDepth);
+	}
+
+	/**
+	 * Make the span the current one without copying it nor checking whether it's
+	 * already present in the thread context. Returns the depth of the stack before
+	 * the call, which together with the previously current span is meant to be
+	 * passed to {@link #restore(int, Span)}.
+	 */
+	static int replaceCurrentSpan(Span span, int maxDepth) {
+		SpanStack stack = CURRENT_SPAN.get();
+		if (stack == null) {
+			if (span != null) {
+				stack = new SpanStack();
+				stack.push(span, false, maxDepth);
+				CURRENT_SPAN.set(stack);
+			}
+			return 0;
+		}
+		int depth = stack.size;
+		if (stack.peek() != span) {
+			// a null entry hides the spans below it
+			stack.push(span, false, maxDepth);
+		}
+		return depth;
+	}
+
+	/**
+	 * Restore the thread context to the state from before
+	 * {@link #replaceCurrentSpan(Span, int)} got called
+	 */
+	static void restore(int depth, Span span) {
+		if (depth == 0) {
+			CURRENT_SPAN.remove();
+			return;
+		}
+		SpanStack stack = CURRENT_SPAN.get();
+		if (stack != null && stack.size >= depth && stack.spans[depth - 1] == span) {
+			stack.truncate(depth);
+			return;
+		}
+		// the stack got cleared in the meantime (e.g. a span got detached) - we can
+		// only bring back the span that was current
+		if (stack == null) {
+			stack = new SpanStack();
+			CURRENT_SPAN.set(stack);
+		}
+		stack.truncate(0);
+		// a single span fits whatever the max depth
+		stack.push(span, false, 1);
 	}
 
 	/**
@@ -59,11 +118,20 @@ class SpanContextHolder {
 		CURRENT_SPAN.remove();
 	}
 
+	/**
+	 * Number of spans in the thread context (useful for diagnosing spans that don't
+	 * get closed)
+	 */
+	static int depth() {
+		SpanStack stack = CURRENT_SPAN.get();
+		return stack != null ? stack.size : 0;
+	}
+
 	/**
 	 * Check if there is already a span in the current thread
 	 */
 	static boolean isTracing() {
-		return CURRENT_SPAN.get() != null;
+		return getCurrentSpan() != null;
 	}
 
 	/**
@@ -71,18 +139,20 @@ class SpanContextHolder {
 	 * On every iteration a function will be applied on the closed Span.
 	 */
 	static void close(SpanFunction spanFunction) {
-		SpanContext current = CURRENT_SPAN.get();
-		CURRENT_SPAN.remove();
-		while (current != null) {
-			current = current.parent;
-			spanFunction.apply(current != null ? current.span : null);
-			if (current != null) {
-				if (!current.autoClose) {
-					CURRENT_SPAN.set(current);
-					current = null;
-				}
+		SpanStack stack = CURRENT_SPAN.get();
+		if (stack == null) {
+			return;
+		}
+		stack.pop();
+		while (stack.size > 0) {
+			spanFunction.apply(stack.peek());
+			if (!stack.autoClose[stack.size - 1]) {
+				return;
 			}
+			stack.pop();
 		}
+		CURRENT_SPAN.remove();
+		spanFunction.apply(null);
 	}
 
 	/**
@@ -95,31 +165,77 @@ class SpanContextHolder {
 	/**
 	 * Push a span into the thread context, with the option to have it auto close if any
 	 * child spans are themselves closed. Use autoClose=true if you start a new span with
-	 * a parent that wasn't already in thread context.
+	 * a parent that wasn't already in thread context. Once the thread context holds
+	 * {@code maxDepth} spans the oldest one gets dropped.
 	 */
-	static void push(Span span, boolean autoClose) {
-		if (isCurrent(span)) {
+	static void push(Span span, boolean autoClose, int maxDepth) {
+		SpanStack stack = CURRENT_SPAN.get();
+		if (stack == null) {
+			stack = new SpanStack();
+			CURRENT_SPAN.set(stack);
+		}
+		else if (span != null && span.equals(stack.peek())) {
 			return;
 		}
-		CURRENT_SPAN.set(new SpanContext(span, autoClose));
+		stack.push(span, autoClose, maxDepth);
 	}
 
-	private static boolean isCurrent(Span span) {
-		if (span == null || CURRENT_SPAN.get() == null) {
-			return false;
+	/**
+	 * Spans of a thread together with the information whether they should be auto
+	 * closed. A {@code null} entry hides the spans below it until it gets popped.
+	 * Pushing onto a full stack drops the oldest span.
+	 */
+	static final class SpanStack {
+
+		private static final int INITIAL_CAPACITY = 8;
+
+		Span[] spans = new Span[INITIAL_CAPACITY];
+		boolean[] autoClose = new boolean[INITIAL_CAPACITY];
+		int size;
+		private boolean overflowed;
+
+		Span peek() {
+			return this.size > 0 ? this.spans[this.size - 1] : null;
 		}
-		return span.equals(CURRENT_SPAN.get().span);
-	}
 
-	private static class SpanContext {
-		final Span span;
-		final boolean autoClose;
-		final SpanContext parent;
+		void push(Span span, boolean autoClose, int maxDepth) {
+			if (this.size >= maxDepth) {
+				dropOldest(this.size - maxDepth + 1);
+			}
+			else if (this.size == this.spans.length) {
+				int capacity = Math.min(this.size * 2, maxDepth);
+				this.spans = Arrays.copyOf(this.spans, capacity);
+				this.autoClose = Arrays.copyOf(this.autoClose, capacity);
+			}
+			this.spans[this.size] = span;
+			this.autoClose[this.size] = autoClose;
+			this.size++;
+		}
+
+		void pop() {
+			if (this.size > 0) {
+				this.spans[--this.size] = null;
+			}
+		}
 
-		public SpanContext(Span span, boolean autoClose) {
-			this.span = span;
-			this.autoClose = autoClose;
-			this.parent = CURRENT_SPAN.get();
+		private void dropOldest(int count) {
+			if (!this.overflowed) {
+				this.overflowed = true;
+				log.warn("The thread context holds " + this.size + " spans, which is the "
+						+ "maximum - most likely spans are being continued or created without "
+						+ "being closed. The oldest spans will be dropped. The current span is "
+						+ peek());
+			}
+			this.size -= count;
+			System.arraycopy(this.spans, count, this.spans, 0, this.size);
+			System.arraycopy(this.autoClose, count, this.autoClose, 0, this.size);
+			Arrays.fill(this.spans, this.size, this.size + count, null);
+		}
+
+		void truncate(int depth) {
+			while (this.size > depth) {
+				pop();
+			}
 		}
 	}
 
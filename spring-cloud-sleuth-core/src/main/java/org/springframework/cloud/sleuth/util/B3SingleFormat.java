@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Utility class for the single header B3 format
+ * {@code b3: {traceId}-{spanId}-{samplingState}-{parentSpanId}}, where the sampling
+ * state and the parent span id are optional. The sampling state is {@code 1}
+ * (sampled), {@code 0} (not sampled) or {@code d} (debug). A value consisting of the
+ * sampling state only carries just the sampling decision.
+ *
+ * <p>The value is parsed in place, without splitting it into separate strings.
+ *
+ * @since 1.3.0
+ */
+public final class B3SingleFormat {
+
+	/**
+	 * Name of the header, both for HTTP and for messaging
+	 */
+	public static final String NAME = "b3";
+
+	private static final int ID_LENGTH = 16;
+
+	private B3SingleFormat() {}
+
+	/**
+	 * Writes the ids and the sampling decision of the span in the single header format.
+	 * The parent span id is included if the span has a parent.
+	 */
+	public static String write(Span span) {
+		String traceId = span.traceIdString();
+		String spanId = span.spanIdString();
+		String parentId = span.parentIdString();
+		int traceIdLength = traceId.length();
+		int length = traceIdLength + 1 + ID_LENGTH + 2
+				+ (parentId != null ? 1 + ID_LENGTH : 0);
+		char[] result = new char[length];
+		traceId.getChars(0, traceIdLength, result, 0);
+		int pos = traceIdLength;
+		result[pos++] = '-';
+		spanId.getChars(0, ID_LENGTH, result, pos);
+		pos += ID_LENGTH;
+		result[pos++] = '-';
+		result[pos++] = span.isExportable() ? '1' : '0';
+		if (parentId != null) {
+			result[pos++] = '-';
+			parentId.getChars(0, ID_LENGTH, result, pos);
+		}
+		return new String(result);
+	}
+
+	/**
+	 * Parses the trace, span and parent span ids of the value.
+	 *
+	 * @return a span builder with the ids set or {@code null} if the value is missing,
+	 * malformed or carries just the sampling decision
+	 */
+	public static Span.SpanBuilder parse(String value) {
+		int traceIdLength = traceIdLength(value);
+		if (traceIdLength == 0) {
+			return null;
+		}
+		int length = value.length();
+		int pos = traceIdLength + 1 + ID_LENGTH;
+		boolean sampling = length > pos;
+		if (sampling && (length < pos + 2 || value.charAt(pos) != '-'
+				|| !isSamplingState(value.charAt(pos + 1)))) {
+			return null;
+		}
+		boolean parent = length > pos + 2;
+		if (parent && (length != pos + 3 + ID_LENGTH || value.charAt(pos + 2) != '-')) {
+			return null;
+		}
+		try {
+			Span.SpanBuilder span = Span.builder()
+					.traceIdHigh(traceIdLength == 32 ? Span.hexToId(value, 0) : 0)
+					.traceId(Span.hexToId(value, traceIdLength - ID_LENGTH))
+					.spanId(Span.hexToId(value, traceIdLength + 1));
+			if (parent) {
+				span.parent(Span.hexToId(value, pos + 3));
+			}
+			return span;
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the sampling state ({@code '1'}, {@code '0'} or {@code 'd'}) of the value
+	 * or the null character if the value is missing or has no sampling state.
+	 */
+	public static char samplingState(String value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value.length() == 1) {
+			return isSamplingState(value.charAt(0)) ? value.charAt(0) : 0;
+		}
+		int traceIdLength = traceIdLength(value);
+		int pos = traceIdLength + 1 + ID_LENGTH;
+		if (traceIdLength == 0 || value.length() < pos + 2 || value.charAt(pos) != '-') {
+			return 0;
+		}
+		char state = value.charAt(pos + 1);
+		return isSamplingState(state) ? state : 0;
+	}
+
+	private static int traceIdLength(String value) {
+		if (value == null) {
+			return 0;
+		}
+		int length = value.length();
+		if (length >= 2 * ID_LENGTH + 1 && value.charAt(ID_LENGTH) == '-') {
+			return ID_LENGTH;
+		}
+		if (length >= 3 * ID_LENGTH + 1 && value.charAt(2 * ID_LENGTH) == '-') {
+			return 2 * ID_LENGTH;
+		}
+		return 0;
+	}
+
+	private static boolean isSamplingState(char c) {
+		return c == '1' || c == '0' || c == 'd';
+	}
+}
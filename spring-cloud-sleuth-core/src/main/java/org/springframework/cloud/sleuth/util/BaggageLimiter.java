@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import java.util.List;
+
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+
+/**
+ * Enforces the {@link SleuthProperties.Baggage baggage limits} while the baggage
+ * items of a span are sent or read. A new limiter is meant to be created for every
+ * carrier. The key length counts the unprefixed key, one byte per character.
+ *
+ * @since 1.3.0
+ */
+public final class BaggageLimiter {
+
+	private final SleuthProperties.Baggage limits;
+	private int entries;
+	private int bytes;
+
+	public BaggageLimiter(SleuthProperties.Baggage limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Returns whether the item should be sent or read. An accepted item counts
+	 * towards the limits.
+	 */
+	public boolean tryAccept(String key, String value) {
+		if (!isWhitelisted(key) || this.entries >= this.limits.getMaxEntries()) {
+			return false;
+		}
+		int bytes = this.bytes + key.length() + (value != null ? value.length() : 0);
+		if (bytes > this.limits.getMaxBytes()) {
+			return false;
+		}
+		this.entries++;
+		this.bytes = bytes;
+		return true;
+	}
+
+	private boolean isWhitelisted(String key) {
+		List<String> whitelist = this.limits.getWhitelist();
+		if (whitelist.isEmpty()) {
+			return true;
+		}
+		for (String allowed : whitelist) {
+			if (allowed.equalsIgnoreCase(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Utility class for the compact binary trace context of messages. The context is
+ * a {@code byte[]} of a fixed layout: one byte of flags (0x01 sampled, 0x02 debug)
+ * followed by the big-endian trace id, span id and parent id (zero when there's no
+ * parent). A 128-bit trace id takes 8 more bytes, the high bits come first. That
+ * gives 25 bytes for a 64-bit trace id and 33 bytes for a 128-bit one. Unlike the
+ * text headers the ids are neither encoded nor decoded as hex.
+ *
+ * @since 1.3.0
+ */
+public final class BinaryFormat {
+
+	/**
+	 * Name of the messaging header
+	 */
+	public static final String NAME = "spanContext";
+
+	static final int LENGTH = 25;
+	static final int LENGTH_128 = 33;
+
+	private static final int SAMPLED_FLAG = 0x01;
+	private static final int DEBUG_FLAG = 0x02;
+
+	private BinaryFormat() {}
+
+	/**
+	 * Writes the ids and the sampling decision of the span
+	 */
+	public static byte[] write(Span span) {
+		long traceIdHigh = span.getTraceIdHigh();
+		byte[] result = new byte[traceIdHigh != 0 ? LENGTH_128 : LENGTH];
+		result[0] = (byte) (span.isExportable() ? SAMPLED_FLAG : 0);
+		int offset = 1;
+		if (traceIdHigh != 0) {
+			writeLong(result, offset, traceIdHigh);
+			offset += 8;
+		}
+		writeLong(result, offset, span.getTraceId());
+		writeLong(result, offset + 8, span.getSpanId());
+		writeLong(result, offset + 16, span.hasParent() ? span.getParentId() : 0);
+		return result;
+	}
+
+	/**
+	 * Parses the trace id, span id and parent id.
+	 *
+	 * @return a span builder with the ids set or {@code null} if the value is missing
+	 * or malformed
+	 */
+	public static Span.SpanBuilder parse(byte[] value) {
+		if (value == null || (value.length != LENGTH && value.length != LENGTH_128)) {
+			return null;
+		}
+		int offset = 1;
+		long traceIdHigh = 0;
+		if (value.length == LENGTH_128) {
+			traceIdHigh = readLong(value, offset);
+			offset += 8;
+		}
+		long traceId = readLong(value, offset);
+		long spanId = readLong(value, offset + 8);
+		long parentId = readLong(value, offset + 16);
+		if ((traceIdHigh == 0 && traceId == 0) || spanId == 0) {
+			return null;
+		}
+		Span.SpanBuilder builder = Span.builder().traceIdHigh(traceIdHigh)
+				.traceId(traceId).spanId(spanId);
+		if (parentId != 0) {
+			builder.parent(parentId);
+		}
+		return builder;
+	}
+
+	/**
+	 * Returns whether the sampled flag of a well formed value is set
+	 */
+	public static boolean isSampled(byte[] value) {
+		return (value[0] & SAMPLED_FLAG) != 0;
+	}
+
+	/**
+	 * Returns whether the debug flag of a well formed value is set
+	 */
+	public static boolean isDebug(byte[] value) {
+		return (value[0] & DEBUG_FLAG) != 0;
+	}
+
+	private static void writeLong(byte[] bytes, int offset, long value) {
+		for (int i = 7; i >= 0; i--) {
+			bytes[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		long result = 0;
+		for (int i = 0; i < 8; i++) {
+			result = result << 8 | (bytes[offset + i] & 0xff);
+		}
+		return result;
+	}
+}
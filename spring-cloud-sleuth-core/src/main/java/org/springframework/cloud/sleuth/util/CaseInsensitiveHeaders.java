@@ -0,0 +1,273 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map of header names to values where the names are compared ignoring the case of
+ * ASCII letters, which is what header names consist of. Unlike a {@code TreeMap}
+ * with a comparator that lower cases the names, neither the lookups nor the
+ * insertions allocate a string. The hash of a name is computed on its case folded
+ * characters and the entries are kept in insertion order. A name keeps the spelling
+ * with which it was first put. A {@code null} name is allowed. Removing an entry
+ * costs a pass over the entries, as headers are rarely removed. Not thread safe.
+ *
+ * @since 1.3.0
+ */
+public final class CaseInsensitiveHeaders extends AbstractMap<String, String> {
+
+	private static final int MIN_CAPACITY = 4;
+
+	// index of the entry + 1 per slot, 0 for a free slot. Twice as big as the
+	// entry arrays so that there's always a free slot to end the probing.
+	private int[] table;
+	private String[] keys;
+	private String[] values;
+	private int size;
+
+	public CaseInsensitiveHeaders() {
+		this(16);
+	}
+
+	public CaseInsensitiveHeaders(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize) {
+			capacity <<= 1;
+		}
+		this.keys = new String[capacity];
+		this.values = new String[capacity];
+		this.table = new int[capacity * 2];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return isName(key) && indexOf((String) key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		if (!isName(key)) {
+			return null;
+		}
+		int index = indexOf((String) key);
+		return index >= 0 ? this.values[index] : null;
+	}
+
+	@Override
+	public String put(String key, String value) {
+		int index = indexOf(key);
+		if (index >= 0) {
+			String previous = this.values[index];
+			this.values[index] = value;
+			return previous;
+		}
+		if (this.size == this.keys.length) {
+			resize();
+		}
+		this.keys[this.size] = key;
+		this.values[this.size] = value;
+		insert(key, this.size);
+		this.size++;
+		return null;
+	}
+
+	@Override
+	public String remove(Object key) {
+		if (!isName(key)) {
+			return null;
+		}
+		int index = indexOf((String) key);
+		if (index < 0) {
+			return null;
+		}
+		String previous = this.values[index];
+		removeAt(index);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, 0, this.size, null);
+		Arrays.fill(this.values, 0, this.size, null);
+		Arrays.fill(this.table, 0);
+		this.size = 0;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return new AbstractSet<Entry<String, String>>() {
+			@Override
+			public Iterator<Entry<String, String>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return CaseInsensitiveHeaders.this.size;
+			}
+
+			@Override
+			public void clear() {
+				CaseInsensitiveHeaders.this.clear();
+			}
+		};
+	}
+
+	private static boolean isName(Object key) {
+		return key == null || key instanceof String;
+	}
+
+	private int indexOf(String key) {
+		int mask = this.table.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			int entry = this.table[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (equalsIgnoreCase(this.keys[entry - 1], key)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private void insert(String key, int index) {
+		int mask = this.table.length - 1;
+		int slot = hash(key) & mask;
+		while (this.table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		this.table[slot] = index + 1;
+	}
+
+	/**
+	 * Shifts the following entries down to keep the insertion order and rebuilds the
+	 * table, since the indexes it holds have changed.
+	 */
+	private void removeAt(int index) {
+		int moved = this.size - index - 1;
+		System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+		System.arraycopy(this.values, index + 1, this.values, index, moved);
+		this.size--;
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+		Arrays.fill(this.table, 0);
+		for (int i = 0; i < this.size; i++) {
+			insert(this.keys[i], i);
+		}
+	}
+
+	private void resize() {
+		int capacity = this.keys.length * 2;
+		this.keys = Arrays.copyOf(this.keys, capacity);
+		this.values = Arrays.copyOf(this.values, capacity);
+		this.table = new int[capacity * 2];
+		for (int i = 0; i < this.size; i++) {
+			insert(this.keys[i], i);
+		}
+	}
+
+	static int hash(String key) {
+		if (key == null) {
+			return 0;
+		}
+		int h = 0;
+		for (int i = 0; i < key.length(); i++) {
+			h = 31 * h + toLowerCase(key.charAt(i));
+		}
+		return h ^ (h >>> 16);
+	}
+
+	static boolean equalsIgnoreCase(String a, String b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		if (a.length() != b.length()) {
+			return false;
+		}
+		for (int i = 0; i < a.length(); i++) {
+			if (toLowerCase(a.charAt(i)) != toLowerCase(b.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static char toLowerCase(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	private class EntryIterator implements Iterator<Entry<String, String>> {
+
+		private int next;
+		private int last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return this.next < CaseInsensitiveHeaders.this.size;
+		}
+
+		@Override
+		public Entry<String, String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next++;
+			return new HeaderEntry(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			removeAt(this.last);
+			this.next = this.last;
+			this.last = -1;
+		}
+	}
+
+	/**
+	 * Writes through to the map as long as the entry isn't moved by a removal.
+	 */
+	private class HeaderEntry extends SimpleEntry<String, String> {
+
+		private final int index;
+
+		HeaderEntry(int index) {
+			super(CaseInsensitiveHeaders.this.keys[index],
+					CaseInsensitiveHeaders.this.values[index]);
+			this.index = index;
+		}
+
+		@Override
+		public String setValue(String value) {
+			CaseInsensitiveHeaders.this.values[this.index] = value;
+			return super.setValue(value);
+		}
+	}
+}
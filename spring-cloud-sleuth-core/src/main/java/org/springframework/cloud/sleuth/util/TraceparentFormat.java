@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Utility class for the W3C Trace Context {@code traceparent} header
+ * {@code {version}-{traceId}-{parentId}-{traceFlags}}, e.g.
+ * {@code 00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01}. All fields are of
+ * fixed width, so the ids are read at their offsets without splitting the value. The
+ * {@code parentId} of the header is the id of the calling span, which corresponds to
+ * the B3 span id. The {@code tracestate} header isn't interpreted.
+ *
+ * @since 1.3.0
+ */
+public final class TraceparentFormat {
+
+	/**
+	 * Name of the header, both for HTTP and for messaging
+	 */
+	public static final String NAME = "traceparent";
+
+	private static final String VERSION = "00";
+	private static final int TRACE_ID_OFFSET = 3;
+	private static final int SPAN_ID_OFFSET = 36;
+	private static final int FLAGS_OFFSET = 53;
+	private static final int LENGTH = 55;
+	private static final int SAMPLED_FLAG = 0x01;
+
+	private TraceparentFormat() {}
+
+	/**
+	 * Writes the ids and the sampling decision of the span. A 64-bit trace id is left
+	 * padded with zeros.
+	 */
+	public static String write(Span span) {
+		String traceId = span.traceIdString();
+		char[] result = new char[LENGTH];
+		result[0] = '0';
+		result[1] = '0';
+		result[2] = '-';
+		int padding = 32 - traceId.length();
+		for (int i = 0; i < padding; i++) {
+			result[TRACE_ID_OFFSET + i] = '0';
+		}
+		traceId.getChars(0, traceId.length(), result, TRACE_ID_OFFSET + padding);
+		result[SPAN_ID_OFFSET - 1] = '-';
+		span.spanIdString().getChars(0, 16, result, SPAN_ID_OFFSET);
+		result[FLAGS_OFFSET - 1] = '-';
+		result[FLAGS_OFFSET] = '0';
+		result[FLAGS_OFFSET + 1] = span.isExportable() ? '1' : '0';
+		return new String(result);
+	}
+
+	/**
+	 * Parses the trace id and the id of the calling span, which becomes the span id.
+	 *
+	 * @return a span builder with the ids set or {@code null} if the value is missing
+	 * or malformed
+	 */
+	public static Span.SpanBuilder parse(String value) {
+		if (!isWellFormed(value)) {
+			return null;
+		}
+		try {
+			hexByte(value, 0);
+			long traceIdHigh = Span.hexToId(value, TRACE_ID_OFFSET);
+			long traceId = Span.hexToId(value, TRACE_ID_OFFSET + 16);
+			long spanId = Span.hexToId(value, SPAN_ID_OFFSET);
+			hexByte(value, FLAGS_OFFSET);
+			if ((traceIdHigh == 0 && traceId == 0) || spanId == 0) {
+				return null;
+			}
+			return Span.builder().traceIdHigh(traceIdHigh).traceId(traceId)
+					.spanId(spanId);
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns whether the sampled flag of a well formed value is set
+	 */
+	public static boolean isSampled(String value) {
+		return (hexByte(value, FLAGS_OFFSET) & SAMPLED_FLAG) != 0;
+	}
+
+	private static boolean isWellFormed(String value) {
+		if (value == null || value.length() < LENGTH) {
+			return false;
+		}
+		if (value.charAt(TRACE_ID_OFFSET - 1) != '-'
+				|| value.charAt(SPAN_ID_OFFSET - 1) != '-'
+				|| value.charAt(FLAGS_OFFSET - 1) != '-') {
+			return false;
+		}
+		if (value.startsWith(VERSION)) {
+			return value.length() == LENGTH;
+		}
+		// future versions may append fields, version ff is invalid
+		return !value.startsWith("ff")
+				&& (value.length() == LENGTH || value.charAt(LENGTH) == '-');
+	}
+
+	private static int hexByte(String value, int index) {
+		return hexDigit(value.charAt(index)) << 4 | hexDigit(value.charAt(index + 1));
+	}
+
+	private static int hexDigit(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		throw new IllegalArgumentException("Malformed traceparent");
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.cloud.sleuth.log.NoOpSpanLogger;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.TestSpanContextHolder;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class SpanScopesTests {
+
+	Span span = Span.builder().name("span").traceId(1L).spanId(1L).build();
+
+	@After
+	public void clean() {
+		TestSpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_put_the_span_in_scope_with_a_scoped_tracer() {
+		Tracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				new DefaultSpanNamer(), new NoOpSpanLogger(), new NoOpSpanReporter(),
+				new TraceKeys());
+
+		try (SpanInScope ws = SpanScopes.withSpan(tracer, this.span)) {
+			then(tracer.getCurrentSpan()).isSameAs(this.span);
+		}
+
+		then(tracer.getCurrentSpan()).isNull();
+	}
+
+	@Test
+	public void should_continue_and_detach_the_span_with_other_tracers() {
+		Tracer tracer = Mockito.mock(Tracer.class);
+		Span continued = Span.builder().name("span").traceId(1L).spanId(1L).build();
+		BDDMockito.given(tracer.continueSpan(this.span)).willReturn(continued);
+
+		SpanInScope ws = SpanScopes.withSpan(tracer, this.span);
+		BDDMockito.then(tracer).should().continueSpan(this.span);
+		BDDMockito.then(tracer).should(Mockito.never()).detach(continued);
+
+		ws.close();
+		BDDMockito.then(tracer).should().detach(continued);
+	}
+
+	@Test
+	public void should_leave_the_context_as_it_is_for_a_null_span_with_other_tracers() {
+		Tracer tracer = Mockito.mock(Tracer.class);
+
+		SpanScopes.withSpan(tracer, null).close();
+
+		BDDMockito.then(tracer).shouldHaveZeroInteractions();
+	}
+}
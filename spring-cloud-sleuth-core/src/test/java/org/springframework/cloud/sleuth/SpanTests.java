@@ -20,6 +20,7 @@ import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.asser
 import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
@@ -192,6 +193,35 @@ public class SpanTests {
 				.isEqualTo(span.tags());
 	}
 
+	@Test public void should_properly_serialize_parent() throws IOException {
+		Span span = Span.builder().traceId(1L).spanId(2L).parent(1L).build();
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		String serialized = objectMapper.writeValueAsString(span);
+		Span deserialized = objectMapper.readValue(serialized, Span.class);
+
+		then(serialized).contains("\"parents\":[1]");
+		then(deserialized.hasParent()).isTrue();
+		then(deserialized.getParentId()).isEqualTo(1L);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void should_keep_only_the_first_parent() {
+		Span span = Span.builder().traceId(1L).spanId(2L).parent(3L).parent(4L).build();
+
+		then(span.hasParent()).isTrue();
+		then(span.getParentId()).isEqualTo(3L);
+		then(span.getParents()).containsExactly(3L);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void should_have_no_parent_by_default() {
+		then(this.span.hasParent()).isFalse();
+		then(this.span.getParents()).isEmpty();
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void should_throw_exception_when_converting_invalid_hex_value() {
 		Span.hexToId("invalid");
@@ -274,6 +304,54 @@ public class SpanTests {
 		assertThat(builtSpan).isEqualTo(span);
 	}
 
+	@Test
+	public void should_share_tags_logs_and_baggage_added_after_continuing_the_span() throws IOException {
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+		Span continuedSpan = new Span(span, null);
+
+		continuedSpan.tag("foo", "bar");
+		continuedSpan.logEvent("log");
+		continuedSpan.setBaggageItem("baz", "qux");
+
+		then(span.tags()).containsEntry("foo", "bar");
+		then(span.logs()).extracting("event").containsExactly("log");
+		then(span.getBaggageItem("baz")).isEqualTo("qux");
+	}
+
+	@Test
+	public void should_share_the_baggage_of_the_parent_until_the_child_changes_it() {
+		Span parent = Span.builder().traceId(1L).spanId(2L).baggage("Foo", "bar").build();
+		Span child = Span.builder().traceId(1L).spanId(3L).baggage(parent.getBaggage())
+				.build();
+
+		then(child.getBaggage()).isSameAs(parent.getBaggage());
+
+		child.setBaggageItem("baz", "qux");
+
+		then(child.getBaggage()).containsEntry("foo", "bar").containsEntry("baz", "qux");
+		then(parent.getBaggage()).containsOnlyKeys("foo");
+		then(parent.getBaggageItem("FOO")).isEqualTo("bar");
+	}
+
+	@Test
+	public void should_lower_case_the_baggage_keys_once_when_they_are_added() {
+		Span span = Span.builder().traceId(1L).spanId(2L)
+				.baggage(Collections.singletonMap("Country-Code", "FO")).build();
+
+		then(span.getBaggage()).containsOnlyKeys("country-code");
+		then(span.getBaggageItem("COUNTRY-code")).isEqualTo("FO");
+	}
+
+	@Test
+	public void should_return_empty_read_only_collections_for_span_without_tags_and_logs() throws IOException {
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+
+		then(span.tags()).isEmpty();
+		then(span.logs()).isEmpty();
+		then(span.getBaggage()).isEmpty();
+		then(span.baggageItems()).isEmpty();
+	}
+
 	@Test
 	public void should_convert_a_span_to_builder() throws IOException {
 		Span.SpanBuilder spanBuilder = builder();
@@ -284,6 +362,116 @@ public class SpanTests {
 		assertThat(span).isEqualTo(span2);
 	}
 
+	@Test
+	public void should_cache_hex_representations_of_ids() {
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).parent(3L).build();
+
+		then(span.traceIdString()).isEqualTo("0000000000000001")
+				.isSameAs(span.traceIdString());
+		then(span.spanIdString()).isEqualTo("0000000000000002")
+				.isSameAs(span.spanIdString());
+		then(span.parentIdString()).isEqualTo("0000000000000003")
+				.isSameAs(span.parentIdString());
+	}
+
+	@Test
+	public void should_return_null_parent_id_string_for_root_span() {
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+
+		then(span.parentIdString()).isNull();
+	}
+
+	@Test
+	public void should_reuse_received_hex_ids_of_canonical_length() {
+		String traceId = "48485a3953bb61240000000000000001";
+		String spanId = "0000000000000002";
+
+		Span span = Span.builder().name("http:name")
+				.traceIdHigh(Span.hexToId(traceId, 0)).traceId(Span.hexToId(traceId))
+				.traceIdString(traceId).spanId(2L).spanIdString(spanId).build();
+
+		then(span.traceIdString()).isSameAs(traceId);
+		then(span.spanIdString()).isSameAs(spanId);
+	}
+
+	@Test
+	public void should_encode_ids_again_when_received_hex_ids_are_not_of_canonical_length() {
+		Span span = Span.builder().name("http:name").traceId(1L).traceIdString("1")
+				.spanId(2L).spanIdString("2").parent(3L).parentIdString("3").build();
+
+		then(span.traceIdString()).isEqualTo("0000000000000001");
+		then(span.spanIdString()).isEqualTo("0000000000000002");
+		then(span.parentIdString()).isEqualTo("0000000000000003");
+	}
+
+	@Test
+	public void should_render_deferred_tags_only_when_tags_are_read() {
+		AtomicLong renderings = new AtomicLong();
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+
+		span.deferredTag("http.url", () -> {
+			renderings.incrementAndGet();
+			return "http://localhost/foo";
+		});
+		span.deferredTag("http.empty", () -> "");
+
+		then(renderings.get()).isZero();
+		then(span.tags()).containsEntry("http.url", "http://localhost/foo")
+				.doesNotContainKey("http.empty");
+		then(span.tags()).containsEntry("http.url", "http://localhost/foo");
+		then(renderings.get()).isEqualTo(1L);
+	}
+
+	@Test
+	public void should_keep_the_last_value_of_a_deferred_tag() {
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+
+		span.deferredTag("deferred", () -> "deferred");
+		span.tag("deferred", "eager");
+		span.tag("eager", "eager");
+		span.deferredTag("eager", () -> "deferred");
+
+		then(span.tags()).containsEntry("deferred", "eager")
+				.containsEntry("eager", "deferred");
+	}
+
+	@Test
+	public void should_not_render_deferred_tags_when_copying_a_span() {
+		AtomicLong renderings = new AtomicLong();
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+		span.deferredTag("http.url", () -> {
+			renderings.incrementAndGet();
+			return "http://localhost/foo";
+		});
+
+		Span copy = Span.builder().from(span).build();
+		Span withoutTags = Span.builder().from(span)
+				.tags(Collections.<String, String>emptyMap()).build();
+
+		then(renderings.get()).isZero();
+		then(withoutTags.tags()).isEmpty();
+		then(renderings.get()).isZero();
+		then(copy.tags()).containsEntry("http.url", "http://localhost/foo");
+	}
+
+	@Test
+	public void should_check_for_a_tag_without_rendering_deferred_tags() {
+		AtomicLong renderings = new AtomicLong();
+		Span span = Span.builder().name("http:name").traceId(1L).spanId(2L).build();
+		span.tag("eager", "eager");
+		span.deferredTag("http.url", () -> {
+			renderings.incrementAndGet();
+			return "http://localhost/foo";
+		});
+
+		then(span.hasTag("eager")).isTrue();
+		then(span.hasTag("http.url")).isTrue();
+		then(span.hasTag("missing")).isFalse();
+		then(renderings.get()).isZero();
+		then(span.tags()).containsEntry("http.url", "http://localhost/foo");
+		then(span.hasTag("http.url")).isTrue();
+	}
+
 	private Span.SpanBuilder builder() {
 		return Span.builder().name("http:name").traceId(1L).spanId(2L).parent(3L)
 				.begin(1L).end(2L).traceId(3L).exportable(true).parent(4L)
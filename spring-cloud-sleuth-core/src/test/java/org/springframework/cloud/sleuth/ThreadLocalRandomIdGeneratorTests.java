@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
+
+public class ThreadLocalRandomIdGeneratorTests {
+
+	IdGenerator idGenerator = new ThreadLocalRandomIdGenerator();
+
+	@Test
+	public void should_generate_distinct_non_zero_ids() {
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			long id = this.idGenerator.nextId();
+			then(id).isNotEqualTo(0L);
+			ids.add(id);
+		}
+
+		then(ids).hasSize(1000);
+	}
+
+	@Test
+	public void should_encode_epoch_seconds_in_upper_bits_of_trace_id_high() {
+		long traceIdHigh = this.idGenerator.nextTraceIdHigh();
+
+		long epochSeconds = traceIdHigh >>> 32;
+		then(new Date(epochSeconds * 1000)).isToday();
+	}
+}
@@ -15,15 +15,22 @@ package org.springframework.cloud.sleuth.autoconfig;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Random;
+
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
 import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.cloud.sleuth.IdGenerator;
+import org.springframework.cloud.sleuth.RandomIdGenerator;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.log.SleuthLogAutoConfiguration;
 import org.springframework.cloud.sleuth.sampler.NeverSampler;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 public class TraceAutoConfigurationTests {
 
@@ -75,4 +82,42 @@ public class TraceAutoConfigurationTests {
 			}
 		}
 	}
+
+	@Test
+	public void generatesIdsWithThreadLocalRandomByDefault() {
+		context.register(PropertyPlaceholderAutoConfiguration.class,
+				SleuthLogAutoConfiguration.class, TraceAutoConfiguration.class);
+		context.refresh();
+
+		assertThat(context.getBean(IdGenerator.class))
+				.isInstanceOf(ThreadLocalRandomIdGenerator.class);
+	}
+
+	@Test
+	public void registersRandomBeanForApplicationsThatInjectIt() {
+		context.register(PropertyPlaceholderAutoConfiguration.class,
+				SleuthLogAutoConfiguration.class, TraceAutoConfiguration.class);
+		context.refresh();
+
+		assertThat(context.getBean(Random.class)).isNotNull();
+	}
+
+	@Test
+	public void generatesIdsWithCustomIdGeneratorWhenPresent() {
+		context.register(PropertyPlaceholderAutoConfiguration.class,
+				SleuthLogAutoConfiguration.class, TraceAutoConfiguration.class,
+				CustomIdGeneratorConfig.class);
+		context.refresh();
+
+		assertThat(context.getBean(IdGenerator.class))
+				.isInstanceOf(RandomIdGenerator.class);
+		assertThat(context.getBean(Random.class)).isNotNull();
+	}
+
+	@Configuration
+	static class CustomIdGeneratorConfig {
+		@Bean IdGenerator idGenerator() {
+			return new RandomIdGenerator(new Random(1L));
+		}
+	}
 }
@@ -30,6 +30,8 @@ import org.springframework.cloud.sleuth.DefaultSpanNamer;
 import org.springframework.cloud.sleuth.NoOpSpanReporter;
 import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
+import org.springframework.cloud.sleuth.SpanScopes;
 import org.springframework.cloud.sleuth.SpanName;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.TraceCallable;
@@ -185,6 +187,32 @@ public class SpringCloudSleuthDocTests {
 		executorService.shutdown();
 	}
 
+	@Test
+	public void should_put_a_span_in_scope_with_tracer() throws Exception {
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		String taxValue = "10";
+		Span initialSpan = this.tracer.createSpan("calculateTax");
+
+		executorService.submit(() -> {
+					// tag::manual_span_in_scope[]
+					// let's assume that we're in a thread Y and we've received
+					// the `initialSpan` from thread X
+					try (SpanInScope ws = SpanScopes.withSpan(this.tracer, initialSpan)) {
+						// `initialSpan` is the current span until the scope gets closed
+						this.tracer.addTag("taxValue", taxValue);
+					}
+					// whatever span was current in thread Y before is restored
+					// end::manual_span_in_scope[]
+					then(this.tracer.getCurrentSpan()).isNull();
+				}
+		).get();
+
+		this.tracer.close(initialSpan);
+		then(this.tracer.getCurrentSpan()).isNull();
+		then(initialSpan).hasATag("taxValue", taxValue);
+		executorService.shutdown();
+	}
+
 	@Test
 	public void should_start_a_span_with_explicit_parent() throws Exception {
 		ExecutorService executorService = Executors.newSingleThreadExecutor();
@@ -25,6 +25,12 @@ import java.util.Map;
 import org.junit.Test;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
+import org.springframework.messaging.support.MessageBuilder;
 
 /**
  * @author Marcin Grzejszczak
@@ -126,6 +132,62 @@ public class HeaderBasedMessagingExtractorTests {
 		then(span.getSpanId()).isEqualTo(10L);
 	}
 
+	@Test
+	public void joinsTheTraceFromTheSingleB3Header() {
+		HeaderBasedMessagingExtractor extractor = new HeaderBasedMessagingExtractor();
+		SpanTextMap spanTextMap = spanTextMap();
+		spanTextMap.put(B3SingleFormat.NAME, Span.idToHex(20L) + "-" + Span.idToHex(10L) + "-1");
+		spanTextMap.put(TraceMessageHeaders.SPAN_NAME_NAME, "foo");
+
+		Span span = extractor.joinTrace(spanTextMap);
+
+		then(span).isExportable().isShared();
+		then(span.getTraceId()).isEqualTo(20L);
+		then(span.getSpanId()).isEqualTo(10L);
+		then(span.getName()).isEqualTo("foo");
+	}
+
+	@Test
+	public void joinsTheTraceFromTheTraceparentHeaderWhenEnabled() {
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setTraceparent(true);
+		HeaderBasedMessagingExtractor extractor = new HeaderBasedMessagingExtractor(
+				new ThreadLocalRandomIdGenerator(), propagation);
+		SpanTextMap spanTextMap = spanTextMap();
+		spanTextMap.put(TraceparentFormat.NAME,
+				"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00");
+
+		Span span = extractor.joinTrace(spanTextMap);
+
+		then(span).isNotExportable().isNotShared();
+		then(span.traceIdString()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+		then(new HeaderBasedMessagingExtractor().joinTrace(spanTextMap)).isNull();
+	}
+
+	@Test
+	public void joinsTheTraceFromTheBinaryHeaderWhenEnabled() {
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setBinary(true);
+		HeaderBasedMessagingExtractor extractor = new HeaderBasedMessagingExtractor(
+				new ThreadLocalRandomIdGenerator(), propagation);
+		Span sent = Span.builder().traceIdHigh(1L).traceId(2L).spanId(3L).parent(4L)
+				.exportable(true).build();
+		MessagingTextMap textMap = new MessagingTextMap(MessageBuilder.withPayload("hello")
+				.setHeader(BinaryFormat.NAME, BinaryFormat.write(sent))
+				.setHeader(TraceMessageHeaders.SPAN_NAME_NAME, "foo")
+				.setHeader("baggage_key", "value"));
+
+		Span span = extractor.joinTrace(textMap);
+
+		then(span).isExportable().isShared();
+		then(span.traceIdString()).isEqualTo(sent.traceIdString());
+		then(span.getSpanId()).isEqualTo(3L);
+		then(span.getParentId()).isEqualTo(4L);
+		then(span.getName()).isEqualTo("foo");
+		then(span.getBaggageItem("key")).isEqualTo("value");
+		then(new HeaderBasedMessagingExtractor().joinTrace(textMap)).isNull();
+	}
+
 	private SpanTextMap spanTextMap() {
 		return new SpanTextMap() {
 			private final Map<String, String> map = new HashMap<>();
@@ -10,6 +10,11 @@ import org.junit.Test;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
 import org.springframework.cloud.sleuth.TraceKeys;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.BDDAssertions.then;
 
@@ -47,6 +52,57 @@ public class HeaderBasedMessagingInjectorTests {
 				.contains(new AbstractMap.SimpleEntry<String, String>("baggage_foo", "bar"));
 	}
 
+	@Test
+	public void should_send_both_formats_during_migration() throws Exception {
+		Span span = Span.builder()
+				.spanId(1L)
+				.traceId(2L)
+				.name("span")
+				.exportable(true)
+				.build();
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setB3Single(true);
+		propagation.setSpanName(false);
+		Map<String, String> holder = new HashMap<>();
+
+		new HeaderBasedMessagingInjector(new TraceKeys(), propagation)
+				.inject(span, textMap(holder));
+
+		then(holder)
+				.containsEntry(B3SingleFormat.NAME, Span.idToHex(2L) + "-" + Span.idToHex(1L) + "-1")
+				.containsEntry(TraceMessageHeaders.TRACE_ID_NAME, Span.idToHex(2L))
+				.containsEntry(TraceMessageHeaders.SPAN_ID_NAME, Span.idToHex(1L))
+				.containsEntry(TraceMessageHeaders.SAMPLED_NAME, Span.SPAN_SAMPLED)
+				.doesNotContainKey(TraceMessageHeaders.SPAN_NAME_NAME);
+	}
+
+	@Test
+	public void should_send_only_the_binary_context_when_text_ids_are_disabled() throws Exception {
+		Span span = Span.builder()
+				.spanId(1L)
+				.traceId(2L)
+				.baggage("foo", "bar")
+				.name("span")
+				.exportable(true)
+				.build();
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setBinary(true);
+		propagation.setB3Multi(false);
+		MessagingTextMap textMap = new MessagingTextMap(MessageBuilder.withPayload("hello"));
+
+		new HeaderBasedMessagingInjector(new TraceKeys(), propagation)
+				.inject(span, textMap);
+
+		MessageHeaders headers = textMap.headers();
+		then((byte[]) headers.get(BinaryFormat.NAME)).containsExactly(BinaryFormat.write(span));
+		then(headers)
+				.containsEntry(TraceMessageHeaders.SPAN_NAME_NAME, "span")
+				.containsEntry("baggage_foo", "bar")
+				.doesNotContainKey(TraceMessageHeaders.TRACE_ID_NAME)
+				.doesNotContainKey(TraceMessageHeaders.SPAN_ID_NAME)
+				.doesNotContainKey(TraceMessageHeaders.SAMPLED_NAME);
+	}
+
 	private SpanTextMap textMap(Map<String, String> textMap) {
 		return new SpanTextMap() {
 			@Override public Iterator<Map.Entry<String, String>> iterator() {
@@ -64,6 +64,23 @@ public class MessagingTextMapTests {
 		assertThat(keys).doesNotContain(NativeMessageHeaderAccessor.NATIVE_HEADERS);
 	}
 
+	@Test
+	public void binaryHeadersAreReadWithoutBuildingTheMessage() {
+		MessageBuilder<String> builder = MessageBuilder.withPayload("foo")
+				.setHeader("existing", "value");
+		MessagingTextMap map = new MessagingTextMap(builder);
+		byte[] context = new byte[] { 1, 2, 3 };
+
+		map.putBinary("context", context);
+		map.put("foo", "bar");
+
+		assertThat(map.headers()).containsEntry("existing", "value")
+				.containsEntry("context", context).containsEntry("foo", "bar");
+		assertThat(map.headers()).isSameAs(map.headers());
+		assertThat(builder.build().getHeaders()).containsEntry("context", context)
+				.containsEntry("existing", "value").containsEntry("foo", "bar");
+	}
+
 	@Test
 	public void nativeHeaders() {
 		Message<String> message = MessageBuilder.withPayload("foo").build();
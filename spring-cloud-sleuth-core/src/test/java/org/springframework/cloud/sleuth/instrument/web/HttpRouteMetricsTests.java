@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class HttpRouteMetricsTests {
+
+	HttpRouteMetrics routeMetrics = new HttpRouteMetrics();
+
+	@Test
+	public void should_aggregate_the_requests_of_a_route() {
+		this.routeMetrics.record("GET /users/{id}", 0, 100, 20);
+		this.routeMetrics.record("GET /users/{id}", 10, 50, 40);
+		this.routeMetrics.record("POST /users", 300, 0, -1);
+
+		HttpRouteMetrics.RouteCounters users = this.routeMetrics.routes()
+				.get("GET /users/{id}");
+		then(users.getRequests()).isEqualTo(2);
+		then(users.getRequestBytes()).isEqualTo(10);
+		then(users.getResponseBytes()).isEqualTo(150);
+		then(users.getCommittedResponses()).isEqualTo(2);
+		then(users.getTimeToFirstByteMicros()).isEqualTo(60);
+		HttpRouteMetrics.RouteCounters post = this.routeMetrics.routes().get("POST /users");
+		then(post.getRequests()).isEqualTo(1);
+		then(post.getCommittedResponses()).isZero();
+	}
+
+	@Test
+	public void should_count_requests_without_a_route_as_unmapped() {
+		this.routeMetrics.record(null, 0, 10, 5);
+
+		then(this.routeMetrics.routes()).containsOnlyKeys(HttpRouteMetrics.UNMAPPED_ROUTE);
+	}
+
+	@Test
+	public void should_not_grow_beyond_the_max_number_of_routes() {
+		HttpRouteMetrics routeMetrics = new HttpRouteMetrics(2);
+
+		for (int i = 0; i < 10; i++) {
+			routeMetrics.record("GET /route" + i, 0, 1, 1);
+		}
+
+		then(routeMetrics.routes()).containsOnlyKeys("GET /route0", "GET /route1",
+				HttpRouteMetrics.OTHER_ROUTE);
+		then(routeMetrics.routes().get(HttpRouteMetrics.OTHER_ROUTE).getRequests())
+				.isEqualTo(8);
+	}
+
+	@Test
+	public void should_name_the_public_metrics_after_the_route() {
+		this.routeMetrics.record("GET /users/{id}", 0, 100, 20);
+
+		then(HttpRoutePublicMetrics.name("GET /users/{id}")).isEqualTo("GET.users.{id}");
+		then(new HttpRoutePublicMetrics(this.routeMetrics).metrics())
+				.extracting("name")
+				.contains("sleuth.http.route.GET.users.{id}.requests",
+						"sleuth.http.route.GET.users.{id}.response.bytes");
+	}
+}
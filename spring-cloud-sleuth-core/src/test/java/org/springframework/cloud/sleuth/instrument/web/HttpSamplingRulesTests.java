@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.sampler.NeverSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class HttpSamplingRulesTests {
+
+	@Test
+	public void should_return_null_when_there_are_no_rules() {
+		then(HttpSamplingRules.EMPTY.sampler("GET", "/foo")).isNull();
+	}
+
+	@Test
+	public void should_pick_the_first_matching_rule() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/checkout/**", 1.0f),
+				new SleuthWebProperties.SamplingRule("/search", 0.001f),
+				new SleuthWebProperties.SamplingRule("/health", 0f),
+				new SleuthWebProperties.SamplingRule("/**", 0f)));
+
+		then(rules.sampler("GET", "/checkout")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "/checkout/cart/1")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "/search")).isInstanceOf(ProbabilityBasedSampler.class);
+		then(rules.sampler("GET", "/health")).isSameAs(NeverSampler.INSTANCE);
+		then(rules.sampler("GET", "/checkouts")).isSameAs(NeverSampler.INSTANCE);
+	}
+
+	@Test
+	public void should_return_null_when_no_rule_matches() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/checkout/**", 1.0f)));
+
+		then(rules.sampler("GET", "/search")).isNull();
+		then(rules.sampler("GET", "/checkouts")).isNull();
+	}
+
+	@Test
+	public void should_match_ant_style_patterns() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/users/*/orders", 1.0f),
+				new SleuthWebProperties.SamplingRule("/**/*.css", 0f)));
+
+		then(rules.sampler("GET", "/users/1/orders")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "/users/1/orders/2")).isNull();
+		then(rules.sampler("GET", "/static/main.css")).isSameAs(NeverSampler.INSTANCE);
+	}
+
+	@Test
+	public void should_take_the_method_into_account() {
+		SleuthWebProperties.SamplingRule post = new SleuthWebProperties.SamplingRule(
+				"/orders", 1.0f);
+		post.setMethod("POST");
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(post,
+				new SleuthWebProperties.SamplingRule("/orders", 0f)));
+
+		then(rules.sampler("POST", "/orders")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("post", "/orders")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "/orders")).isSameAs(NeverSampler.INSTANCE);
+	}
+
+	@Test
+	public void should_cache_the_decision_per_path() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/search", 0.5f)));
+
+		Sampler sampler = rules.sampler("GET", "/search");
+
+		then(rules.sampler("GET", "/search")).isSameAs(sampler);
+	}
+
+	@Test
+	public void should_still_match_when_the_cache_is_full() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/users/**", 1.0f)));
+		for (int i = 0; i < HttpSamplingRules.MAX_CACHED_PATHS; i++) {
+			rules.sampler("GET", "/other/" + i);
+		}
+
+		then(rules.sampler("GET", "/users/1")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "/other/" + HttpSamplingRules.MAX_CACHED_PATHS)).isNull();
+	}
+
+	@Test
+	public void should_match_the_normalized_path() {
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(
+				new SleuthWebProperties.SamplingRule("/search", 1.0f)));
+
+		then(rules.sampler("GET", "/search/")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("GET", "//search")).isInstanceOf(AlwaysSampler.class);
+		then(HttpSamplingRules.normalize("/a//b///c/")).isEqualTo("/a/b/c");
+		then(HttpSamplingRules.normalize("/")).isEqualTo("/");
+		then(HttpSamplingRules.normalize("/a/b")).isSameAs("/a/b");
+	}
+
+	@Test
+	public void should_keep_the_decisions_of_different_methods_apart() {
+		SleuthWebProperties.SamplingRule post = new SleuthWebProperties.SamplingRule(
+				"/orders", 1.0f);
+		post.setMethod("POST");
+		HttpSamplingRules rules = new HttpSamplingRules(Arrays.asList(post));
+
+		then(rules.sampler("GET", "/orders")).isNull();
+		then(rules.sampler("POST", "/orders")).isInstanceOf(AlwaysSampler.class);
+		then(rules.sampler("DELETE", "/orders")).isNull();
+		then(rules.sampler("post", "/orders")).isInstanceOf(AlwaysSampler.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_fail_for_a_rule_without_a_pattern() {
+		List<SleuthWebProperties.SamplingRule> list = new ArrayList<>();
+		list.add(new SleuthWebProperties.SamplingRule());
+		new HttpSamplingRules(list);
+	}
+}
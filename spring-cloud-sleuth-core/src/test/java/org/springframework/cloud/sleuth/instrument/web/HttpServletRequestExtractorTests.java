@@ -20,6 +20,9 @@ import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
 import java.util.Vector;
 import java.util.regex.Pattern;
@@ -31,6 +34,11 @@ import org.mockito.BDDMockito;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 
 @RunWith(MockitoJUnitRunner.class)
 public class HttpServletRequestExtractorTests {
@@ -124,6 +132,101 @@ public class HttpServletRequestExtractorTests {
 		then(span.isShared()).isFalse();
 	}
 
+	@Test
+	public void should_read_baggage_regardless_of_the_case_of_the_prefix() {
+		spanInHeaders();
+		BDDMockito.given(this.request.getHeaderNames())
+				.willReturn(new Vector<>(Arrays.asList(Span.TRACE_ID_NAME,
+						Span.SPAN_ID_NAME, "BAGGAGE-Country-Code", "baggage-user")).elements());
+		BDDMockito.given(this.request.getHeader("BAGGAGE-Country-Code"))
+				.willReturn("FO");
+		BDDMockito.given(this.request.getHeader("baggage-user"))
+				.willReturn("bar");
+
+		Span span = this.extractor.joinTrace(new HttpServletRequestTextMap(this.request));
+
+		then(span.getBaggage()).containsEntry("country-code", "FO")
+				.containsEntry("user", "bar").hasSize(2);
+	}
+
+	@Test
+	public void should_read_baggage_regardless_of_the_case_of_the_prefix_from_any_carrier() {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put(Span.TRACE_ID_NAME, "48485a3953bb6124");
+		headers.put(Span.SPAN_ID_NAME, "48485a3953bb6124");
+		headers.put("Baggage-Foo", "bar");
+		SpanTextMap carrier = new SpanTextMap() {
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return headers.entrySet().iterator();
+			}
+
+			@Override
+			public void put(String key, String value) {
+				headers.put(key, value);
+			}
+		};
+
+		Span span = this.extractor.joinTrace(carrier);
+
+		then(span.getBaggage()).containsEntry("foo", "bar").hasSize(1);
+	}
+
+	@Test
+	public void should_not_resolve_the_path_again_when_it_is_known() {
+		spanInHeaders();
+
+		Span span = this.extractor.joinTrace(
+				new HttpServletRequestTextMap(this.request, "/foo"));
+
+		then(span.getName()).isEqualTo("http:/parent/foo");
+		BDDMockito.verify(this.request, BDDMockito.never()).getRequestURI();
+	}
+
+	@Test
+	public void should_read_the_single_b3_header() {
+		BDDMockito.given(this.request.getHeader(B3SingleFormat.NAME))
+				.willReturn("48485a3953bb6124-48485a3953bb6125-0-48485a3953bb6123");
+
+		Span span = this.extractor.joinTrace(new HttpServletRequestTextMap(this.request));
+
+		then(span.getTraceId()).isEqualTo(Span.hexToId("48485a3953bb6124"));
+		then(span.getSpanId()).isEqualTo(Span.hexToId("48485a3953bb6125"));
+		then(span.getParents()).containsExactly(Span.hexToId("48485a3953bb6123"));
+		then(span.isExportable()).isFalse();
+		then(span.isShared()).isFalse();
+	}
+
+	@Test
+	public void should_fall_back_to_the_multiple_headers_when_b3_is_malformed() {
+		String hex128Bits = spanInHeaders();
+		BDDMockito.given(this.request.getHeader(B3SingleFormat.NAME))
+				.willReturn("invalid");
+
+		Span span = this.extractor.joinTrace(new HttpServletRequestTextMap(this.request));
+
+		then(span.traceIdString()).isEqualTo(hex128Bits);
+		then(span.isShared()).isTrue();
+	}
+
+	@Test
+	public void should_read_the_traceparent_header_when_enabled() {
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setTraceparent(true);
+		ZipkinHttpSpanExtractor extractor = new ZipkinHttpSpanExtractor(
+				Pattern.compile(""), new ThreadLocalRandomIdGenerator(), propagation);
+		BDDMockito.given(this.request.getHeader(TraceparentFormat.NAME))
+				.willReturn("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+		then(this.extractor.joinTrace(new HttpServletRequestTextMap(this.request))).isNull();
+		Span span = extractor.joinTrace(new HttpServletRequestTextMap(this.request));
+
+		then(span.traceIdString()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+		then(span.getSpanId()).isEqualTo(Span.hexToId("b7ad6b7169203331"));
+		then(span.isExportable()).isTrue();
+		then(span.isShared()).isTrue();
+	}
+
 	private String spanInHeaders() {
 		String hex128Bits = "463ac35c9f6413ad48485a3953bb6124";
 		String lower64Bits = "48485a3953bb6124";
@@ -1,5 +1,6 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
+import java.net.URI;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Random;
@@ -53,4 +54,37 @@ public class HttpTraceKeysInjectorUnitTests {
 			.doesNotContainKey("http.content-type");
 		then(tracer.getCurrentSpan()).isNull();
 	}
+
+	@Test
+	public void should_defer_rendering_of_url_path_and_multi_valued_headers() throws Exception {
+		Span span = tracer.createSpan("TestSpan");
+		URI uri = URI.create("http://localhost:8080/foo%20bar?baz=1");
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("User-Agent", "Test");
+		headers.put("Accept", Arrays.asList(MediaType.TEXT_PLAIN_VALUE, MediaType.TEXT_XML_VALUE));
+		this.traceKeys.getHttp().setHeaders(Arrays.asList("Accept", "User-Agent"));
+
+		this.injector.addRequestTags(span, uri, HttpMethod.GET.name(), headers);
+		headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
+
+		tracer.close(span);
+		then(span.tags())
+			.containsEntry("http.url", "http://localhost:8080/foo%20bar?baz=1")
+			.containsEntry("http.host", "localhost")
+			.containsEntry("http.path", "/foo bar")
+			.containsEntry("http.method", "GET")
+			.containsEntry("http.user-agent", "Test")
+			.containsEntry("http.accept", "'text/plain','text/xml'");
+	}
+
+	@Test
+	public void should_not_tag_non_exportable_span() throws Exception {
+		Span span = Span.builder().name("TestSpan").traceId(1L).spanId(1L)
+				.exportable(false).build();
+
+		this.injector.addRequestTags(span, URI.create("http://localhost:8080/"),
+				HttpMethod.GET.name(), new HttpHeaders());
+
+		then(span.tags()).isEmpty();
+	}
 }
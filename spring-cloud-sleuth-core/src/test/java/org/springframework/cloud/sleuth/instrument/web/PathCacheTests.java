@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class PathCacheTests {
+
+	@Test
+	public void should_return_the_cached_value() {
+		PathCache<String> cache = new PathCache<>();
+
+		cache.put("/users", "users");
+
+		then(cache.get("/users")).isEqualTo("users");
+		then(cache.get("/orders")).isNull();
+	}
+
+	@Test
+	public void should_keep_caching_new_paths_once_full() {
+		PathCache<Integer> cache = new PathCache<>(10);
+
+		for (int i = 0; i < 1000; i++) {
+			cache.put("/users/" + i, i);
+		}
+
+		then(cache.size()).isLessThanOrEqualTo(10);
+		then(cache.get("/users/999")).isEqualTo(999);
+	}
+
+	@Test
+	public void should_keep_the_paths_that_are_looked_up_when_evicting() {
+		PathCache<Integer> cache = new PathCache<>(4);
+		cache.put("/health", 0);
+
+		for (int i = 0; i < 20; i++) {
+			cache.put("/users/" + i, i);
+			then(cache.get("/health")).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void should_evict_a_single_path_when_all_paths_were_looked_up() {
+		PathCache<Integer> cache = new PathCache<>(4);
+		for (int i = 0; i < 4; i++) {
+			cache.put("/users/" + i, i);
+		}
+
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 4; i++) {
+				cache.get("/users/" + i);
+			}
+			cache.put("/orders/" + round, round);
+
+			then(cache.size()).isEqualTo(4);
+			then(cache.contains("/orders/" + round)).isTrue();
+		}
+	}
+
+	@Test
+	public void should_resume_the_sweep_where_it_stopped() {
+		PathCache<Integer> cache = new PathCache<>(4);
+		for (int i = 0; i < 4; i++) {
+			cache.put("/users/" + i, i);
+			cache.get("/users/" + i);
+		}
+
+		cache.put("/orders/0", 0);
+		cache.put("/orders/1", 1);
+
+		// the first sweep cleared all flags and evicted /users/0, the second one
+		// starts past the slot of /orders/0 and evicts /users/1
+		then(cache.contains("/users/0")).isFalse();
+		then(cache.contains("/users/1")).isFalse();
+		then(cache.contains("/orders/0")).isTrue();
+		then(cache.contains("/orders/1")).isTrue();
+		then(cache.size()).isEqualTo(4);
+	}
+}
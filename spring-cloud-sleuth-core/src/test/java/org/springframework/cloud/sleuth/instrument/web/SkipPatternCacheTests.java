@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class SkipPatternCacheTests {
+
+	@Test
+	public void should_return_the_decision_of_the_skip_pattern() {
+		SkipPatternCache cache = new SkipPatternCache(
+				Pattern.compile(SleuthWebProperties.DEFAULT_SKIP_PATTERN));
+
+		then(cache.shouldSkip("/health")).isTrue();
+		then(cache.shouldSkip("/health")).isTrue();
+		then(cache.shouldSkip("/users/1")).isFalse();
+		then(cache.shouldSkip("/users/1")).isFalse();
+		then(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_not_grow_beyond_the_max_size() {
+		SkipPatternCache cache = new SkipPatternCache(Pattern.compile("/health"), 10);
+
+		for (int i = 0; i < 1000; i++) {
+			then(cache.shouldSkip("/users/" + i)).isFalse();
+		}
+
+		then(cache.size()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	public void should_keep_the_paths_that_are_looked_up_when_evicting() {
+		SkipPatternCache cache = new SkipPatternCache(Pattern.compile("/health"), 4);
+		cache.shouldSkip("/health");
+
+		for (int i = 0; i < 20; i++) {
+			cache.shouldSkip("/users/" + i);
+			then(cache.isCached("/health")).isTrue();
+			then(cache.shouldSkip("/health")).isTrue();
+		}
+
+		then(cache.size()).isLessThanOrEqualTo(4);
+		then(cache.isCached("/users/0")).isFalse();
+	}
+}
@@ -16,11 +16,18 @@
 
 package org.springframework.cloud.sleuth.instrument.web;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -54,8 +61,10 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.StreamUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.assertThat;
 import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.entry;
@@ -129,6 +138,33 @@ public class TraceFilterTests {
 		then(TestSpanContextHolder.getCurrentSpan()).isNull();
 	}
 
+	@Test
+	public void doesNotTagNorLogANonExportableSpan() throws Exception {
+		this.sampler = NeverSampler.INSTANCE;
+		TraceFilter filter = new TraceFilter(beanFactory());
+
+		filter.doFilter(this.request, this.response, this.filterChain);
+
+		then(this.span.isExportable()).isFalse();
+		then(this.span.tags()).isEmpty();
+		then(this.span.logs()).isEmpty();
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+	}
+
+	@Test
+	public void usesTheSamplerOfTheMatchingSamplingRule() throws Exception {
+		SleuthWebProperties webProperties = new SleuthWebProperties();
+		webProperties.getSamplingRules().add(new SleuthWebProperties.SamplingRule("/", 0f));
+		BeanFactory beanFactory = beanFactory();
+		BDDMockito.given(beanFactory.getBean(SleuthWebProperties.class)).willReturn(webProperties);
+		TraceFilter filter = new TraceFilter(beanFactory);
+
+		filter.doFilter(this.request, this.response, this.filterChain);
+
+		then(this.span.isExportable()).isFalse();
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+	}
+
 	@Test
 	public void startsNewTrace() throws Exception {
 		TraceFilter filter = new TraceFilter(beanFactory());
@@ -352,6 +388,87 @@ public class TraceFilterTests {
 				.hasASpanWithTagEqualTo(Span.SPAN_ERROR_TAG_NAME, "Planned");
 	}
 
+	@Test
+	public void closesSpanOnceWhenAsyncProcessingCompletes() throws Exception {
+		this.request.setAsyncSupported(true);
+		TraceFilter filter = new TraceFilter(beanFactory());
+
+		filter.doFilter(this.request, this.response, new MockFilterChain(new AsyncServlet()));
+
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+		then(this.spanReporter.getSpans()).isEmpty();
+
+		this.response.setStatus(503);
+		this.request.getAsyncContext().complete();
+		this.request.getAsyncContext().complete();
+
+		then(this.spanReporter.getSpans()).hasSize(1);
+		then(this.spanReporter.getSpans().get(0))
+				.hasLoggedAnEvent(Span.SERVER_SEND)
+				.hasATag("http.status_code", "503");
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+	}
+
+	@Test
+	public void closesSpanWhenAsyncDispatchEndsTheAsyncProcessing() throws Exception {
+		this.request.setAsyncSupported(true);
+		TraceFilter filter = new TraceFilter(beanFactory());
+		filter.doFilter(this.request, this.response, new MockFilterChain(new AsyncServlet()));
+
+		this.request.setDispatcherType(DispatcherType.ASYNC);
+		this.request.setAsyncStarted(false);
+		filter.doFilter(this.request, this.response, new MockFilterChain());
+
+		then(this.spanReporter.getSpans()).hasSize(1);
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+
+		this.request.getAsyncContext().complete();
+
+		then(this.spanReporter.getSpans()).hasSize(1);
+	}
+
+	@Test
+	public void closesSpanOnTheErrorDispatchThatFollowsAFailedAsyncDispatch() throws Exception {
+		this.request.setAsyncSupported(true);
+		TraceFilter filter = new TraceFilter(beanFactory());
+		filter.doFilter(this.request, this.response, new MockFilterChain(new AsyncServlet()));
+
+		this.request.setDispatcherType(DispatcherType.ASYNC);
+		this.request.setAsyncStarted(false);
+		try {
+			filter.doFilter(this.request, this.response, new MockFilterChain(new FailingServlet()));
+			fail("should throw an exception");
+		}
+		catch (RuntimeException e) {
+			then(e).hasMessage("Planned");
+		}
+
+		then(this.spanReporter.getSpans()).isEmpty();
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+
+		this.request.setDispatcherType(DispatcherType.ERROR);
+		this.response.setStatus(500);
+		filter.doFilter(this.request, this.response, new MockFilterChain());
+
+		then(this.spanReporter.getSpans()).hasSize(1);
+		Span reported = this.spanReporter.getSpans().get(0);
+		then(reported)
+				.hasLoggedAnEvent(Span.SERVER_SEND)
+				.hasATag("http.status_code", "500")
+				.hasATag(Span.SPAN_ERROR_TAG_NAME, "Planned");
+		then(TestSpanContextHolder.getCurrentSpan()).isNull();
+
+		AtomicReference<Span> spanInScope = new AtomicReference<>();
+		filter.doFilter(this.request, this.response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) {
+				spanInScope.set(TestSpanContextHolder.getCurrentSpan());
+			}
+		}));
+
+		then(spanInScope.get()).isNotEqualTo(reported);
+	}
+
 	@Test
 	public void detachesSpanWhenResponseStatusIsNot2xx() throws Exception {
 		this.request = builder().header(Span.SPAN_ID_NAME, PARENT_ID)
@@ -553,6 +670,80 @@ public class TraceFilterTests {
 		}
 	}
 
+	@Test
+	public void tagsTheSizesOfTheExchangeAndTheTimeToFirstByte() throws Exception {
+		this.request.setContent("request".getBytes());
+		TraceFilter filter = new TraceFilter(beanFactory());
+
+		filter.doFilter(this.request, this.response, new MockFilterChain(new EchoServlet()));
+
+		then(this.spanReporter.getSpans()).hasSize(1);
+		then(this.spanReporter.getSpans().get(0))
+				.hasATag("http.request.size", "7")
+				.hasATag("http.response.size", "7")
+				.hasATagWithKey("http.ttfb");
+	}
+
+	@Test
+	public void aggregatesTheExchangesPerRouteRegardlessOfSampling() throws Exception {
+		this.sampler = NeverSampler.INSTANCE;
+		HttpRouteMetrics routeMetrics = new HttpRouteMetrics();
+		BeanFactory beanFactory = beanFactory();
+		BDDMockito.given(beanFactory.getBean(HttpRouteMetrics.class)).willReturn(routeMetrics);
+		TraceFilter filter = new TraceFilter(beanFactory);
+		this.request.setContent("request".getBytes());
+		this.request.setAttribute(
+				"org.springframework.web.servlet.HandlerMapping.bestMatchingPattern", "/users/{id}");
+
+		filter.doFilter(this.request, this.response, new MockFilterChain(new EchoServlet()));
+
+		then(this.span.tags()).isEmpty();
+		HttpRouteMetrics.RouteCounters counters = routeMetrics.routes().get("GET /users/{id}");
+		then(counters.getRequests()).isEqualTo(1);
+		then(counters.getRequestBytes()).isEqualTo(7);
+		then(counters.getResponseBytes()).isEqualTo(7);
+		then(counters.getCommittedResponses()).isEqualTo(1);
+	}
+
+	@Test
+	public void doesNotWrapTheExchangeOfASpanThatIsNotExportedWithoutRouteMetrics() throws Exception {
+		this.sampler = NeverSampler.INSTANCE;
+		TraceFilter filter = new TraceFilter(beanFactory());
+		MockFilterChain filterChain = new MockFilterChain();
+
+		filter.doFilter(this.request, this.response, filterChain);
+
+		then(filterChain.getRequest()).isSameAs(this.request);
+		then(filterChain.getResponse()).isSameAs(this.response);
+	}
+
+	@SuppressWarnings("serial")
+	private static class EchoServlet extends HttpServlet {
+		@Override
+		protected void service(HttpServletRequest request, HttpServletResponse response)
+				throws IOException {
+			byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+			response.getOutputStream().write(body);
+			response.flushBuffer();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class FailingServlet extends HttpServlet {
+		@Override
+		protected void service(HttpServletRequest request, HttpServletResponse response) {
+			throw new RuntimeException("Planned");
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class AsyncServlet extends HttpServlet {
+		@Override
+		protected void service(HttpServletRequest request, HttpServletResponse response) {
+			request.startAsync();
+		}
+	}
+
 	private class DelegateSampler implements Sampler {
 		@Override
 		public boolean isSampled(Span span) {
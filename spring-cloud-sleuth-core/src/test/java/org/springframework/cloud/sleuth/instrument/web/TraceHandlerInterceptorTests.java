@@ -25,9 +25,15 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.boot.autoconfigure.web.ErrorController;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 
 /**
@@ -57,4 +63,22 @@ public class TraceHandlerInterceptorTests {
 		BDDMockito.then(this.beanFactory).should(only()).getBean(ErrorController.class);
 	}
 
+	@Test
+	public void should_only_detach_the_spans_when_concurrent_handling_started() throws Exception {
+		Tracer tracer = BDDMockito.mock(Tracer.class);
+		given(this.beanFactory.getBean(Tracer.class)).willReturn(tracer);
+		Span root = Span.builder().traceId(1L).spanId(1L).build();
+		Span handler = Span.builder().traceId(1L).spanId(2L).build();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(TraceFilter.TRACE_REQUEST_ATTR, root);
+		request.setAttribute(TraceRequestAttributes.NEW_SPAN_REQUEST_ATTR, handler);
+
+		this.traceHandlerInterceptor.afterConcurrentHandlingStarted(request,
+				new MockHttpServletResponse(), new Object());
+
+		BDDMockito.then(tracer).should().detach(handler);
+		BDDMockito.then(tracer).should().detach(root);
+		BDDMockito.then(tracer).should(never()).close(any(Span.class));
+	}
+
 }
\ No newline at end of file
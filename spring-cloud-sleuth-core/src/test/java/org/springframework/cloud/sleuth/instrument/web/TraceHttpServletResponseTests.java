@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.io.PrintWriter;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Log;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TraceHttpServletResponseTests {
+
+	Span span = Span.builder().name("http:/").traceId(1L).spanId(1L).build();
+	TraceHttpServletResponse response = new TraceHttpServletResponse(
+			new MockHttpServletResponse(), this.span);
+
+	@Test
+	public void should_hand_out_a_single_output_stream() throws Exception {
+		then(this.response.getOutputStream()).isSameAs(this.response.getOutputStream());
+	}
+
+	@Test
+	public void should_hand_out_a_single_writer() throws Exception {
+		then(this.response.getWriter()).isSameAs(this.response.getWriter());
+	}
+
+	@Test
+	public void should_record_server_send_once_when_the_response_is_committed()
+			throws Exception {
+		this.response.getOutputStream().write(new byte[] { 1, 2, 3 });
+		then(serverSendEvents()).isZero();
+
+		this.response.getOutputStream().flush();
+		this.response.getOutputStream().flush();
+		this.response.flushBuffer();
+		this.response.getOutputStream().close();
+		this.response.commit();
+
+		then(serverSendEvents()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_record_server_send_twice_when_a_previous_dispatch_did_it()
+			throws Exception {
+		this.response.getWriter().flush();
+		TraceHttpServletResponse nextDispatch = new TraceHttpServletResponse(
+				new MockHttpServletResponse(), this.span);
+
+		nextDispatch.getWriter().close();
+
+		then(serverSendEvents()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_record_server_send_for_a_non_exportable_span()
+			throws Exception {
+		Span span = Span.builder().name("http:/").traceId(1L).spanId(1L)
+				.exportable(false).build();
+		TraceHttpServletResponse response = new TraceHttpServletResponse(
+				new MockHttpServletResponse(), span);
+
+		response.flushBuffer();
+
+		then(span.logs()).isEmpty();
+	}
+
+	@Test
+	public void should_record_server_send_when_an_error_is_sent() throws Exception {
+		this.response.sendError(500);
+
+		then(serverSendEvents()).isEqualTo(1);
+		then(this.response.counters().timeToFirstByteMicros()).isNotNegative();
+	}
+
+	@Test
+	public void should_record_server_send_when_a_redirect_is_sent() throws Exception {
+		this.response.sendRedirect("/foo");
+
+		then(serverSendEvents()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_record_server_send_when_the_container_commits_a_full_buffer()
+			throws Exception {
+		MockHttpServletResponse delegate = new MockHttpServletResponse();
+		delegate.setBufferSize(10);
+		TraceHttpServletResponse response = new TraceHttpServletResponse(delegate,
+				this.span);
+		ServletOutputStream outputStream = response.getOutputStream();
+
+		outputStream.write(new byte[5]);
+		then(serverSendEvents()).isZero();
+
+		outputStream.write(new byte[10]);
+		then(delegate.isCommitted()).isTrue();
+		then(serverSendEvents()).isEqualTo(1);
+		then(response.counters().timeToFirstByteMicros()).isNotNegative();
+	}
+
+	private int serverSendEvents() {
+		int events = 0;
+		for (Log log : this.span.logs()) {
+			if (Span.SERVER_SEND.equals(log.getEvent())) {
+				events++;
+			}
+		}
+		return events;
+	}
+
+	@Test
+	public void should_count_the_bytes_written_to_the_output_stream() throws Exception {
+		ServletOutputStream outputStream = this.response.getOutputStream();
+
+		outputStream.write(1);
+		outputStream.write(new byte[] { 1, 2, 3 });
+		outputStream.write(new byte[] { 1, 2, 3, 4, 5 }, 1, 2);
+		outputStream.print("abc");
+		outputStream.println(42);
+
+		then(this.response.counters().responseBytes).isEqualTo(1 + 3 + 2 + 3 + 4);
+	}
+
+	@Test
+	public void should_count_the_characters_written_to_the_writer() throws Exception {
+		PrintWriter writer = this.response.getWriter();
+
+		writer.write('a');
+		writer.write("bcd");
+		writer.print(true);
+		writer.printf("%d", 123);
+		writer.append("xy");
+
+		then(this.response.counters().responseBytes).isEqualTo(1 + 3 + 4 + 3 + 2);
+	}
+
+	@Test
+	public void should_record_the_time_to_first_byte_once_the_response_is_committed()
+			throws Exception {
+		then(this.response.counters().timeToFirstByteMicros()).isEqualTo(-1);
+
+		this.response.flushBuffer();
+
+		then(this.response.counters().timeToFirstByteMicros()).isNotNegative();
+	}
+
+	@Test
+	public void should_count_the_bytes_read_from_the_request() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setContent("hello world".getBytes());
+		HttpExchangeCounters counters = new HttpExchangeCounters();
+		TraceHttpServletRequest tracedRequest = new TraceHttpServletRequest(request,
+				counters);
+		ServletInputStream inputStream = tracedRequest.getInputStream();
+
+		inputStream.read();
+		inputStream.read(new byte[4]);
+		inputStream.skip(2);
+		inputStream.read(new byte[10]);
+		inputStream.read();
+
+		then(tracedRequest.getInputStream()).isSameAs(inputStream);
+		then(counters.requestBytes).isEqualTo(11);
+	}
+}
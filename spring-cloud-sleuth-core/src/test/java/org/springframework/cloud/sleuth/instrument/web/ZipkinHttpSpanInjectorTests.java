@@ -1,13 +1,17 @@
 package org.springframework.cloud.sleuth.instrument.web;
 
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 import org.junit.Test;
+import org.springframework.cloud.sleuth.LookupSpanTextMap;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanTextMap;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
 
 import static org.assertj.core.api.BDDAssertions.then;
 
@@ -45,6 +49,83 @@ public class ZipkinHttpSpanInjectorTests {
 				.contains(new AbstractMap.SimpleEntry<String, String>("baggage-foo", "bar"));
 	}
 
+	@Test
+	public void should_write_to_a_lookup_carrier_without_iterating_over_it() throws Exception {
+		Span span = Span.builder()
+				.spanId(1L)
+				.traceId(2L)
+				.baggage("foo", "bar")
+				.name("span")
+				.build();
+		final Map<String, String> holder = new HashMap<>();
+		holder.put("x-b3-spanid", Span.idToHex(10L));
+		LookupSpanTextMap map = new LookupSpanTextMap() {
+			@Override public String get(String name) {
+				return holder.get(name.toLowerCase());
+			}
+
+			@Override public Iterator<String> names() {
+				throw new AssertionError("Should not iterate over the carrier");
+			}
+
+			@Override public Iterator<Map.Entry<String, String>> iterator() {
+				throw new AssertionError("Should not iterate over the carrier");
+			}
+
+			@Override public void put(String key, String value) {
+				holder.put(key.toLowerCase(), value);
+			}
+		};
+
+		injector.inject(span, map);
+
+		then(holder)
+				.containsEntry("x-b3-spanid", Span.idToHex(10L))
+				.containsEntry("x-b3-traceid", Span.idToHex(2L))
+				.containsEntry("x-b3-sampled", Span.SPAN_SAMPLED)
+				.containsEntry("x-span-name", "span")
+				.containsEntry("baggage-foo", "bar")
+				.doesNotContainKey("x-b3-parentspanid");
+	}
+
+	@Test
+	public void should_send_only_the_single_b3_header_when_configured() throws Exception {
+		Span span = Span.builder()
+				.spanId(1L)
+				.traceId(2L)
+				.parent(3L)
+				.name("span")
+				.build();
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.setB3Single(true);
+		propagation.setB3Multi(false);
+		propagation.setSpanName(false);
+		Map<String, String> holder = new HashMap<>();
+
+		new ZipkinHttpSpanInjector(propagation).inject(span, textMap(holder));
+
+		then(holder).containsOnly(new AbstractMap.SimpleEntry<String, String>(
+				B3SingleFormat.NAME, "0000000000000002-0000000000000001-1-0000000000000003"));
+	}
+
+	@Test
+	public void should_send_only_the_whitelisted_baggage() throws Exception {
+		Span span = Span.builder()
+				.spanId(1L)
+				.traceId(2L)
+				.baggage("country-code", "FO")
+				.baggage("user-id", "1234")
+				.build();
+		SleuthProperties.Propagation propagation = new SleuthProperties.Propagation();
+		propagation.getBaggage().setWhitelist(Collections.singletonList("country-code"));
+		Map<String, String> holder = new HashMap<>();
+
+		new ZipkinHttpSpanInjector(propagation).inject(span, textMap(holder));
+
+		then(holder).containsEntry("baggage-country-code", "FO")
+				.doesNotContainKey("baggage-user-id");
+	}
+
 	private SpanTextMap textMap(Map<String, String> textMap) {
 		return new SpanTextMap() {
 			@Override public Iterator<Map.Entry<String, String>> iterator() {
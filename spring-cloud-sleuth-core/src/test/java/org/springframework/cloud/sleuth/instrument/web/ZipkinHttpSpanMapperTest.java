@@ -57,6 +57,8 @@ public class ZipkinHttpSpanMapperTest {
 				new Object[] { Span.PARENT_ID_NAME, "parent", true },
 				new Object[] { Span.SAMPLED_NAME, "sampled", true },
 				new Object[] { URI_HEADER, "uri", true },
+				new Object[] { "baggage-foo", "bar", true },
+				new Object[] { "Baggage-Foo", "bar", true },
 				new Object[] { UUID.randomUUID().toString(), UUID.randomUUID().toString(),
 						false },
 				new Object[] { Span.SPAN_ID_NAME, null, false },
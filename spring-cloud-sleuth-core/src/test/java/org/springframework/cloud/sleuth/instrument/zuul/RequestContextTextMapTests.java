@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.zuul;
+
+import java.util.regex.Pattern;
+
+import com.netflix.zuul.context.RequestContext;
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.instrument.web.ZipkinHttpSpanExtractor;
+
+import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
+
+public class RequestContextTextMapTests {
+
+	RequestContext requestContext = new RequestContext();
+
+	@Test
+	public void should_look_up_headers_ignoring_their_case() {
+		this.requestContext.addZuulRequestHeader(Span.TRACE_ID_NAME, "48485a3953bb6124");
+
+		RequestContextTextMap textMap = new RequestContextTextMap(this.requestContext);
+
+		then(textMap.get(Span.TRACE_ID_NAME)).isEqualTo("48485a3953bb6124");
+		then(textMap.get("x-b3-traceid")).isEqualTo("48485a3953bb6124");
+		then(textMap.get(Span.SPAN_ID_NAME)).isNull();
+	}
+
+	@Test
+	public void should_join_the_trace_from_the_zuul_request_headers() {
+		this.requestContext.addZuulRequestHeader(Span.TRACE_ID_NAME, "48485a3953bb6124");
+		this.requestContext.addZuulRequestHeader(Span.SPAN_ID_NAME, "48485a3953bb6125");
+		this.requestContext.addZuulRequestHeader(Span.SAMPLED_NAME, Span.SPAN_SAMPLED);
+		this.requestContext.addZuulRequestHeader("baggage-foo", "bar");
+
+		Span span = new ZipkinHttpSpanExtractor(Pattern.compile(""))
+				.joinTrace(new RequestContextTextMap(this.requestContext));
+
+		then(span.getTraceId()).isEqualTo(Span.hexToId("48485a3953bb6124"));
+		then(span.getSpanId()).isEqualTo(Span.hexToId("48485a3953bb6125"));
+		then(span.getBaggage()).containsEntry("foo", "bar");
+		then(span.isShared()).isTrue();
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AdaptiveSamplerTests {
+
+	private static Random RANDOM = new Random();
+
+	long nanoTime = 1000L;
+	ReporterBackPressure backPressure = new ReporterBackPressure() {
+		@Override long nanoTime() {
+			return AdaptiveSamplerTests.this.nanoTime;
+		}
+	};
+	Sampler sampler = new AdaptiveSampler(new AlwaysSampler(), this.backPressure);
+
+	@Test
+	public void should_sample_like_the_delegate_when_there_is_no_pressure() throws Exception {
+		then(countNumberOfSampledElements(1000)).isEqualTo(1000);
+
+		nextSecond();
+
+		then(countNumberOfSampledElements(1000)).isEqualTo(1000);
+		then(this.backPressure.getRatio()).isEqualTo(1.0f);
+	}
+
+	@Test
+	public void should_not_sample_what_the_delegate_does_not_sample() throws Exception {
+		Sampler sampler = new AdaptiveSampler(NeverSampler.INSTANCE, this.backPressure);
+
+		then(sampler.isSampled(span())).isFalse();
+	}
+
+	@Test
+	public void should_halve_the_rate_when_spans_got_dropped() throws Exception {
+		this.backPressure.spansDropped(5);
+
+		nextSecond();
+		then(this.backPressure.getRatio()).isEqualTo(0.5f);
+		then(countNumberOfSampledElements(100000)).isBetween(45000, 55000);
+
+		this.backPressure.spansDropped(1);
+		nextSecond();
+		then(this.backPressure.getRatio()).isEqualTo(0.25f);
+	}
+
+	@Test
+	public void should_lower_the_rate_when_the_queue_is_filling_up() throws Exception {
+		this.backPressure.queuedSpans(800, 1000);
+
+		nextSecond();
+
+		then(this.backPressure.getRatio()).isEqualTo(0.5f);
+	}
+
+	@Test
+	public void should_keep_the_rate_while_the_queue_is_half_full() throws Exception {
+		this.backPressure.spansDropped(1);
+		nextSecond();
+		this.backPressure.queuedSpans(500, 1000);
+
+		nextSecond();
+
+		then(this.backPressure.getRatio()).isEqualTo(0.5f);
+	}
+
+	@Test
+	public void should_recover_when_the_pressure_eases() throws Exception {
+		this.backPressure.spansDropped(1);
+		nextSecond();
+		then(this.backPressure.getRatio()).isEqualTo(0.5f);
+		this.backPressure.queuedSpans(0, 1000);
+
+		for (int i = 0; i < 5; i++) {
+			nextSecond();
+		}
+
+		then(this.backPressure.getRatio()).isEqualTo(1.0f);
+		then(countNumberOfSampledElements(1000)).isEqualTo(1000);
+	}
+
+	@Test
+	public void should_never_go_below_the_minimal_rate() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			this.backPressure.spansDropped(1);
+			nextSecond();
+		}
+
+		then(this.backPressure.getRatio()).isEqualTo(ReporterBackPressure.MIN_RATIO);
+	}
+
+	private void nextSecond() {
+		this.nanoTime += TimeUnit.SECONDS.toNanos(1);
+		// the rate gets adjusted on a sampling decision
+		this.sampler.isSampled(span());
+	}
+
+	private int countNumberOfSampledElements(int numberOfIterations) {
+		int passedCounter = 0;
+		for (int i = 0; i < numberOfIterations; i++) {
+			boolean passed = this.sampler.isSampled(span());
+			passedCounter = passedCounter + (passed ? 1 : 0);
+		}
+		return passedCounter;
+	}
+
+	private Span span() {
+		long id = RANDOM.nextLong();
+		return Span.builder().traceId(id).spanId(id).build();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class ProbabilityBasedSamplerTests {
+
+	SamplerProperties samplerConfiguration = new SamplerProperties();
+	private static Random RANDOM = new Random();
+
+	@Test
+	public void should_pass_all_samples_when_config_has_1_percentage() throws Exception {
+		this.samplerConfiguration.setPercentage(1f);
+
+		for (int i = 0; i < 10; i++) {
+			then(new ProbabilityBasedSampler(this.samplerConfiguration).isSampled(newSpan()))
+					.isTrue();
+		}
+	}
+
+	@Test
+	public void should_reject_all_samples_when_config_has_0_percentage() throws Exception {
+		this.samplerConfiguration.setPercentage(0f);
+
+		for (int i = 0; i < 10; i++) {
+			then(new ProbabilityBasedSampler(this.samplerConfiguration).isSampled(newSpan()))
+					.isFalse();
+		}
+	}
+
+	@Test
+	public void should_pass_given_percent_of_samples_with_fractional_element() throws Exception {
+		this.samplerConfiguration.setPercentage(0.35f);
+
+		then(countNumberOfSampledElements(1000)).isEqualTo(350);
+	}
+
+	@Test
+	public void should_support_precision_finer_than_one_percent() throws Exception {
+		this.samplerConfiguration.setPercentage(0.0001f);
+
+		then(countNumberOfSampledElements(100000)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_support_precision_of_six_decimal_places() throws Exception {
+		this.samplerConfiguration.setPercentage(0.123456f);
+
+		then(countNumberOfSampledElements(1000000)).isEqualTo(123456);
+	}
+
+	@Test
+	public void should_pass_given_percent_of_samples_when_used_by_many_threads() throws Exception {
+		this.samplerConfiguration.setPercentage(0.1f);
+		final Sampler sampler = new ProbabilityBasedSampler(this.samplerConfiguration);
+		final AtomicInteger passedCounter = new AtomicInteger();
+		int threads = 4;
+		final int iterationsPerThread = 10000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			executor.submit(new Runnable() {
+				@Override public void run() {
+					for (int j = 0; j < iterationsPerThread; j++) {
+						if (sampler.isSampled(newSpan())) {
+							passedCounter.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		then(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		// every stripe is exact in units of 100 samples
+		then(passedCounter.get()).isBetween(4000 - 100 * threads, 4000 + 100 * threads);
+	}
+
+	private int countNumberOfSampledElements(int numberOfIterations) {
+		Sampler sampler = new ProbabilityBasedSampler(this.samplerConfiguration);
+		int passedCounter = 0;
+		for (int i = 0; i < numberOfIterations; i++) {
+			boolean passed = sampler.isSampled(newSpan());
+			passedCounter = passedCounter + (passed ? 1 : 0);
+		}
+		return passedCounter;
+	}
+
+	Span newSpan() {
+		return Span.builder().traceId(RANDOM.nextLong()).build();
+	}
+}
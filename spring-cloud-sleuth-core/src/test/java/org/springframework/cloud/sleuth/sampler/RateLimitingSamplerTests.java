@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class RateLimitingSamplerTests {
+
+	SamplerProperties samplerConfiguration = new SamplerProperties();
+	Span span = Span.builder().traceId(1L).spanId(1L).build();
+	long nanoTime = 1000L;
+	Sampler sampler = new RateLimitingSampler(this.samplerConfiguration) {
+		@Override long nanoTime() {
+			return RateLimitingSamplerTests.this.nanoTime;
+		}
+	};
+
+	@Test
+	public void should_sample_at_most_rate_traces_per_second() throws Exception {
+		this.samplerConfiguration.setRate(10);
+
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_sample_again_after_a_second_passed() throws Exception {
+		this.samplerConfiguration.setRate(10);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+
+		this.nanoTime += TimeUnit.MILLISECONDS.toNanos(999);
+		then(countNumberOfSampledElements(100)).isEqualTo(0);
+
+		this.nanoTime += TimeUnit.MILLISECONDS.toNanos(1);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_handle_nano_time_overflow() throws Exception {
+		this.nanoTime = Long.MAX_VALUE;
+		this.sampler = new RateLimitingSampler(this.samplerConfiguration) {
+			@Override long nanoTime() {
+				return RateLimitingSamplerTests.this.nanoTime;
+			}
+		};
+		this.samplerConfiguration.setRate(10);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+
+		this.nanoTime += TimeUnit.SECONDS.toNanos(1);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_pick_up_rate_changes() throws Exception {
+		this.samplerConfiguration.setRate(10);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+
+		this.samplerConfiguration.setRate(20);
+		then(countNumberOfSampledElements(100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_reject_all_samples_when_rate_is_zero() throws Exception {
+		this.samplerConfiguration.setRate(0);
+
+		then(countNumberOfSampledElements(100)).isEqualTo(0);
+	}
+
+	@Test
+	public void should_reject_all_samples_when_rate_is_not_set() throws Exception {
+		then(countNumberOfSampledElements(100)).isEqualTo(0);
+	}
+
+	private int countNumberOfSampledElements(int numberOfIterations) {
+		int passedCounter = 0;
+		for (int i = 0; i < numberOfIterations; i++) {
+			boolean passed = this.sampler.isSampled(this.span);
+			passedCounter = passedCounter + (passed ? 1 : 0);
+		}
+		return passedCounter;
+	}
+}
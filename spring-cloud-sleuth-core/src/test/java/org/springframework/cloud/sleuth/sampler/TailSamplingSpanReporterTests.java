@@ -0,0 +1,261 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.util.ArrayListSpanAccumulator;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TailSamplingSpanReporterTests {
+
+	ArrayListSpanAccumulator delegate = new ArrayListSpanAccumulator();
+	TailSamplingProperties properties = new TailSamplingProperties();
+	long nanoTime = 1000L;
+
+	@Test
+	public void should_buffer_spans_until_the_local_root_finishes() throws Exception {
+		this.properties.setPercentage(1.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		reporter.report(span(1L, 3L, root));
+
+		then(this.delegate.getSpans()).isEmpty();
+		then(reporter.getBufferedSpans()).isEqualTo(2);
+
+		reporter.report(root);
+
+		then(this.delegate.getSpans()).hasSize(3);
+		then(reporter.getBufferedSpans()).isZero();
+		then(reporter.getKeptTraces()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_drop_fast_traces_without_errors_not_picked_by_the_base_rate() throws Exception {
+		this.properties.setPercentage(0.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		reporter.report(root);
+
+		then(this.delegate.getSpans()).isEmpty();
+		then(reporter.getBufferedSpans()).isZero();
+		then(reporter.getDroppedTraces()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_keep_traces_with_an_error() throws Exception {
+		this.properties.setPercentage(0.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+		Span child = span(1L, 2L, root);
+		child.tag(Span.SPAN_ERROR_TAG_NAME, "boom");
+
+		reporter.report(child);
+		reporter.report(root);
+
+		then(this.delegate.getSpans()).containsExactly(child, root);
+	}
+
+	@Test
+	public void should_keep_slow_traces() throws Exception {
+		this.properties.setPercentage(0.0f);
+		this.properties.setLatencyThreshold(100);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = Span.builder().traceId(1L).spanId(1L).begin(1000L).end(1100L).build();
+
+		reporter.report(span(1L, 2L, root));
+		reporter.report(root);
+
+		then(this.delegate.getSpans()).hasSize(2);
+	}
+
+	@Test
+	public void should_decide_per_trace() throws Exception {
+		this.properties.setPercentage(0.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span firstRoot = span(1L, 1L, null);
+		Span secondRoot = span(2L, 2L, null);
+		Span failing = span(2L, 3L, secondRoot);
+		failing.tag(Span.SPAN_ERROR_TAG_NAME, "boom");
+
+		reporter.report(span(1L, 4L, firstRoot));
+		reporter.report(failing);
+		reporter.report(firstRoot);
+		reporter.report(secondRoot);
+
+		then(this.delegate.getSpans()).containsExactly(failing, secondRoot);
+	}
+
+	@Test
+	public void should_pass_non_exportable_spans_right_away() throws Exception {
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+		Span child = Span.builder().traceId(1L).spanId(2L).parent(1L).savedSpan(root)
+				.exportable(false).build();
+
+		reporter.report(child);
+
+		then(this.delegate.getSpans()).containsExactly(child);
+	}
+
+	@Test
+	public void should_evict_the_trace_when_max_spans_is_reached() throws Exception {
+		this.properties.setPercentage(1.0f);
+		this.properties.setMaxSpans(2);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+		Span otherRoot = span(2L, 2L, null);
+
+		reporter.report(span(1L, 3L, root));
+		reporter.report(span(2L, 4L, otherRoot));
+		reporter.report(span(1L, 5L, root));
+
+		then(reporter.getEvictedTraces()).isEqualTo(1);
+		then(reporter.getBufferedSpans()).isEqualTo(1);
+		then(this.delegate.getSpans()).extracting("spanId").containsExactly(3L, 5L);
+	}
+
+	@Test
+	public void should_evict_the_trace_when_max_spans_per_trace_is_reached() throws Exception {
+		this.properties.setPercentage(1.0f);
+		this.properties.setMaxSpansPerTrace(2);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		reporter.report(span(1L, 3L, root));
+		reporter.report(span(1L, 4L, root));
+
+		then(reporter.getEvictedTraces()).isEqualTo(1);
+		then(reporter.getBufferedSpans()).isZero();
+		then(this.delegate.getSpans()).hasSize(3);
+	}
+
+	@Test
+	public void should_expire_traces_whose_local_root_did_not_finish_in_time() throws Exception {
+		this.properties.setPercentage(1.0f);
+		this.properties.setTraceTimeout(5000);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+		Span otherRoot = span(2L, 2L, null);
+
+		reporter.report(span(1L, 2L, root));
+		this.nanoTime += TimeUnit.SECONDS.toNanos(5);
+		reporter.report(span(2L, 3L, otherRoot));
+
+		then(reporter.getExpiredTraces()).isEqualTo(1);
+		then(reporter.getBufferedSpans()).isEqualTo(1);
+		then(this.delegate.getSpans()).extracting("spanId").containsExactly(2L);
+	}
+
+	@Test
+	public void should_decide_upon_all_traces_on_flush() throws Exception {
+		this.properties.setPercentage(1.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		reporter.flush();
+
+		then(reporter.getBufferedSpans()).isZero();
+		then(this.delegate.getSpans()).hasSize(1);
+	}
+
+	@Test
+	public void should_expire_traces_when_no_spans_get_reported() throws Exception {
+		this.properties.setPercentage(1.0f);
+		this.properties.setTraceTimeout(5000);
+		TailSamplingSpanReporter reporter = reporter();
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		this.nanoTime += TimeUnit.SECONDS.toNanos(5);
+		reporter.expireFragments(this.nanoTime);
+
+		then(reporter.getExpiredTraces()).isEqualTo(1);
+		then(this.delegate.getSpans()).extracting("spanId").containsExactly(2L);
+	}
+
+	@Test
+	public void should_give_late_spans_the_verdict_of_their_trace() throws Exception {
+		this.properties.setPercentage(0.0f);
+		TailSamplingSpanReporter reporter = reporter();
+		Span keptRoot = span(1L, 1L, null);
+		keptRoot.tag(Span.SPAN_ERROR_TAG_NAME, "boom");
+		Span droppedRoot = span(2L, 2L, null);
+
+		reporter.report(keptRoot);
+		reporter.report(droppedRoot);
+		Span lateKept = span(1L, 3L, keptRoot);
+		reporter.report(lateKept);
+		reporter.report(span(2L, 4L, droppedRoot));
+
+		then(this.delegate.getSpans()).containsExactly(keptRoot, lateKept);
+		then(reporter.getBufferedSpans()).isZero();
+		then(reporter.getKeptTraces()).isEqualTo(1);
+		then(reporter.getDroppedTraces()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_flush_and_destroy_the_delegate_when_destroyed() throws Exception {
+		this.properties.setPercentage(1.0f);
+		DisposableReporter delegate = new DisposableReporter();
+		TailSamplingSpanReporter reporter = new TailSamplingSpanReporter(delegate,
+				this.properties);
+		Span root = span(1L, 1L, null);
+
+		reporter.report(span(1L, 2L, root));
+		reporter.destroy();
+
+		then(reporter.getBufferedSpans()).isZero();
+		then(delegate.getSpans()).hasSize(1);
+		then(delegate.destroyed).isTrue();
+	}
+
+	private TailSamplingSpanReporter reporter() {
+		return new TailSamplingSpanReporter(this.delegate, this.properties) {
+			@Override long nanoTime() {
+				return TailSamplingSpanReporterTests.this.nanoTime;
+			}
+		};
+	}
+
+	static class DisposableReporter extends ArrayListSpanAccumulator implements DisposableBean {
+
+		boolean destroyed;
+
+		@Override
+		public void destroy() {
+			this.destroyed = true;
+		}
+	}
+
+	private Span span(long traceId, long spanId, Span localParent) {
+		Span.SpanBuilder builder = Span.builder().traceId(traceId).spanId(spanId);
+		if (localParent != null) {
+			builder.parent(localParent.getSpanId()).savedSpan(localParent);
+		}
+		return builder.build();
+	}
+}
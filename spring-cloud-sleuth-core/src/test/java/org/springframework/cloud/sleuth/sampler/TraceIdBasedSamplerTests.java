@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TraceIdBasedSamplerTests {
+
+	private static Random RANDOM = new Random();
+
+	@Test
+	public void should_pass_all_samples_when_percentage_is_1() throws Exception {
+		Sampler sampler = new TraceIdBasedSampler(1.0f);
+
+		then(sampler.isSampled(span(0L))).isTrue();
+		then(sampler.isSampled(span(-1L))).isTrue();
+		then(sampler.isSampled(span(Long.MAX_VALUE))).isTrue();
+		then(sampler.isSampled(span(Long.MIN_VALUE))).isTrue();
+	}
+
+	@Test
+	public void should_reject_all_samples_when_percentage_is_0() throws Exception {
+		Sampler sampler = new TraceIdBasedSampler(0.0f);
+
+		then(sampler.isSampled(span(0L))).isFalse();
+		then(sampler.isSampled(span(1L))).isFalse();
+		then(sampler.isSampled(span(-1L))).isFalse();
+		then(sampler.isSampled(span(Long.MIN_VALUE))).isFalse();
+	}
+
+	@Test
+	public void should_pass_given_percent_of_random_trace_ids() throws Exception {
+		Sampler sampler = new TraceIdBasedSampler(0.1f);
+		int sampled = 0;
+		for (int i = 0; i < 100000; i++) {
+			if (sampler.isSampled(span(RANDOM.nextLong()))) {
+				sampled++;
+			}
+		}
+
+		then(sampled).isBetween(9000, 11000);
+	}
+
+	@Test
+	public void should_come_to_the_same_verdict_for_the_same_trace_id() throws Exception {
+		SamplerProperties properties = new SamplerProperties();
+		properties.setPercentage(0.5f);
+		Sampler first = new TraceIdBasedSampler(properties);
+		Sampler second = new TraceIdBasedSampler(properties);
+
+		for (int i = 0; i < 1000; i++) {
+			Span span = span(RANDOM.nextLong());
+			then(first.isSampled(span)).isEqualTo(second.isSampled(span));
+			then(first.isSampled(span)).isEqualTo(first.isSampled(span));
+		}
+	}
+
+	@Test
+	public void should_decide_from_the_upper_bits() throws Exception {
+		Sampler sampler = new TraceIdBasedSampler(0.5f);
+
+		then(sampler.isSampled(span(0x3FFFFFFFFFFFFFFFL))).isTrue();
+		then(sampler.isSampled(span(0x8000000000000002L))).isFalse();
+		then(sampler.isSampled(span(0xC000000000000000L))).isFalse();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_invalid_percentage() throws Exception {
+		new TraceIdBasedSampler(1.5f);
+	}
+
+	private Span span(long traceId) {
+		return Span.builder().traceId(traceId).spanId(traceId).build();
+	}
+}
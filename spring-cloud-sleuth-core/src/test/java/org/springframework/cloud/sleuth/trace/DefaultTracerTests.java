@@ -25,7 +25,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.rule.OutputCapture;
 import org.springframework.cloud.sleuth.DefaultSpanNamer;
+import org.springframework.cloud.sleuth.RandomIdGenerator;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanInScope;
 import org.springframework.cloud.sleuth.SpanNamer;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.TraceKeys;
@@ -37,9 +39,11 @@ import org.springframework.cloud.sleuth.sampler.NeverSampler;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
@@ -163,6 +167,37 @@ public class DefaultTracerTests {
 		assertThat(tracer.getCurrentSpan()).isEqualTo(grandParent);
 	}
 
+	@Test
+	public void sampledSpanIsNotCopiedWhenPlacedInContext() {
+		AtomicReference<Span> sampledSpan = new AtomicReference<>();
+		DefaultTracer tracer = new DefaultTracer(span -> {
+			sampledSpan.set(span);
+			return true;
+		}, new Random(), this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+
+		Span span = tracer.createSpan(CREATE_SIMPLE_TRACE);
+
+		then(span).isSameAs(sampledSpan.get());
+		then(tracer.getCurrentSpan()).isSameAs(span);
+		tracer.close(span);
+	}
+
+	@Test
+	public void nonExportableSpanCarriesOnlyIdsAndName() {
+		DefaultTracer tracer = new DefaultTracer(span -> false, new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+
+		Span span = tracer.createSpan(CREATE_SIMPLE_TRACE);
+
+		then(span.isExportable()).isFalse();
+		then(span.getName()).isEqualTo(CREATE_SIMPLE_TRACE);
+		then(span.getSpanId()).isEqualTo(span.getTraceId());
+		then(span.tags()).isEmpty();
+		then(span.logs()).isEmpty();
+		then(tracer.getCurrentSpan()).isSameAs(span);
+		tracer.close(span);
+	}
+
 	@Test
 	public void samplingIsRanAgainstChildSpanWhenThereIsNoParent() {
 		DefaultTracer tracer = new DefaultTracer(new NeverSampler(), new Random(),
@@ -270,6 +305,116 @@ public class DefaultTracerTests {
 		then(this.capture.toString()).doesNotContain("Tried to detach trace span");
 	}
 
+	@Test
+	public void shouldPutSpanInScopeWithoutCopyingItAndRestorePreviousSpanOnClose() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+		Span previous = tracer.createSpan("previous");
+		Span span = Span.builder().name("foo").traceId(1L).spanId(1L).build();
+
+		try (SpanInScope ws = tracer.withSpan(span)) {
+			then(tracer.getCurrentSpan()).isSameAs(span);
+		}
+
+		then(tracer.getCurrentSpan()).isSameAs(previous);
+		verify(this.spanReporter, never()).report(span);
+		tracer.close(previous);
+	}
+
+	@Test
+	public void shouldClearCurrentSpanWithinScopeOfNullSpan() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+		Span previous = tracer.createSpan("previous");
+
+		try (SpanInScope ws = tracer.withSpan(null)) {
+			then(tracer.isTracing()).isFalse();
+		}
+
+		then(tracer.getCurrentSpan()).isSameAs(previous);
+		tracer.close(previous);
+	}
+
+	@Test
+	public void shouldRestorePreviousSpanWhenSpanGotClosedWithinScope() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+		Span span = Span.builder().name("foo").traceId(1L).spanId(1L).build();
+
+		try (SpanInScope ws = tracer.withSpan(span)) {
+			Span child = tracer.createSpan("child");
+			try (SpanInScope ws2 = tracer.withSpan(span)) {
+				tracer.close(span);
+			}
+			then(tracer.getCurrentSpan()).isSameAs(child);
+		}
+
+		then(tracer.isTracing()).isFalse();
+		verify(this.spanReporter).report(span);
+	}
+
+	@Test
+	public void shouldRestoreParentsWhenClosingDeeplyNestedSpans() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+		List<Span> spans = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			spans.add(tracer.createSpan("span" + i));
+		}
+
+		for (int i = spans.size() - 1; i >= 0; i--) {
+			then(tracer.getCurrentSpan()).isSameAs(spans.get(i));
+			tracer.close(spans.get(i));
+		}
+
+		then(tracer.isTracing()).isFalse();
+		verify(this.spanReporter, times(20)).report(Mockito.any(Span.class));
+	}
+
+	@Test
+	public void shouldRestorePreviousSpanWhenSpanGotDetachedWithinScope() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(),
+				this.spanNamer, this.spanLogger, this.spanReporter, new TraceKeys());
+		Span previous = tracer.createSpan("previous");
+		Span span = Span.builder().name("foo").traceId(1L).spanId(1L).build();
+
+		try (SpanInScope ws = tracer.withSpan(span)) {
+			Span continued = tracer.continueSpan(span);
+			tracer.detach(continued);
+		}
+
+		then(tracer.getCurrentSpan()).isSameAs(previous);
+		tracer.close(previous);
+		then(tracer.isTracing()).isFalse();
+	}
+
+	@Test
+	public void shouldBoundTheContextDepthPerTracer() {
+		DefaultTracer bounded = new DefaultTracer(new AlwaysSampler(),
+				new RandomIdGenerator(new Random()), this.spanNamer, this.spanLogger,
+				this.spanReporter, false, new TraceKeys(), 3);
+		DefaultTracer unbounded = new DefaultTracer(new AlwaysSampler(),
+				new RandomIdGenerator(new Random()), this.spanNamer, this.spanLogger,
+				this.spanReporter, false, new TraceKeys());
+
+		for (int i = 0; i < 5; i++) {
+			unbounded.createSpan("unbounded" + i);
+		}
+		then(unbounded.getCurrentContextDepth()).isEqualTo(5);
+
+		bounded.createSpan("bounded");
+
+		then(bounded.getCurrentContextDepth()).isEqualTo(3);
+		then(this.capture.toString()).contains("The thread context holds 5 spans");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectAMaxContextDepthThatIsNotPositive() {
+		new DefaultTracer(new AlwaysSampler(), new RandomIdGenerator(new Random()),
+				this.spanNamer, this.spanLogger, this.spanReporter, false,
+				new TraceKeys(), 0);
+	}
+
 	private String bigName() {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < 60; i++) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.trace;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.boot.test.rule.OutputCapture;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class SpanContextHolderTests {
+
+	@Rule public OutputCapture capture = new OutputCapture();
+
+	@After
+	public void clean() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_report_the_depth_of_the_thread_context() {
+		then(SpanContextHolder.depth()).isZero();
+
+		SpanContextHolder.push(span(1L), false, SpanContextHolder.DEFAULT_MAX_DEPTH);
+		SpanContextHolder.push(span(2L), false, SpanContextHolder.DEFAULT_MAX_DEPTH);
+
+		then(SpanContextHolder.depth()).isEqualTo(2);
+
+		SpanContextHolder.close();
+
+		then(SpanContextHolder.depth()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_drop_the_oldest_spans_and_warn_once_when_the_max_depth_is_exceeded() {
+		for (long i = 1; i <= 10; i++) {
+			SpanContextHolder.push(span(i), false, 3);
+		}
+
+		then(SpanContextHolder.depth()).isEqualTo(3);
+		then(SpanContextHolder.getCurrentSpan().getSpanId()).isEqualTo(10L);
+		SpanContextHolder.close();
+		SpanContextHolder.close();
+		then(SpanContextHolder.getCurrentSpan().getSpanId()).isEqualTo(8L);
+		String output = this.capture.toString();
+		then(output).contains("The thread context holds 3 spans");
+		then(output.indexOf("The thread context holds"))
+				.isEqualTo(output.lastIndexOf("The thread context holds"));
+	}
+
+	private Span span(long id) {
+		return Span.builder().name("span" + id).traceId(1L).spanId(id).build();
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
+
+public class B3SingleFormatTests {
+
+	String traceId = "463ac35c9f6413ad";
+	String traceId128 = "463ac35c9f6413ad48485a3953bb6124";
+	String spanId = "a2fb4a1d1a96d312";
+	String parentId = "0020000000000001";
+
+	@Test
+	public void should_write_ids_and_sampling_state() {
+		Span span = Span.builder().traceId(Span.hexToId(this.traceId))
+				.spanId(Span.hexToId(this.spanId)).build();
+
+		then(B3SingleFormat.write(span))
+				.isEqualTo(this.traceId + "-" + this.spanId + "-1");
+	}
+
+	@Test
+	public void should_write_128bit_trace_id_and_parent_id() {
+		Span span = Span.builder().traceIdHigh(Span.hexToId(this.traceId128, 0))
+				.traceId(Span.hexToId(this.traceId128)).spanId(Span.hexToId(this.spanId))
+				.parent(Span.hexToId(this.parentId)).exportable(false).build();
+
+		then(B3SingleFormat.write(span)).isEqualTo(
+				this.traceId128 + "-" + this.spanId + "-0-" + this.parentId);
+	}
+
+	@Test
+	public void should_parse_what_was_written() {
+		Span span = Span.builder().traceIdHigh(Span.hexToId(this.traceId128, 0))
+				.traceId(Span.hexToId(this.traceId128)).spanId(Span.hexToId(this.spanId))
+				.parent(Span.hexToId(this.parentId)).build();
+
+		Span parsed = B3SingleFormat.parse(B3SingleFormat.write(span)).build();
+
+		then(parsed.getTraceIdHigh()).isEqualTo(span.getTraceIdHigh());
+		then(parsed.getTraceId()).isEqualTo(span.getTraceId());
+		then(parsed.getSpanId()).isEqualTo(span.getSpanId());
+		then(parsed.getParents()).containsExactly(Span.hexToId(this.parentId));
+	}
+
+	@Test
+	public void should_parse_ids_without_sampling_state() {
+		Span parsed = B3SingleFormat.parse(this.traceId + "-" + this.spanId).build();
+
+		then(parsed.getTraceId()).isEqualTo(Span.hexToId(this.traceId));
+		then(parsed.getSpanId()).isEqualTo(Span.hexToId(this.spanId));
+		then(parsed.getParents()).isEmpty();
+		then(B3SingleFormat.samplingState(this.traceId + "-" + this.spanId))
+				.isEqualTo((char) 0);
+	}
+
+	@Test
+	public void should_return_the_sampling_state() {
+		then(B3SingleFormat.samplingState(this.traceId + "-" + this.spanId + "-d"))
+				.isEqualTo('d');
+		then(B3SingleFormat.samplingState(
+				this.traceId128 + "-" + this.spanId + "-0-" + this.parentId))
+				.isEqualTo('0');
+		then(B3SingleFormat.samplingState("1")).isEqualTo('1');
+		then(B3SingleFormat.samplingState(null)).isEqualTo((char) 0);
+	}
+
+	@Test
+	public void should_not_parse_a_sampling_state_only_value() {
+		then(B3SingleFormat.parse("0")).isNull();
+	}
+
+	@Test
+	public void should_not_parse_malformed_values() {
+		then(B3SingleFormat.parse(null)).isNull();
+		then(B3SingleFormat.parse("")).isNull();
+		then(B3SingleFormat.parse(this.traceId)).isNull();
+		then(B3SingleFormat.parse(this.traceId + "-" + this.spanId + "-")).isNull();
+		then(B3SingleFormat.parse(this.traceId + "-" + this.spanId + "-x")).isNull();
+		then(B3SingleFormat.parse(this.traceId + "-" + this.spanId + "-1-")).isNull();
+		then(B3SingleFormat.parse(this.traceId + "-" + this.spanId + "-1-123")).isNull();
+		then(B3SingleFormat.parse(this.traceId + "-" + this.spanId.toUpperCase()))
+				.isNull();
+		then(B3SingleFormat.parse(this.traceId + "_" + this.spanId)).isNull();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.autoconfig.SleuthProperties;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class BaggageLimiterTests {
+
+	SleuthProperties.Baggage limits = new SleuthProperties.Baggage();
+
+	@Test
+	public void should_accept_everything_within_the_default_limits() {
+		BaggageLimiter limiter = new BaggageLimiter(this.limits);
+
+		then(limiter.tryAccept("foo", "bar")).isTrue();
+		then(limiter.tryAccept("baz", null)).isTrue();
+	}
+
+	@Test
+	public void should_drop_items_above_the_max_number_of_entries() {
+		this.limits.setMaxEntries(1);
+		BaggageLimiter limiter = new BaggageLimiter(this.limits);
+
+		then(limiter.tryAccept("foo", "bar")).isTrue();
+		then(limiter.tryAccept("baz", "qux")).isFalse();
+	}
+
+	@Test
+	public void should_drop_items_that_would_exceed_the_max_bytes() {
+		this.limits.setMaxBytes(10);
+		BaggageLimiter limiter = new BaggageLimiter(this.limits);
+
+		then(limiter.tryAccept("foo", "bar")).isTrue();
+		then(limiter.tryAccept("baz", "quxx")).isFalse();
+		then(limiter.tryAccept("a", "b")).isTrue();
+	}
+
+	@Test
+	public void should_only_accept_whitelisted_keys() {
+		this.limits.setWhitelist(Arrays.asList("Country-Code"));
+		BaggageLimiter limiter = new BaggageLimiter(this.limits);
+
+		then(limiter.tryAccept("country-code", "FO")).isTrue();
+		then(limiter.tryAccept("foo", "bar")).isFalse();
+	}
+}
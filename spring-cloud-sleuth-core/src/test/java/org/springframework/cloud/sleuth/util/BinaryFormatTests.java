@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
+
+public class BinaryFormatTests {
+
+	@Test
+	public void should_write_25_bytes_for_a_64bit_trace_id() {
+		Span span = Span.builder().traceId(1L).spanId(2L).parent(3L).exportable(true)
+				.build();
+
+		byte[] context = BinaryFormat.write(span);
+
+		then(context).hasSize(25);
+		then(context[0]).isEqualTo((byte) 1);
+		then(context[8]).isEqualTo((byte) 1);
+		then(context[16]).isEqualTo((byte) 2);
+		then(context[24]).isEqualTo((byte) 3);
+	}
+
+	@Test
+	public void should_parse_what_was_written() {
+		Span span = Span.builder().traceIdHigh(-1L).traceId(Long.MIN_VALUE)
+				.spanId(-2L).parent(Long.MAX_VALUE).exportable(false).build();
+
+		byte[] context = BinaryFormat.write(span);
+		Span parsed = BinaryFormat.parse(context).build();
+
+		then(context).hasSize(33);
+		then(parsed.getTraceIdHigh()).isEqualTo(-1L);
+		then(parsed.getTraceId()).isEqualTo(Long.MIN_VALUE);
+		then(parsed.getSpanId()).isEqualTo(-2L);
+		then(parsed.getParentId()).isEqualTo(Long.MAX_VALUE);
+		then(BinaryFormat.isSampled(context)).isFalse();
+		then(BinaryFormat.isDebug(context)).isFalse();
+	}
+
+	@Test
+	public void should_not_set_a_parent_when_the_parent_id_is_zero() {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+
+		then(BinaryFormat.parse(BinaryFormat.write(span)).build().hasParent()).isFalse();
+	}
+
+	@Test
+	public void should_read_the_debug_flag() {
+		byte[] context = BinaryFormat.write(Span.builder().traceId(1L).spanId(2L).build());
+		context[0] = 2;
+
+		then(BinaryFormat.isDebug(context)).isTrue();
+		then(BinaryFormat.isSampled(context)).isFalse();
+	}
+
+	@Test
+	public void should_reject_malformed_values() {
+		then(BinaryFormat.parse(null)).isNull();
+		then(BinaryFormat.parse(new byte[24])).isNull();
+		then(BinaryFormat.parse(new byte[26])).isNull();
+		// zero ids
+		then(BinaryFormat.parse(new byte[25])).isNull();
+		then(BinaryFormat.parse(new byte[33])).isNull();
+	}
+}
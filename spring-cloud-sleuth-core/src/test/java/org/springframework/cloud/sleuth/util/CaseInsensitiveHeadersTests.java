@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class CaseInsensitiveHeadersTests {
+
+	@Test
+	public void should_look_up_names_ignoring_the_case() {
+		Map<String, String> headers = new CaseInsensitiveHeaders();
+		headers.put("X-B3-TraceId", "a");
+
+		then(headers.get("x-b3-traceid")).isEqualTo("a");
+		then(headers.get("X-B3-TRACEID")).isEqualTo("a");
+		then(headers.containsKey("X-B3-SpanId")).isFalse();
+		then(headers.get(1)).isNull();
+	}
+
+	@Test
+	public void should_keep_the_first_spelling_and_replace_the_value() {
+		Map<String, String> headers = new CaseInsensitiveHeaders();
+		headers.put("spanId", "a");
+
+		then(headers.put("SPANID", "b")).isEqualTo("a");
+		then(headers).hasSize(1).containsEntry("spanId", "b");
+		then(headers.keySet()).containsExactly("spanId");
+	}
+
+	@Test
+	public void should_grow_and_keep_the_insertion_order() {
+		Map<String, String> headers = new CaseInsensitiveHeaders(1);
+		for (int i = 0; i < 100; i++) {
+			headers.put("Header-" + i, String.valueOf(i));
+		}
+
+		then(headers).hasSize(100);
+		int i = 0;
+		for (Map.Entry<String, String> entry : headers.entrySet()) {
+			then(entry.getKey()).isEqualTo("Header-" + i);
+			then(headers.get("header-" + i)).isEqualTo(String.valueOf(i));
+			i++;
+		}
+	}
+
+	@Test
+	public void should_remove_entries_and_keep_the_order_of_the_others() {
+		Map<String, String> headers = new CaseInsensitiveHeaders(1);
+		for (int i = 0; i < 10; i++) {
+			headers.put("Header-" + i, String.valueOf(i));
+		}
+
+		then(headers.remove("HEADER-3")).isEqualTo("3");
+		then(headers.remove("header-3")).isNull();
+		then(headers.remove(1)).isNull();
+
+		then(headers).hasSize(9).doesNotContainKey("header-3");
+		then(headers.keySet()).containsExactly("Header-0", "Header-1", "Header-2",
+				"Header-4", "Header-5", "Header-6", "Header-7", "Header-8", "Header-9");
+		then(headers.get("header-9")).isEqualTo("9");
+		headers.put("header-3", "again");
+		then(headers.get("Header-3")).isEqualTo("again");
+	}
+
+	@Test
+	public void should_remove_and_update_entries_through_the_iterator() {
+		Map<String, String> headers = new CaseInsensitiveHeaders();
+		headers.put("a", "1");
+		headers.put("b", "2");
+		headers.put("c", "3");
+
+		Iterator<Map.Entry<String, String>> iterator = headers.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, String> entry = iterator.next();
+			if (entry.getKey().equals("b")) {
+				iterator.remove();
+			}
+			else {
+				entry.setValue(entry.getValue() + "0");
+			}
+		}
+
+		then(headers).hasSize(2).containsEntry("A", "10").containsEntry("C", "30");
+		headers.keySet().remove("a");
+		then(headers).containsOnlyKeys("c");
+	}
+
+	@Test
+	public void should_clear_the_entries() {
+		Map<String, String> headers = new CaseInsensitiveHeaders();
+		headers.put("a", "1");
+
+		headers.clear();
+
+		then(headers).isEmpty();
+		then(headers.get("a")).isNull();
+		headers.put("A", "2");
+		then(headers).containsEntry("a", "2");
+	}
+
+	@Test
+	public void should_accept_a_null_name() {
+		Map<String, String> headers = new CaseInsensitiveHeaders();
+
+		headers.put(null, "a");
+
+		then(headers.get(null)).isEqualTo("a");
+		then(headers.containsKey(null)).isTrue();
+		then(headers.remove(null)).isEqualTo("a");
+		then(headers).isEmpty();
+	}
+
+	@Test
+	public void should_only_fold_ascii_letters() {
+		then(CaseInsensitiveHeaders.equalsIgnoreCase("a-b", "A-B")).isTrue();
+		then(CaseInsensitiveHeaders.equalsIgnoreCase("a@", "A`")).isFalse();
+		then(CaseInsensitiveHeaders.hash("Baggage-Foo"))
+				.isEqualTo(CaseInsensitiveHeaders.hash("baggage-foo"));
+	}
+}
@@ -28,4 +28,19 @@ public class TextMapUtilTests {
 				.contains(new AbstractMap.SimpleEntry<>("foo", "bar"));
 	}
 
+	@Test
+	public void should_return_a_modifiable_map() throws Exception {
+		List<Map.Entry<String, String>> iterable = new ArrayList<>();
+		iterable.add(new AbstractMap.SimpleEntry<>("foo", "bar"));
+		iterable.add(new AbstractMap.SimpleEntry<>("baz", "qux"));
+
+		Map<String, String> map = TextMapUtil.asMap(iterable);
+		map.remove("FOO");
+		map.entrySet().iterator().next().setValue("quux");
+
+		then(map).hasSize(1).containsEntry("baz", "quux");
+		map.clear();
+		then(map).isEmpty();
+	}
+
 }
\ No newline at end of file
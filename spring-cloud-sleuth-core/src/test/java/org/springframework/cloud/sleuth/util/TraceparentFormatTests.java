@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.util;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+
+import static org.springframework.cloud.sleuth.assertions.SleuthAssertions.then;
+
+public class TraceparentFormatTests {
+
+	String traceparent = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+	@Test
+	public void should_parse_the_128bit_trace_id_and_the_span_id() {
+		Span span = TraceparentFormat.parse(this.traceparent).build();
+
+		then(span.getTraceIdHigh()).isEqualTo(Span.hexToId("0af7651916cd43dd"));
+		then(span.getTraceId()).isEqualTo(Span.hexToId("8448eb211c80319c"));
+		then(span.getSpanId()).isEqualTo(Span.hexToId("b7ad6b7169203331"));
+		then(TraceparentFormat.isSampled(this.traceparent)).isTrue();
+	}
+
+	@Test
+	public void should_read_the_sampled_flag() {
+		then(TraceparentFormat.isSampled(
+				"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00")).isFalse();
+		then(TraceparentFormat.isSampled(
+				"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-03")).isTrue();
+	}
+
+	@Test
+	public void should_write_what_was_parsed() {
+		Span span = TraceparentFormat.parse(this.traceparent).build();
+
+		then(TraceparentFormat.write(span)).isEqualTo(this.traceparent);
+	}
+
+	@Test
+	public void should_pad_64bit_trace_ids() {
+		Span span = Span.builder().traceId(1L).spanId(2L).exportable(false).build();
+
+		then(TraceparentFormat.write(span)).isEqualTo(
+				"00-00000000000000000000000000000001-0000000000000002-00");
+	}
+
+	@Test
+	public void should_accept_future_versions_with_additional_fields() {
+		then(TraceparentFormat.parse(
+				"01-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01-what")).isNotNull();
+	}
+
+	@Test
+	public void should_not_parse_malformed_values() {
+		then(TraceparentFormat.parse(null)).isNull();
+		then(TraceparentFormat.parse("")).isNull();
+		then(TraceparentFormat.parse(this.traceparent + "-what")).isNull();
+		then(TraceparentFormat.parse(this.traceparent.replace('-', '_'))).isNull();
+		then(TraceparentFormat.parse(this.traceparent.toUpperCase())).isNull();
+		then(TraceparentFormat.parse(
+				"ff-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")).isNull();
+		then(TraceparentFormat.parse(
+				"00-00000000000000000000000000000000-b7ad6b7169203331-01")).isNull();
+		then(TraceparentFormat.parse(
+				"00-0af7651916cd43dd8448eb211c80319c-0000000000000000-01")).isNull();
+		then(TraceparentFormat.parse(
+				"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-0x")).isNull();
+	}
+}
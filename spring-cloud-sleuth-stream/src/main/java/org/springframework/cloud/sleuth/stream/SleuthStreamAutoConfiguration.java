@@ -38,7 +38,10 @@ import org.springframework.cloud.sleuth.SpanAdjuster;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
 import org.springframework.cloud.sleuth.metric.SpanMetricReporter;
 import org.springframework.cloud.sleuth.metric.TraceMetricsAutoConfiguration;
-import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.sampler.ReporterBackPressure;
 import org.springframework.cloud.sleuth.sampler.SamplerProperties;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.config.ChannelBindingAutoConfiguration;
@@ -73,14 +76,28 @@ public class SleuthStreamAutoConfiguration {
 
 	@Autowired(required = false) List<SpanAdjuster> spanAdjusters = new ArrayList<>();
 
+	@Bean
+	@ConditionalOnMissingBean
+	public ReporterBackPressure sleuthReporterBackPressure() {
+		return new ReporterBackPressure();
+	}
+
+	static Sampler defaultSampler(SamplerProperties config,
+			ReporterBackPressure backPressure) {
+		Sampler sampler = config.getRate() != null ? new RateLimitingSampler(config)
+				: new ProbabilityBasedSampler(config);
+		return config.isAdaptive() ? new AdaptiveSampler(sampler, backPressure) : sampler;
+	}
+
 	@Configuration
 	@ConditionalOnClass(RefreshScope.class)
 	protected static class RefreshScopedPercentageBasedSamplerConfiguration {
 		@Bean
 		@RefreshScope
 		@ConditionalOnMissingBean
-		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+		public Sampler defaultTraceSampler(SamplerProperties config,
+				ReporterBackPressure backPressure) {
+			return defaultSampler(config, backPressure);
 		}
 	}
 
@@ -89,8 +106,9 @@ public class SleuthStreamAutoConfiguration {
 	protected static class NonRefreshScopePercentageBasedSamplerConfiguration {
 		@Bean
 		@ConditionalOnMissingBean
-		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+		public Sampler defaultTraceSampler(SamplerProperties config,
+				ReporterBackPressure backPressure) {
+			return defaultSampler(config, backPressure);
 		}
 	}
 
@@ -103,9 +121,10 @@ public class SleuthStreamAutoConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public StreamSpanReporter sleuthStreamSpanReporter(HostLocator endpointLocator,
-			SpanMetricReporter spanMetricReporter, Environment environment) {
+			SpanMetricReporter spanMetricReporter, Environment environment,
+			ReporterBackPressure backPressure) {
 		return new StreamSpanReporter(endpointLocator, spanMetricReporter, environment,
-				this.spanAdjusters);
+				this.spanAdjusters, backPressure);
 	}
 
 	@Bean(name = StreamSpanReporter.POLLER)
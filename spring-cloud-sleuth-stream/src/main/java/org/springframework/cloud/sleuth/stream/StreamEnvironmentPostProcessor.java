@@ -26,6 +26,9 @@ import java.util.Properties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.env.EnvironmentPostProcessor;
 import org.springframework.cloud.sleuth.instrument.messaging.TraceMessageHeaders;
+import org.springframework.cloud.sleuth.util.B3SingleFormat;
+import org.springframework.cloud.sleuth.util.BinaryFormat;
+import org.springframework.cloud.sleuth.util.TraceparentFormat;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.MutablePropertySources;
@@ -48,7 +51,9 @@ public class StreamEnvironmentPostProcessor implements EnvironmentPostProcessor
 	private static final String PROPERTY_SOURCE_NAME = "defaultProperties";
 	static final String[] HEADERS = new String[] { TraceMessageHeaders.SPAN_ID_NAME,
 			TraceMessageHeaders.TRACE_ID_NAME, TraceMessageHeaders.PARENT_ID_NAME, TraceMessageHeaders.PROCESS_ID_NAME,
-			TraceMessageHeaders.SAMPLED_NAME, TraceMessageHeaders.SPAN_NAME_NAME };
+			TraceMessageHeaders.SAMPLED_NAME, TraceMessageHeaders.SPAN_NAME_NAME,
+			B3SingleFormat.NAME, TraceparentFormat.NAME,
+			BinaryFormat.NAME };
 
 	@Override
 	public void postProcessEnvironment(ConfigurableEnvironment environment,
@@ -23,6 +23,7 @@ import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAdjuster;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.metric.SpanMetricReporter;
+import org.springframework.cloud.sleuth.sampler.ReporterBackPressure;
 import org.springframework.core.env.Environment;
 import org.springframework.integration.annotation.InboundChannelAdapter;
 import org.springframework.integration.annotation.MessageEndpoint;
@@ -63,13 +64,21 @@ public class StreamSpanReporter implements SpanReporter {
 	private final SpanMetricReporter spanMetricReporter;
 	private final Environment environment;
 	private final List<SpanAdjuster> spanAdjusters;
+	private final ReporterBackPressure backPressure;
 
 	public StreamSpanReporter(HostLocator endpointLocator,
 			SpanMetricReporter spanMetricReporter, Environment environment, List<SpanAdjuster> spanAdjusters) {
+		this(endpointLocator, spanMetricReporter, environment, spanAdjusters, null);
+	}
+
+	public StreamSpanReporter(HostLocator endpointLocator,
+			SpanMetricReporter spanMetricReporter, Environment environment,
+			List<SpanAdjuster> spanAdjusters, ReporterBackPressure backPressure) {
 		this.endpointLocator = endpointLocator;
 		this.spanMetricReporter = spanMetricReporter;
 		this.environment = environment;
 		this.spanAdjusters = spanAdjusters;
+		this.backPressure = backPressure;
 	}
 
 	public void setQueue(BlockingQueue<Span> queue) {
@@ -79,6 +88,10 @@ public class StreamSpanReporter implements SpanReporter {
 	@InboundChannelAdapter(value = SleuthSource.OUTPUT, poller = @Poller(POLLER))
 	public Spans poll() {
 		List<Span> result = new LinkedList<>();
+		if (this.backPressure != null) {
+			int queued = this.queue.size();
+			this.backPressure.queuedSpans(queued, queued + this.queue.remainingCapacity());
+		}
 		this.queue.drainTo(result);
 		for (Iterator<Span> iterator = result.iterator(); iterator.hasNext();) {
 			Span span = iterator.next();
@@ -110,6 +123,9 @@ public class StreamSpanReporter implements SpanReporter {
 				this.queue.add(spanToReport);
 			} catch (Exception e) {
 				this.spanMetricReporter.incrementDroppedSpans(1);
+				if (this.backPressure != null) {
+					this.backPressure.spansDropped(1);
+				}
 				if (log.isDebugEnabled()) {
 					log.debug("The span " + spanToReport + " will not be sent to Zipkin due to [" + e + "]");
 				}
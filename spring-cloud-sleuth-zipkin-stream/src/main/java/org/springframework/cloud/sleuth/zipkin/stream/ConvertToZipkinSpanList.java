@@ -108,15 +108,8 @@ final class ConvertToZipkinSpanList {
 		}
 		zipkinSpan.traceIdHigh(span.getTraceIdHigh());
 		zipkinSpan.traceId(span.getTraceId());
-		if (span.getParents().size() > 0) {
-			if (span.getParents().size() > 1) {
-				if (log.isDebugEnabled()) {
-					log.debug(
-							"zipkin doesn't support spans with multiple parents.  Omitting "
-									+ "other parents for " + span);
-				}
-			}
-			zipkinSpan.parentId(span.getParents().get(0));
+		if (span.hasParent()) {
+			zipkinSpan.parentId(span.getParentId());
 		}
 		zipkinSpan.id(span.getSpanId());
 		if (StringUtils.hasText(span.getName())) {
@@ -41,7 +41,8 @@ import org.springframework.cloud.sleuth.SpanAdjuster;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
 import org.springframework.cloud.sleuth.metric.SpanMetricReporter;
-import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
 import org.springframework.cloud.sleuth.sampler.SamplerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,7 +56,8 @@ import org.springframework.web.client.RestTemplate;
 /**
  * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration Auto-configuration}
  * enables reporting to Zipkin via HTTP. Has a default {@link Sampler} set as
- * {@link PercentageBasedSampler}.
+ * {@link ProbabilityBasedSampler}, or {@link RateLimitingSampler} when
+ * {@code spring.sleuth.sampler.rate} is set.
  *
  * The {@link ZipkinRestTemplateCustomizer} allows you to customize the {@link RestTemplate}
  * that is used to send Spans to Zipkin. Its default implementation - {@link DefaultZipkinRestTemplateCustomizer}
@@ -64,7 +66,7 @@ import org.springframework.web.client.RestTemplate;
  * @author Spencer Gibb
  * @since 1.0.0
  *
- * @see PercentageBasedSampler
+ * @see ProbabilityBasedSampler
  * @see ZipkinRestTemplateCustomizer
  * @see DefaultZipkinRestTemplateCustomizer
  */
@@ -142,7 +144,10 @@ public class ZipkinAutoConfiguration {
 		@RefreshScope
 		@ConditionalOnMissingBean
 		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+			if (config.getRate() != null) {
+				return new RateLimitingSampler(config);
+			}
+			return new ProbabilityBasedSampler(config);
 		}
 	}
 
@@ -152,7 +157,10 @@ public class ZipkinAutoConfiguration {
 		@Bean
 		@ConditionalOnMissingBean
 		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+			if (config.getRate() != null) {
+				return new RateLimitingSampler(config);
+			}
+			return new ProbabilityBasedSampler(config);
 		}
 	}
 
@@ -111,12 +111,8 @@ public class ZipkinSpanListener implements SpanReporter {
 		}
 		zipkinSpan.traceIdHigh(convertedSpan.getTraceIdHigh());
 		zipkinSpan.traceId(convertedSpan.getTraceId());
-		if (convertedSpan.getParents().size() > 0) {
-			if (convertedSpan.getParents().size() > 1) {
-				log.error("Zipkin doesn't support spans with multiple parents. Omitting "
-						+ "other parents for " + convertedSpan);
-			}
-			zipkinSpan.parentId(convertedSpan.getParents().get(0));
+		if (convertedSpan.hasParent()) {
+			zipkinSpan.parentId(convertedSpan.getParentId());
 		}
 		zipkinSpan.id(convertedSpan.getSpanId());
 		if (StringUtils.hasText(convertedSpan.getName())) {
@@ -1,14 +1,24 @@
 package org.springframework.cloud.sleuth.zipkin2;
 
 import org.springframework.cloud.sleuth.metric.SpanMetricReporter;
+import org.springframework.cloud.sleuth.sampler.ReporterBackPressure;
 
 import zipkin2.reporter.ReporterMetrics;
 
 final class ReporterMetricsAdapter implements ReporterMetrics {
 	private final SpanMetricReporter spanMetricReporter;
+	private final ReporterBackPressure backPressure;
+	private final int queuedMaxSpans;
 
 	public ReporterMetricsAdapter(SpanMetricReporter spanMetricReporter) {
+		this(spanMetricReporter, null, 0);
+	}
+
+	public ReporterMetricsAdapter(SpanMetricReporter spanMetricReporter,
+			ReporterBackPressure backPressure, int queuedMaxSpans) {
 		this.spanMetricReporter = spanMetricReporter;
+		this.backPressure = backPressure;
+		this.queuedMaxSpans = queuedMaxSpans;
 	}
 
 	@Override
@@ -35,10 +45,16 @@ final class ReporterMetricsAdapter implements ReporterMetrics {
 	@Override
 	public void incrementSpansDropped(int i) {
 		this.spanMetricReporter.incrementDroppedSpans(i);
+		if (this.backPressure != null) {
+			this.backPressure.spansDropped(i);
+		}
 	}
 
 	@Override
 	public void updateQueuedSpans(int i) {
+		if (this.backPressure != null) {
+			this.backPressure.queuedSpans(i, this.queuedMaxSpans);
+		}
 	}
 
 	@Override
@@ -36,7 +36,10 @@ import org.springframework.cloud.sleuth.SpanAdjuster;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
 import org.springframework.cloud.sleuth.metric.SpanMetricReporter;
-import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSampler;
+import org.springframework.cloud.sleuth.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.sampler.ReporterBackPressure;
 import org.springframework.cloud.sleuth.sampler.SamplerProperties;
 import org.springframework.cloud.sleuth.zipkin2.sender.ZipkinSenderConfigurationImportSelector;
 import org.springframework.context.annotation.Bean;
@@ -52,7 +55,8 @@ import zipkin2.reporter.Sender;
 /**
  * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration Auto-configuration}
  * enables reporting to Zipkin via HTTP. Has a default {@link Sampler} set as
- * {@link PercentageBasedSampler}.
+ * {@link ProbabilityBasedSampler}, or {@link RateLimitingSampler} when
+ * {@code spring.sleuth.sampler.rate} is set.
  *
  * The {@link ZipkinRestTemplateCustomizer} allows you to customize the {@link RestTemplate}
  * that is used to send Spans to Zipkin. Its default implementation - {@link DefaultZipkinRestTemplateCustomizer}
@@ -61,7 +65,7 @@ import zipkin2.reporter.Sender;
  * @author Spencer Gibb
  * @since 1.0.0
  *
- * @see PercentageBasedSampler
+ * @see ProbabilityBasedSampler
  * @see ZipkinRestTemplateCustomizer
  * @see DefaultZipkinRestTemplateCustomizer
  */
@@ -72,6 +76,11 @@ import zipkin2.reporter.Sender;
 @Import(ZipkinSenderConfigurationImportSelector.class)
 public class ZipkinAutoConfiguration {
 
+	/**
+	 * Historical constraint. Note: AsyncReporter supports memory bounds
+	 */
+	static final int QUEUED_MAX_SPANS = 1000;
+
 	@Autowired(required = false) List<SpanAdjuster> spanAdjusters = new ArrayList<>();
 
 	/**
@@ -83,12 +92,14 @@ public class ZipkinAutoConfiguration {
 	public Reporter<Span> reporter(
 			SpanMetricReporter spanMetricReporter,
 			ZipkinProperties zipkin,
-			Sender sender
+			Sender sender,
+			ReporterBackPressure backPressure
 	) {
 		return AsyncReporter.builder(sender)
-				.queuedMaxSpans(1000) // historical constraint. Note: AsyncReporter supports memory bounds
+				.queuedMaxSpans(QUEUED_MAX_SPANS)
 				.messageTimeout(zipkin.getMessageTimeout(), TimeUnit.SECONDS)
-				.metrics(new ReporterMetricsAdapter(spanMetricReporter))
+				.metrics(new ReporterMetricsAdapter(spanMetricReporter, backPressure,
+						QUEUED_MAX_SPANS))
 				.build(zipkin.getEncoder());
 	}
 
@@ -98,14 +109,28 @@ public class ZipkinAutoConfiguration {
 		return new DefaultZipkinRestTemplateCustomizer(zipkinProperties);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public ReporterBackPressure sleuthReporterBackPressure() {
+		return new ReporterBackPressure();
+	}
+
+	static Sampler defaultSampler(SamplerProperties config,
+			ReporterBackPressure backPressure) {
+		Sampler sampler = config.getRate() != null ? new RateLimitingSampler(config)
+				: new ProbabilityBasedSampler(config);
+		return config.isAdaptive() ? new AdaptiveSampler(sampler, backPressure) : sampler;
+	}
+
 	@Configuration
 	@ConditionalOnClass(RefreshScope.class)
 	protected static class RefreshScopedPercentageBasedSamplerConfiguration {
 		@Bean
 		@RefreshScope
 		@ConditionalOnMissingBean
-		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+		public Sampler defaultTraceSampler(SamplerProperties config,
+				ReporterBackPressure backPressure) {
+			return defaultSampler(config, backPressure);
 		}
 	}
 
@@ -114,8 +139,9 @@ public class ZipkinAutoConfiguration {
 	protected static class NonRefreshScopePercentageBasedSamplerConfiguration {
 		@Bean
 		@ConditionalOnMissingBean
-		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return new PercentageBasedSampler(config);
+		public Sampler defaultTraceSampler(SamplerProperties config,
+				ReporterBackPressure backPressure) {
+			return defaultSampler(config, backPressure);
 		}
 	}
 
@@ -82,14 +82,10 @@ public class ZipkinSpanReporter implements SpanReporter {
 			zipkinSpan.duration(calculateDurationInMicros(convertedSpan));
 		}
 		zipkinSpan.traceId(convertedSpan.traceIdString());
-		if (convertedSpan.getParents().size() > 0) {
-			if (convertedSpan.getParents().size() > 1) {
-				log.error("Zipkin doesn't support spans with multiple parents. Omitting "
-						+ "other parents for " + convertedSpan);
-			}
-			zipkinSpan.parentId(Span.idToHex(convertedSpan.getParents().get(0)));
+		if (convertedSpan.hasParent()) {
+			zipkinSpan.parentId(convertedSpan.parentIdString());
 		}
-		zipkinSpan.id(Span.idToHex(convertedSpan.getSpanId()));
+		zipkinSpan.id(convertedSpan.spanIdString());
 		if (StringUtils.hasText(convertedSpan.getName())) {
 			zipkinSpan.name(convertedSpan.getName());
 		}
@@ -28,6 +28,8 @@ import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoCon
 import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanReporter;
 import org.springframework.cloud.sleuth.metric.TraceMetricsAutoConfiguration;
@@ -171,4 +173,20 @@ public class ZipkinAutoConfigurationTests {
 
 		context.close();
 	}
+
+	@Test
+	public void rateLimitingSamplerWhenRateIsSet() throws Exception {
+		context = new AnnotationConfigApplicationContext();
+		addEnvironment(context, "spring.sleuth.sampler.rate:1");
+		context.register(
+				PropertyPlaceholderAutoConfiguration.class,
+				RefreshAutoConfiguration.class,
+				TraceMetricsAutoConfiguration.class,
+				ZipkinAutoConfiguration.class);
+		context.refresh();
+
+		Sampler sampler = context.getBean(Sampler.class);
+		then(sampler.isSampled(span)).isTrue();
+		then(sampler.isSampled(span)).isFalse();
+	}
 }